@@ -0,0 +1,147 @@
+package com.assignment.sahaj.banking.benchmark;
+
+import com.assignment.sahaj.banking.BankingApplication;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each {@link BankingService} operation against a Spring context that is booted once per trial. Limits are
+ * raised so that the measured path is the accepted one; operations that are still rejected are counted as completed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BankingServiceBenchmark {
+
+    private static final long SEED_BALANCE = Money.of("10000000000.00");
+    private static final long DEPOSIT_AMOUNT = Money.of("500.00");
+    private static final long WITHDRAWAL_AMOUNT = Money.of("1000.00");
+
+    @Param({"uniform", "zipfian"})
+    private String distribution;
+
+    @Param({"10000"})
+    private int accounts;
+
+    @Param({"jpa"})
+    private String engineMode;
+
+    // h2mem, h2file or postgres, the last two run with the profile of the same name
+    @Param({"h2mem", "h2file"})
+    private String backend;
+
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private Long[] accountNumbers;
+    private ZipfianSampler zipfianSampler;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var args = new ArrayList<>(List.of(
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                "--banking.engine.mode=" + engineMode,
+                "--banking.balance.limit.maximum=100000000000000.00",
+                "--banking.deposit.limit.maximum=100000000000.00",
+                "--banking.daily.limit.credit=" + Integer.MAX_VALUE,
+                "--banking.daily.limit.debit=" + Integer.MAX_VALUE));
+        switch (backend) {
+            case "h2mem" -> args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE");
+            // every trial starts from an empty database file
+            case "h2file" -> args.addAll(List.of("--spring.profiles.active=h2file",
+                    "--banking.data-dir=./target/jmh/h2file-" + System.currentTimeMillis()));
+            case "postgres" -> args.add("--spring.profiles.active=postgres");
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+        context = new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        bankingService = context.getBean(BankingService.class);
+
+        accountNumbers = new Long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = bankingService.createAccount("Customer " + i);
+            bankingService.deposit(accountNumbers[i], SEED_BALANCE);
+        }
+        zipfianSampler = new ZipfianSampler(accounts, 0.99);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long createAccount() {
+        return bankingService.createAccount("Benchmark Customer");
+    }
+
+    @Benchmark
+    public long deposit(ThreadState state) {
+        try {
+            return bankingService.deposit(pick(state), DEPOSIT_AMOUNT);
+        } catch (IllegalArgumentException e) {
+            return -1L;
+        }
+    }
+
+    @Benchmark
+    public long withdraw(ThreadState state) {
+        try {
+            return bankingService.withdraw(pick(state), WITHDRAWAL_AMOUNT);
+        } catch (IllegalArgumentException e) {
+            return -1L;
+        }
+    }
+
+    @Benchmark
+    public String transferFund(ThreadState state) {
+        try {
+            return bankingService.transferFund(pick(state), pick(state), WITHDRAWAL_AMOUNT);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public long getBalance(ThreadState state) {
+        return bankingService.getBalance(pick(state));
+    }
+
+    private Long pick(ThreadState state) {
+        var index = "zipfian".equals(distribution)
+                ? zipfianSampler.sample(state.random)
+                : state.random.nextInt(accounts);
+        return accountNumbers[index];
+    }
+}
@@ -0,0 +1,43 @@
+package com.assignment.sahaj.banking.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Runs the benchmarks once per thread count and writes one JSON result file per run, e.g.
+ * {@code target/jmh/banking-16-threads.json}. Started by {@code mvn -Pbenchmark verify};
+ * any JMH command line options passed in directly, such as {@code -wi 1 -i 1}, override the annotated defaults.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var commandLine = new CommandLineOptions(args);
+        var include = System.getProperty("benchmark.include", BankingServiceBenchmark.class.getSimpleName());
+        var backends = System.getProperty("benchmark.backends", "h2mem,h2file").split(",");
+        var output = new File(System.getProperty("benchmark.output", "target/jmh"));
+        var threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "1,4,16,64").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        output.mkdirs();
+        for (var threads : threadCounts) {
+            new Runner(new OptionsBuilder()
+                    .parent(commandLine)
+                    .include(include)
+                    .param("backend", backends)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(output, "banking-" + threads + "-threads.json").getPath())
+                    .build())
+                    .run();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.assignment.sahaj.banking.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws indexes in [0, size) where index k is picked with probability proportional to 1 / (k + 1)^skew, so a handful
+ * of accounts receive most of the traffic.
+ */
+public class ZipfianSampler {
+
+    private final double[] cumulative;
+
+    public ZipfianSampler(int size, double skew) {
+        cumulative = new double[size];
+        var total = 0.0;
+        for (int k = 0; k < size; k++) {
+            total += 1.0 / Math.pow(k + 1, skew);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= total;
+        }
+    }
+
+    public int sample(SplittableRandom random) {
+        var index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,279 @@
+package com.assignment.sahaj.banking.accrual;
+
+import com.assignment.sahaj.banking.dto.AccrualRunResult;
+import com.assignment.sahaj.banking.replica.ReadSession;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the end-of-day interest accrual and monthly fees over every account, once per business date.
+ * <p>
+ * The accounts are read in keyset pages of {@code banking.accrual.chunk-size} account numbers, and every page is
+ * posted as one chunk by {@link AccrualPoster} on a pool of {@code banking.accrual.parallelism} threads. At most
+ * twice as many chunks as threads are in flight, and chunks are handed out no faster than
+ * {@code banking.accrual.max-accounts-per-second}, so online operations keep the rest of the connection pool and
+ * only ever wait for the row locks of one chunk.
+ * <p>
+ * Every chunk is recorded in {@code accrual_chunk} together with its postings. A run that fails, or whose application
+ * stops, is resumed by running the same business date again: the chunks already recorded are skipped. That happens
+ * on startup with {@code banking.accrual.resume-on-startup}, and before every scheduled run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.accrual.enabled", havingValue = "true")
+public class AccrualBatchService {
+
+    private static final String SELECT_RUN_SQL = "SELECT completed_at FROM accrual_run WHERE business_date = ?";
+    private static final String INSERT_RUN_SQL = "INSERT INTO accrual_run (business_date, started_at) VALUES (?, ?)";
+    private static final String COMPLETE_RUN_SQL = "UPDATE accrual_run SET completed_at = ? WHERE business_date = ?";
+    private static final String SELECT_INCOMPLETE_RUNS_SQL =
+            "SELECT business_date FROM accrual_run WHERE completed_at IS NULL ORDER BY business_date";
+    private static final String SELECT_CHUNKS_SQL =
+            "SELECT first_account_number, last_account_number FROM accrual_chunk WHERE business_date = ?";
+    private static final String DELETE_CHUNKS_SQL = "DELETE FROM accrual_chunk WHERE business_date = ?";
+
+    private final AccountRepository accountRepository;
+    private final AccrualPoster accrualPoster;
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final long maxAccountsPerSecond;
+    private final int feeDayOfMonth;
+    private final boolean resumeOnStartup;
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder interestPostings = new LongAdder();
+    private final LongAdder feePostings = new LongAdder();
+    private final LongAdder failedChunks = new LongAdder();
+
+    @Autowired
+    public AccrualBatchService(AccountRepository accountRepository,
+                               AccrualPoster accrualPoster,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${banking.accrual.chunk-size}") int chunkSize,
+                               @Value("${banking.accrual.parallelism}") int parallelism,
+                               @Value("${banking.accrual.max-accounts-per-second}") long maxAccountsPerSecond,
+                               @Value("${banking.accrual.fee.day-of-month}") int feeDayOfMonth,
+                               @Value("${banking.accrual.resume-on-startup}") boolean resumeOnStartup) {
+        this.accountRepository = accountRepository;
+        this.accrualPoster = accrualPoster;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxAccountsPerSecond = maxAccountsPerSecond;
+        this.feeDayOfMonth = feeDayOfMonth;
+        this.resumeOnStartup = resumeOnStartup;
+    }
+
+    // resumed in the background, so a long run does not hold up the application starting
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (resumeOnStartup) {
+            var resume = new Thread(this::resumeIncompleteRuns, "accrual-resume");
+            resume.setDaemon(true);
+            resume.start();
+        }
+    }
+
+    /**
+     * Finishes the runs left incomplete, then runs the business date that ended at midnight.
+     */
+    @Scheduled(cron = "${banking.accrual.cron}")
+    public void runNightly() {
+        resumeIncompleteRuns();
+        run(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Posts the interest of {@code businessDate} to every account, and the monthly fee if the date is the fee day of
+     * its month. A business date already completed is not run again, and one that was interrupted is resumed. The
+     * result only covers the postings made by this call.
+     *
+     * @throws IllegalStateException if a chunk could not be posted; the chunks posted so far stay recorded
+     */
+    public synchronized AccrualRunResult run(LocalDate businessDate) {
+        var start = System.nanoTime();
+        var run = jdbcTemplate.query(SELECT_RUN_SQL, (row, index) -> row.getTimestamp(1), Date.valueOf(businessDate));
+        if (!run.isEmpty() && run.get(0) != null) {
+            log.info("Accrual run of {} has already completed", businessDate);
+            return AccrualRunResult.builder().businessDate(businessDate).build();
+        }
+        if (run.isEmpty()) {
+            jdbcTemplate.update(INSERT_RUN_SQL, Date.valueOf(businessDate), Timestamp.valueOf(LocalDateTime.now()));
+        }
+        var done = new TreeMap<Long, Long>();
+        jdbcTemplate.query(SELECT_CHUNKS_SQL, (RowCallbackHandler) row -> done.put(row.getLong(1), row.getLong(2)),
+                Date.valueOf(businessDate));
+        if (!done.isEmpty()) {
+            log.info("Resuming accrual run of {}, {} chunks are already posted", businessDate, done.size());
+        }
+
+        var chargeFee = businessDate.getDayOfMonth() == Math.min(feeDayOfMonth, businessDate.lengthOfMonth());
+        var totals = new Totals();
+        var failure = new AtomicReference<RuntimeException>();
+        var inFlight = new Semaphore(parallelism * 2);
+        var executor = newExecutor();
+        try {
+            var cursor = 0L;
+            var nextDispatchNanos = System.nanoTime();
+            while (failure.get() == null) {
+                // read from the primary, a lagging replica could leave out accounts opened just before the run
+                var after = cursor;
+                var page = ReadSession.onPrimary(
+                        () -> accountRepository.findAccountNumbersAfter(after, PageRequest.of(0, chunkSize)));
+                if (page.isEmpty()) {
+                    break;
+                }
+                // a page that runs into a chunk posted before is cut there, and the scan goes on after that chunk
+                var chunk = new ArrayList<Long>(page.size());
+                cursor = page.get(page.size() - 1);
+                for (var accountNumber : page) {
+                    var posted = done.floorEntry(accountNumber);
+                    if (posted != null && accountNumber <= posted.getValue()) {
+                        cursor = posted.getValue();
+                        break;
+                    }
+                    chunk.add(accountNumber);
+                }
+                if (chunk.isEmpty()) {
+                    continue;
+                }
+                nextDispatchNanos = throttle(nextDispatchNanos, chunk.size());
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        totals.add(accrualPoster.post(businessDate, chunk, chargeFee));
+                    } catch (RuntimeException e) {
+                        failedChunks.increment();
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(parallelism * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new IllegalStateException("Interrupted", e));
+        } finally {
+            executor.shutdown();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Accrual run of " + businessDate + " failed, running it again resumes it",
+                    failure.get());
+        }
+
+        jdbcTemplate.update(COMPLETE_RUN_SQL, Timestamp.valueOf(LocalDateTime.now()), Date.valueOf(businessDate));
+        jdbcTemplate.update(DELETE_CHUNKS_SQL, Date.valueOf(businessDate));
+        var result = totals.toResult(businessDate);
+        log.info("Accrual run of {} posted interest to {} and fees to {} of {} accounts in {} ms", businessDate,
+                result.getInterestPostings(), result.getFeePostings(), result.getAccounts(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    public long getAccounts() {
+        return accounts.sum();
+    }
+
+    public long getInterestPostings() {
+        return interestPostings.sum();
+    }
+
+    public long getFeePostings() {
+        return feePostings.sum();
+    }
+
+    public long getFailedChunks() {
+        return failedChunks.sum();
+    }
+
+    private void resumeIncompleteRuns() {
+        List<LocalDate> incomplete = jdbcTemplate.query(SELECT_INCOMPLETE_RUNS_SQL,
+                (row, index) -> row.getDate(1).toLocalDate());
+        for (var businessDate : incomplete) {
+            try {
+                run(businessDate);
+            } catch (RuntimeException e) {
+                log.error("Failed to resume the accrual run of {}", businessDate, e);
+            }
+        }
+    }
+
+    // spaces the chunks out so that accounts are handed out at no more than the configured rate
+    private long throttle(long nextDispatchNanos, int accountCount) throws InterruptedException {
+        if (maxAccountsPerSecond <= 0) {
+            return nextDispatchNanos;
+        }
+        var wait = nextDispatchNanos - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        return Math.max(nextDispatchNanos, System.nanoTime())
+                + TimeUnit.SECONDS.toNanos(accountCount) / maxAccountsPerSecond;
+    }
+
+    private ExecutorService newExecutor() {
+        var threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, task -> {
+            var thread = new Thread(task, "accrual-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final class Totals {
+
+        private final LongAdder accountCount = new LongAdder();
+        private final LongAdder interestCount = new LongAdder();
+        private final LongAdder interestAmount = new LongAdder();
+        private final LongAdder feeCount = new LongAdder();
+        private final LongAdder feeAmount = new LongAdder();
+
+        private void add(AccrualPoster.Postings postings) {
+            accountCount.add(postings.accounts());
+            interestCount.add(postings.interestPostings());
+            interestAmount.add(postings.interestAmount());
+            feeCount.add(postings.feePostings());
+            feeAmount.add(postings.feeAmount());
+            accounts.add(postings.accounts());
+            interestPostings.add(postings.interestPostings());
+            feePostings.add(postings.feePostings());
+        }
+
+        private AccrualRunResult toResult(LocalDate businessDate) {
+            return AccrualRunResult.builder()
+                    .businessDate(businessDate)
+                    .accounts(accountCount.sum())
+                    .interestPostings(interestCount.sum())
+                    .interestAmount(interestAmount.sum())
+                    .feePostings(feeCount.sum())
+                    .feeAmount(feeAmount.sum())
+                    .build();
+        }
+    }
+}
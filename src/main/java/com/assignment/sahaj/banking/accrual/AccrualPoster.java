@@ -0,0 +1,131 @@
+package com.assignment.sahaj.banking.accrual;
+
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.service.AccountStore;
+import com.assignment.sahaj.banking.service.RetryOnLockContention;
+import com.assignment.sahaj.banking.utils.Money;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Posts the interest and fees of one chunk of accounts for {@link AccrualBatchService}, in one transaction that also
+ * records the chunk as done. In {@code in-memory} mode the ledger takes its changes back if that transaction rolls
+ * back, so a chunk is never posted without being recorded.
+ * <p>
+ * Interest is {@code banking.accrual.interest.annual-rate-bps} of the balance over a 365 day year, rounded down to
+ * the minor unit, and never takes the balance above the maximum balance limit of the account's tier. The monthly fee
+ * {@code banking.accrual.fee.monthly} never takes the balance below the minimum balance limit. Neither counts against
+ * the daily credit and debit limits.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.accrual.enabled", havingValue = "true")
+public class AccrualPoster {
+
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO accrual_chunk (business_date, first_account_number, last_account_number) VALUES (?, ?, ?)";
+    private static final long BASIS_POINTS_PER_YEAR = 10_000L * 365;
+
+    /**
+     * What the postings of a chunk amounted to.
+     */
+    public record Postings(long accounts, long interestPostings, long interestAmount, long feePostings,
+                           long feeAmount) {
+    }
+
+    private final AccountStore accountStore;
+    private final LimitPolicyProvider limitPolicyProvider;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final long annualRateBasisPoints;
+    private final long monthlyFee;
+
+    @Autowired
+    public AccrualPoster(AccountStore accountStore,
+                         LimitPolicyProvider limitPolicyProvider,
+                         JdbcTemplate jdbcTemplate,
+                         EntityManager entityManager,
+                         @Value("${banking.accrual.interest.annual-rate-bps}") long annualRateBasisPoints,
+                         @Value("${banking.accrual.fee.monthly}") String monthlyFee) {
+        this.accountStore = accountStore;
+        this.limitPolicyProvider = limitPolicyProvider;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.annualRateBasisPoints = annualRateBasisPoints;
+        this.monthlyFee = Money.of(monthlyFee);
+    }
+
+    /**
+     * Posts the interest of {@code businessDate}, and the monthly fee if {@code chargeFee} is set, to the accounts
+     * in {@code accountNumbers}, which must be in ascending order. Accounts that no longer exist are skipped.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public Postings post(LocalDate businessDate, List<Long> accountNumbers, boolean chargeFee) {
+        // every changed account and journal entry of the chunk goes out in one JDBC batch per statement
+        var session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(accountNumbers.size());
+        try {
+            var postings = accountStore.updateAll(accountNumbers, accounts -> {
+                var policy = limitPolicyProvider.current();
+                var postedAt = LocalDateTime.now();
+                long interestPostings = 0;
+                long interestAmount = 0;
+                long feePostings = 0;
+                long feeAmount = 0;
+                for (var account : accounts.values()) {
+                    var limits = policy.of(account.getTier());
+                    var interest = Math.min(interestOf(account.getBalance()),
+                            limits.getMaximumBalanceLimit() - account.getBalance());
+                    if (interest > 0) {
+                        account.credit(interest);
+                        record(account, JournalEntry.Type.INTEREST, interest, postedAt);
+                        interestPostings++;
+                        interestAmount += interest;
+                    }
+                    var fee = chargeFee
+                            ? Math.min(monthlyFee, account.getBalance() - limits.getMinimumBalanceLimit())
+                            : 0;
+                    if (fee > 0) {
+                        account.debit(fee);
+                        record(account, JournalEntry.Type.FEE, -fee, postedAt);
+                        feePostings++;
+                        feeAmount += fee;
+                    }
+                }
+                return new Postings(accounts.size(), interestPostings, interestAmount, feePostings, feeAmount);
+            });
+            jdbcTemplate.update(INSERT_CHUNK_SQL, Date.valueOf(businessDate), accountNumbers.get(0),
+                    accountNumbers.get(accountNumbers.size() - 1));
+            return postings;
+        } finally {
+            session.setJdbcBatchSize(null);
+        }
+    }
+
+    private long interestOf(long balance) {
+        return balance > 0 ? balance * annualRateBasisPoints / BASIS_POINTS_PER_YEAR : 0;
+    }
+
+    private void record(Account account, JournalEntry.Type type, long signedAmount, LocalDateTime postedAt) {
+        accountStore.record(JournalEntry.builder()
+                .accountNumber(account.getAccountNumber())
+                .type(type)
+                .amount(signedAmount)
+                .balanceAfter(account.getBalance())
+                .postedAt(postedAt)
+                .build());
+    }
+}
@@ -0,0 +1,132 @@
+package com.assignment.sahaj.banking.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Caches committed balances by account number, and the account numbers that are known not to exist. Balances are
+ * written through after the transaction that changed them commits; each entry carries the account version, so a
+ * late write can never replace a newer balance.
+ */
+@Component
+public class AccountCache {
+
+    public static final class CachedBalance {
+
+        private final long balance;
+        private final long version;
+
+        private CachedBalance(long balance, long version) {
+            this.balance = balance;
+            this.version = version;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+    }
+
+    private final boolean enabled;
+    private final Cache<Long, CachedBalance> balances;
+    private final Cache<Long, Boolean> missingAccounts;
+
+    @Autowired
+    public AccountCache(@Value("${banking.cache.enabled}") boolean enabled,
+                        @Value("${banking.cache.maximum-size}") long maximumSize,
+                        @Value("${banking.cache.ttl-ms}") long ttlMillis,
+                        @Value("${banking.cache.missing.maximum-size}") long missingMaximumSize,
+                        @Value("${banking.cache.missing.ttl-ms}") long missingTtlMillis) {
+        this.enabled = enabled;
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        this.missingAccounts = Caffeine.newBuilder()
+                .maximumSize(missingMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(missingTtlMillis))
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CachedBalance getBalance(Long accountNumber) {
+        return enabled ? balances.getIfPresent(accountNumber) : null;
+    }
+
+    public void putBalance(Long accountNumber, long balance, Long version) {
+        if (enabled) {
+            var cached = new CachedBalance(balance, version == null ? 0L : version);
+            balances.asMap().merge(accountNumber, cached,
+                    (current, candidate) -> candidate.version >= current.version ? candidate : current);
+        }
+    }
+
+    public void putBalanceAfterCommit(Long accountNumber, long balance, Long version) {
+        afterCommit(() -> putBalance(accountNumber, balance, version));
+    }
+
+    public boolean isMissing(Long accountNumber) {
+        return enabled && missingAccounts.getIfPresent(accountNumber) != null;
+    }
+
+    public void markMissing(Long accountNumber) {
+        if (enabled) {
+            missingAccounts.put(accountNumber, Boolean.TRUE);
+        }
+    }
+
+    public void clearMissingAfterCommit(Long accountNumber) {
+        afterCommit(() -> missingAccounts.invalidate(accountNumber));
+    }
+
+    public void clearMissing(Collection<Long> accountNumbers) {
+        if (enabled) {
+            missingAccounts.invalidateAll(accountNumbers);
+        }
+    }
+
+    public CacheStats balanceStats() {
+        return balances.stats();
+    }
+
+    public CacheStats missingAccountStats() {
+        return missingAccounts.stats();
+    }
+
+    public Cache<Long, CachedBalance> getBalances() {
+        return balances;
+    }
+
+    public Cache<Long, Boolean> getMissingAccounts() {
+        return missingAccounts;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
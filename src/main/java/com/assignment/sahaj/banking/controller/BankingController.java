@@ -0,0 +1,197 @@
+package com.assignment.sahaj.banking.controller;
+
+import com.assignment.sahaj.banking.dto.AccountResponse;
+import com.assignment.sahaj.banking.dto.AmountRequest;
+import com.assignment.sahaj.banking.dto.CreateAccountRequest;
+import com.assignment.sahaj.banking.dto.MessageResponse;
+import com.assignment.sahaj.banking.dto.TransferRequest;
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.pipeline.CommandPipeline;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.service.IdempotentBankingService;
+import com.assignment.sahaj.banking.service.StatementService;
+import com.assignment.sahaj.banking.shard.ShardedBankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import static com.assignment.sahaj.banking.utils.Messages.AMOUNT_REQUIRED_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_STATEMENT_FORMAT_EXCEPTION_MESSAGE;
+
+/**
+ * HTTP API over {@link BankingService}. Amounts are decimal numbers in requests and responses. Every call is handed
+ * to the {@link RequestExecutor} and completed asynchronously, bounded by {@code spring.mvc.async.request-timeout}.
+ * Money operations sent with an {@code Idempotency-Key} header are applied at most once. When the
+ * {@link CommandPipeline} is enabled, the other deposits, withdrawals and transfers are submitted to it instead. With
+ * sharding enabled, every call is served by the shard of its account through the {@link ShardedBankingService}.
+ */
+@RestController
+public class BankingController {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final BankingService bankingService;
+    private final IdempotentBankingService idempotentBankingService;
+    private final RequestExecutor requestExecutor;
+    private final StatementService statementService;
+    private final CommandPipeline commandPipeline;
+    private final ShardedBankingService shardedBankingService;
+
+    @Autowired
+    public BankingController(BankingService bankingService,
+                             IdempotentBankingService idempotentBankingService,
+                             RequestExecutor requestExecutor,
+                             StatementService statementService,
+                             ObjectProvider<CommandPipeline> commandPipeline,
+                             ObjectProvider<ShardedBankingService> shardedBankingService) {
+        this.bankingService = bankingService;
+        this.idempotentBankingService = idempotentBankingService;
+        this.requestExecutor = requestExecutor;
+        this.statementService = statementService;
+        this.shardedBankingService = shardedBankingService.getIfAvailable();
+        // the pipeline writes to the local database, so it is not used when the accounts are sharded
+        this.commandPipeline = this.shardedBankingService == null ? commandPipeline.getIfAvailable() : null;
+    }
+
+    @PostMapping("/accounts")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<AccountResponse> createAccount(@RequestBody CreateAccountRequest request) {
+        var tier = request.getTier() == null ? Account.Tier.RETAIL : request.getTier();
+        return requestExecutor.submit(() -> AccountResponse.of(shardedBankingService == null
+                ? bankingService.createAccount(request.getName(), tier)
+                : shardedBankingService.createAccount(request.getName(), tier), 0L));
+    }
+
+    @PostMapping("/accounts/{accountNumber}/deposits")
+    public CompletableFuture<AccountResponse> deposit(@PathVariable Long accountNumber,
+                                                      @RequestBody AmountRequest request,
+                                                      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                      String idempotencyKey) {
+        var amount = amountOf(request.getAmount());
+        if (commandPipeline != null && idempotencyKey == null) {
+            return commandPipeline.deposit(accountNumber, amount)
+                    .thenApply(balance -> AccountResponse.of(accountNumber, balance));
+        }
+        return requestExecutor.submit(() -> AccountResponse.of(accountNumber, idempotencyKey == null
+                ? bankingServiceFor(accountNumber).deposit(accountNumber, amount)
+                : idempotentBankingServiceFor(accountNumber).deposit(idempotencyKey, accountNumber, amount)));
+    }
+
+    @PostMapping("/accounts/{accountNumber}/withdrawals")
+    public CompletableFuture<AccountResponse> withdraw(@PathVariable Long accountNumber,
+                                                       @RequestBody AmountRequest request,
+                                                       @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                       String idempotencyKey) {
+        var amount = amountOf(request.getAmount());
+        if (commandPipeline != null && idempotencyKey == null) {
+            return commandPipeline.withdraw(accountNumber, amount)
+                    .thenApply(balance -> AccountResponse.of(accountNumber, balance));
+        }
+        return requestExecutor.submit(() -> AccountResponse.of(accountNumber, idempotencyKey == null
+                ? bankingServiceFor(accountNumber).withdraw(accountNumber, amount)
+                : idempotentBankingServiceFor(accountNumber).withdraw(idempotencyKey, accountNumber, amount)));
+    }
+
+    @PostMapping("/transfers")
+    public CompletableFuture<MessageResponse> transferFund(@RequestBody TransferRequest request,
+                                                           @RequestHeader(name = IDEMPOTENCY_KEY_HEADER,
+                                                                   required = false) String idempotencyKey) {
+        var amount = amountOf(request.getAmount());
+        var source = request.getSourceAccountNumber();
+        var destination = request.getDestinationAccountNumber();
+        if (commandPipeline != null && idempotencyKey == null) {
+            return commandPipeline.transferFund(source, destination, amount).thenApply(MessageResponse::of);
+        }
+        if (shardedBankingService != null) {
+            return requestExecutor.submit(() -> MessageResponse.of(idempotencyKey == null
+                    ? shardedBankingService.transferFund(source, destination, amount)
+                    : shardedBankingService.transferFund(idempotencyKey, source, destination, amount)));
+        }
+        return requestExecutor.submit(() -> MessageResponse.of(idempotencyKey == null
+                ? bankingService.transferFund(source, destination, amount)
+                : idempotentBankingService.transferFund(idempotencyKey, source, destination, amount)));
+    }
+
+    @GetMapping("/accounts/{accountNumber}/balance")
+    public CompletableFuture<AccountResponse> getBalance(@PathVariable Long accountNumber) {
+        return requestExecutor.submit(
+                () -> AccountResponse.of(accountNumber, bankingServiceFor(accountNumber).getBalance(accountNumber)));
+    }
+
+    /**
+     * Streams the statement of an account as CSV, or as a JSON array with {@code format=json}. The request is checked
+     * before the response starts; the entries are then written straight to the response as they are read.
+     */
+    @GetMapping("/accounts/{accountNumber}/statement")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> statement(
+            @PathVariable Long accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        var until = to == null ? LocalDate.now() : to;
+        var statementService = statementServiceFor(accountNumber);
+        return requestExecutor.submit(() -> {
+            var statementFormat = formatOf(format);
+            statementService.validate(accountNumber, from, until);
+            StreamingResponseBody body = outputStream ->
+                    statementService.export(accountNumber, from, until, statementFormat, outputStream);
+            return ResponseEntity.ok()
+                    .contentType(statementFormat == StatementService.Format.CSV
+                            ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                            : MediaType.APPLICATION_JSON)
+                    .body(body);
+        });
+    }
+
+    private BankingService bankingServiceFor(Long accountNumber) {
+        return shardedBankingService == null
+                ? bankingService
+                : shardedBankingService.shardOf(accountNumber).getBankingService();
+    }
+
+    private IdempotentBankingService idempotentBankingServiceFor(Long accountNumber) {
+        return shardedBankingService == null
+                ? idempotentBankingService
+                : shardedBankingService.shardOf(accountNumber).getIdempotentBankingService();
+    }
+
+    private StatementService statementServiceFor(Long accountNumber) {
+        return shardedBankingService == null
+                ? statementService
+                : shardedBankingService.shardOf(accountNumber).getStatementService();
+    }
+
+    private static StatementService.Format formatOf(String format) {
+        try {
+            return StatementService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(INVALID_STATEMENT_FORMAT_EXCEPTION_MESSAGE);
+        }
+    }
+
+    private static long amountOf(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException(AMOUNT_REQUIRED_EXCEPTION_MESSAGE);
+        }
+        return Money.of(amount);
+    }
+}
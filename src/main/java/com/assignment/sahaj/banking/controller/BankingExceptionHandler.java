@@ -0,0 +1,32 @@
+package com.assignment.sahaj.banking.controller;
+
+import com.assignment.sahaj.banking.dto.MessageResponse;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@RestControllerAdvice
+public class BankingExceptionHandler {
+
+    @ExceptionHandler(BankingRejection.class)
+    public ResponseEntity<MessageResponse> rejected(BankingRejection rejection) {
+        return ResponseEntity.badRequest().body(MessageResponse.of(rejection));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<MessageResponse> invalid(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(MessageResponse.of(e.getMessage()));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<MessageResponse> overloaded(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(MessageResponse.of(e.getMessage()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.assignment.sahaj.banking.controller;
+
+import com.assignment.sahaj.banking.dto.CustomerMatch;
+import com.assignment.sahaj.banking.dto.CustomerPage;
+import com.assignment.sahaj.banking.service.CustomerSearchService;
+import com.assignment.sahaj.banking.shard.ShardedCustomerSearch;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Customer search for support staff, see {@link CustomerSearchService}. With sharding enabled, the customers of every
+ * shard are searched through the {@link ShardedCustomerSearch}.
+ */
+@RestController
+public class CustomerController {
+
+    private final CustomerSearchService customerSearchService;
+    private final RequestExecutor requestExecutor;
+    private final ShardedCustomerSearch shardedCustomerSearch;
+
+    @Autowired
+    public CustomerController(CustomerSearchService customerSearchService,
+                              RequestExecutor requestExecutor,
+                              ObjectProvider<ShardedCustomerSearch> shardedCustomerSearch) {
+        this.customerSearchService = customerSearchService;
+        this.requestExecutor = requestExecutor;
+        this.shardedCustomerSearch = shardedCustomerSearch.getIfAvailable();
+    }
+
+    @GetMapping("/customers")
+    public CompletableFuture<CustomerPage> search(@RequestParam String name,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit) {
+        return requestExecutor.submit(() -> shardedCustomerSearch == null
+                ? customerSearchService.search(name, cursor, limit)
+                : shardedCustomerSearch.search(name, cursor, limit));
+    }
+
+    @GetMapping("/customers/suggestions")
+    public CompletableFuture<List<CustomerMatch>> suggest(@RequestParam String name,
+                                                          @RequestParam(required = false) Integer limit) {
+        return requestExecutor.submit(() -> shardedCustomerSearch == null
+                ? customerSearchService.suggest(name, limit)
+                : shardedCustomerSearch.suggest(name, limit));
+    }
+}
@@ -0,0 +1,42 @@
+package com.assignment.sahaj.banking.controller;
+
+import com.assignment.sahaj.banking.dto.MessageResponse;
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.shard.Shard;
+import com.assignment.sahaj.banking.shard.ShardedBankingService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.assignment.sahaj.banking.utils.Messages.LIMITS_RELOADED_MESSAGE;
+
+/**
+ * Reloads the limits on demand, see {@link LimitPolicyProvider}. An invalid policy is answered with {@code 400} and
+ * the current limits stay in place. With sharding enabled, the limits of every shard are reloaded too, since each shard
+ * applies its own.
+ */
+@RestController
+public class LimitPolicyController {
+
+    private final LimitPolicyProvider limitPolicyProvider;
+    private final ShardedBankingService shardedBankingService;
+
+    @Autowired
+    public LimitPolicyController(LimitPolicyProvider limitPolicyProvider,
+                                 ObjectProvider<ShardedBankingService> shardedBankingService) {
+        this.limitPolicyProvider = limitPolicyProvider;
+        this.shardedBankingService = shardedBankingService.getIfAvailable();
+    }
+
+    @PostMapping("/admin/limits/reload")
+    public MessageResponse reload() {
+        // the shards read the same policy, so one that is invalid is rejected here before any shard takes it
+        limitPolicyProvider.reload();
+        if (shardedBankingService != null) {
+            shardedBankingService.getShards().stream().map(Shard::getLimitPolicyProvider)
+                    .forEach(LimitPolicyProvider::reload);
+        }
+        return MessageResponse.of(LIMITS_RELOADED_MESSAGE);
+    }
+}
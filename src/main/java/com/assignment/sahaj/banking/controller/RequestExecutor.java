@@ -0,0 +1,86 @@
+package com.assignment.sahaj.banking.controller;
+
+import com.assignment.sahaj.banking.replica.ReadSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking {@link com.assignment.sahaj.banking.service.BankingService} calls of the HTTP API off the
+ * servlet threads, so a request waiting on the database holds a connection slot instead of a Tomcat thread.
+ * At most {@code banking.api.max-in-flight} requests are accepted at a time; beyond that a request is refused
+ * immediately with a {@link RejectedExecutionException} rather than queued without bound.
+ * <p>
+ * Work runs on a fixed pool of {@code banking.api.threads} platform threads, or on one virtual thread per request
+ * when {@code banking.api.virtual-threads} is set and the JVM supports them (Java 21 or later).
+ */
+@Component
+public class RequestExecutor {
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    @Autowired
+    public RequestExecutor(@Value("${banking.api.threads}") int threads,
+                           @Value("${banking.api.max-in-flight}") int maxInFlight,
+                           @Value("${banking.api.virtual-threads}") boolean virtualThreads) {
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = virtualThreads ? newVirtualThreadExecutor() : newPlatformThreadExecutor(threads, maxInFlight);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many requests in flight"));
+        }
+        // the read session of the request goes with the operation to the thread that runs it
+        var session = ReadSession.current();
+        try {
+            return CompletableFuture.supplyAsync(() -> ReadSession.callWith(session, operation), executor)
+                    .whenComplete((result, e) -> inFlight.release());
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int threads, int maxInFlight) {
+        var count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxInFlight), runnable -> {
+            var thread = new Thread(runnable, "banking-api-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("banking.api.virtual-threads needs Java 21 or later", e);
+        }
+    }
+}
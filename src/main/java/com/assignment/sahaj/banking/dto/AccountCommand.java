@@ -0,0 +1,40 @@
+package com.assignment.sahaj.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@AllArgsConstructor
+public class AccountCommand {
+
+    public enum Type {
+        DEPOSIT,
+        WITHDRAWAL,
+        TRANSFER
+    }
+
+    Type type;
+
+    // the source account of a transfer
+    Long accountNumber;
+
+    // only set for a transfer
+    Long destinationAccountNumber;
+
+    // in minor units, see Money
+    long amount;
+
+    public static AccountCommand deposit(Long accountNumber, long amount) {
+        return new AccountCommand(Type.DEPOSIT, accountNumber, null, amount);
+    }
+
+    public static AccountCommand withdrawal(Long accountNumber, long amount) {
+        return new AccountCommand(Type.WITHDRAWAL, accountNumber, null, amount);
+    }
+
+    public static AccountCommand transfer(Long sourceAccountNumber, Long destinationAccountNumber, long amount) {
+        return new AccountCommand(Type.TRANSFER, sourceAccountNumber, destinationAccountNumber, amount);
+    }
+}
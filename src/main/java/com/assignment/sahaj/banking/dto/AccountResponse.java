@@ -0,0 +1,18 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.assignment.sahaj.banking.utils.Money;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class AccountResponse {
+
+    Long accountNumber;
+
+    BigDecimal balance;
+
+    public static AccountResponse of(Long accountNumber, long balance) {
+        return new AccountResponse(accountNumber, Money.toDecimal(balance));
+    }
+}
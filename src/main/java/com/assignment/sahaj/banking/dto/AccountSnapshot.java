@@ -0,0 +1,39 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.assignment.sahaj.banking.entity.Account;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+/**
+ * The state of one account as it is written to a ledger snapshot file. Read as a projection of the account and its
+ * customer; the posting counts are added from the limit tracker when the snapshot is written.
+ */
+@Value
+@AllArgsConstructor
+public class AccountSnapshot {
+
+    Long accountNumber;
+
+    Long customerId;
+
+    String customerName;
+
+    Account.Tier tier;
+
+    // in minor units, see Money
+    long balance;
+
+    long version;
+
+    @With
+    int credits;
+
+    @With
+    int debits;
+
+    public AccountSnapshot(Long accountNumber, Long customerId, String customerName, Account.Tier tier, long balance,
+                           Long version) {
+        this(accountNumber, customerId, customerName, tier, balance, version == null ? 0L : version, 0, 0);
+    }
+}
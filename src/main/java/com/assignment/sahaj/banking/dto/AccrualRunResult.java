@@ -0,0 +1,27 @@
+package com.assignment.sahaj.banking.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * What one call of {@link com.assignment.sahaj.banking.accrual.AccrualBatchService#run} posted. Amounts are in minor
+ * units, see {@link com.assignment.sahaj.banking.utils.Money}.
+ */
+@Value
+@Builder
+public class AccrualRunResult {
+
+    LocalDate businessDate;
+
+    long accounts;
+
+    long interestPostings;
+
+    long interestAmount;
+
+    long feePostings;
+
+    long feeAmount;
+}
@@ -0,0 +1,31 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@AllArgsConstructor
+public class CommandResult {
+
+    AccountCommand command;
+
+    // the balance of the command's account after it was applied, the source account for a transfer
+    long balance;
+
+    BankingRejection rejection;
+
+    public static CommandResult applied(AccountCommand command, long balance) {
+        return new CommandResult(command, balance, null);
+    }
+
+    public static CommandResult rejected(AccountCommand command, BankingRejection rejection) {
+        return new CommandResult(command, 0L, rejection);
+    }
+
+    public boolean isApplied() {
+        return rejection == null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.assignment.sahaj.banking.entity.Account;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateAccountRequest {
+
+    private String name;
+
+    // RETAIL when not given
+    private Account.Tier tier;
+}
@@ -0,0 +1,13 @@
+package com.assignment.sahaj.banking.dto;
+
+import lombok.Value;
+
+@Value
+public class CustomerMatch {
+
+    Long customerId;
+
+    String name;
+
+    Long accountNumber;
+}
@@ -0,0 +1,16 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerPage {
+
+    List<CustomerMatch> matches;
+
+    // passed back to get the page after this one, null on the last page
+    String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MessageResponse {
+
+    BankingRejection.Reason reason;
+
+    String message;
+
+    public static MessageResponse of(String message) {
+        return new MessageResponse(null, message);
+    }
+
+    public static MessageResponse of(BankingRejection rejection) {
+        return new MessageResponse(rejection.getReason(), rejection.getMessage());
+    }
+}
@@ -0,0 +1,26 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One journal entry as it appears on a statement. Read as a projection, so streamed lines are never managed entities.
+ */
+@Value
+public class StatementLine {
+
+    Long id;
+
+    LocalDateTime postedAt;
+
+    JournalEntry.Type type;
+
+    // in minor units, see Money
+    long amount;
+
+    long balanceAfter;
+
+    Long counterpartyAccountNumber;
+}
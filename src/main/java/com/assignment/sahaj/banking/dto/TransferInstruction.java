@@ -0,0 +1,18 @@
+package com.assignment.sahaj.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@AllArgsConstructor
+public class TransferInstruction {
+
+    Long sourceAccountNumber;
+
+    Long destinationAccountNumber;
+
+    // in minor units, see Money
+    long amount;
+}
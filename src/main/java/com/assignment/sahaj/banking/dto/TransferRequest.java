@@ -0,0 +1,20 @@
+package com.assignment.sahaj.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferRequest {
+
+    private Long sourceAccountNumber;
+
+    private Long destinationAccountNumber;
+
+    // a decimal amount, converted with Money
+    private BigDecimal amount;
+}
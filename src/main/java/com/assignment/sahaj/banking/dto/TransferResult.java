@@ -0,0 +1,39 @@
+package com.assignment.sahaj.banking.dto;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import static com.assignment.sahaj.banking.utils.Messages.SUCCESS_MESSAGE;
+
+@Value
+@Builder
+@AllArgsConstructor
+public class TransferResult {
+
+    public enum Status {
+        SUCCESS,
+        REJECTED
+    }
+
+    TransferInstruction instruction;
+
+    Status status;
+
+    BankingRejection.Reason reason;
+
+    String message;
+
+    public static TransferResult success(TransferInstruction instruction) {
+        return new TransferResult(instruction, Status.SUCCESS, null, SUCCESS_MESSAGE);
+    }
+
+    public static TransferResult rejected(TransferInstruction instruction, BankingRejection rejection) {
+        return new TransferResult(instruction, Status.REJECTED, rejection.getReason(), rejection.getMessage());
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+}
@@ -4,80 +4,81 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
-import javax.persistence.SequenceGenerator;
-import java.time.LocalDate;
+import javax.persistence.Version;
 
 @Entity
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class Account {
 
+    /**
+     * Selects the {@link com.assignment.sahaj.banking.limit.Limits} that apply to the account.
+     */
+    public enum Tier {
+        RETAIL,
+        BUSINESS
+    }
+
+    // a sequence generator that, when sharded, only takes the numbers routed to its own shard
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_number_generator")
-    @SequenceGenerator(initialValue = 1001,
-            allocationSize = 1000,
-            name = "account_number_generator",
-            sequenceName = "account_number_seq")
+    @GeneratedValue(generator = "account_number_generator")
+    @GenericGenerator(name = "account_number_generator",
+            strategy = "com.assignment.sahaj.banking.shard.ShardAwareSequenceGenerator",
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "account_number_seq"),
+                    @Parameter(name = SequenceStyleGenerator.INITIAL_PARAM, value = "1001"),
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "1000")})
     @Column(name = "account_number")
     private Long accountNumber;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    // money operations never need the customer, so it is only loaded when asked for, see findWithCustomerById
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "customer_id", referencedColumnName = "id")
     private Customer customer;
 
-    private Double balance;
-
-    @Column(name = "daily_debit_count")
-    private Integer dailyDebitCount;
-
-    @Column(name = "last_debit_date", columnDefinition = "DATE")
-    private LocalDate lastDebitDate;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private Tier tier = Tier.RETAIL;
 
-    @Column(name = "daily_credit_count")
-    private Integer dailyCreditCount;
+    // in minor units, see Money
+    private long balance;
 
-    @Column(name = "last_credit_date", columnDefinition = "DATE")
-    private LocalDate lastCreditDate;
+    @Version
+    private Long version;
 
-    public Double debit(Double amount) {
+    public long debit(long amount) {
         balance -= amount;
         return balance;
     }
 
-    public Double credit(Double amount) {
+    public long credit(long amount) {
         balance += amount;
         return balance;
     }
 
-    public void resetDailyCreditCount() {
-        dailyCreditCount = 0;
-        lastCreditDate = LocalDate.now();
-    }
-
-    public void incrementDailyCreditCount() {
-        dailyCreditCount += 1;
-        lastCreditDate = LocalDate.now();
-    }
-
-    public void resetDailyDebitCount() {
-        dailyDebitCount = 0;
-        lastDebitDate = LocalDate.now();
+    public Account copyState() {
+        return toBuilder().build();
     }
 
-    public void incrementDailyDebitCount() {
-        dailyDebitCount += 1;
-        lastDebitDate = LocalDate.now();
+    public void restoreState(Account state) {
+        balance = state.balance;
     }
 
 }
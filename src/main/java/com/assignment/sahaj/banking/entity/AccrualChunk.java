@@ -0,0 +1,49 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A range of account numbers whose postings an {@link AccrualRun} has made. It is written in the same transaction as
+ * the postings, so a resumed run never posts to the accounts in it again.
+ */
+@Entity
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(AccrualChunk.Key.class)
+@Table(name = "accrual_chunk")
+public class AccrualChunk {
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+
+        private LocalDate businessDate;
+
+        private Long firstAccountNumber;
+    }
+
+    @Id
+    @Column(name = "business_date")
+    private LocalDate businessDate;
+
+    @Id
+    @Column(name = "first_account_number")
+    private Long firstAccountNumber;
+
+    @Column(name = "last_account_number", nullable = false)
+    private long lastAccountNumber;
+
+}
@@ -0,0 +1,39 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * The balance of an account as of a journal entry. Balances are reconstructed from the latest snapshot plus the
+ * journal entries written after {@code lastEntryId}.
+ */
+@Entity
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "balance_snapshot")
+public class BalanceSnapshot {
+
+    @Id
+    @Column(name = "account_number")
+    private Long accountNumber;
+
+    // in minor units, see Money
+    private long balance;
+
+    @Column(name = "last_entry_id")
+    private long lastEntryId;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+}
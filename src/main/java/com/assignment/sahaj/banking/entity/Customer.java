@@ -5,25 +5,48 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.OneToOne;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.util.Locale;
 
 @Entity
 @Getter
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(name = "customer", indexes = {
+        @Index(name = "idx_customer_name", columnList = "name"),
+        @Index(name = "idx_customer_name_key", columnList = "name_key, id")})
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_id_generator")
+    @SequenceGenerator(allocationSize = 1000,
+            name = "customer_id_generator",
+            sequenceName = "customer_id_seq")
     private Long id;
 
     private String name;
 
-    @OneToOne(mappedBy = "customer")
-    private Account account;
+    // the name as it is searched, so case-insensitive prefix searches can use an index
+    @Column(name = "name_key")
+    private String nameKey;
+
+    public static String nameKeyOf(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateNameKey() {
+        nameKey = name == null ? null : nameKeyOf(name);
+    }
 }
@@ -0,0 +1,41 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * The outcome of a successful operation submitted with an idempotency key, written in the same transaction as the
+ * operation. Only kept when {@code banking.idempotency.persistent} is set.
+ */
+@Entity
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_record_created_at",
+        columnList = "created_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String fingerprint;
+
+    // the balance after a deposit or withdrawal, in minor units
+    private long result;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,71 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * One posting against an account. Entries are only ever inserted; the amount is positive for credits and negative
+ * for debits, so the balance of an account is the sum of its entries.
+ */
+@Entity
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "journal_entry",
+        indexes = @Index(name = "idx_journal_entry_account", columnList = "account_number, id"))
+public class JournalEntry {
+
+    public enum Type {
+        DEPOSIT,
+        WITHDRAWAL,
+        TRANSFER_IN,
+        TRANSFER_OUT,
+        // gives back the debit of a transfer whose credit failed on another shard
+        REVERSAL,
+        // posted by the accrual batch, see com.assignment.sahaj.banking.accrual.AccrualBatchService
+        INTEREST,
+        FEE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entry_generator")
+    @SequenceGenerator(allocationSize = 100,
+            name = "journal_entry_generator",
+            sequenceName = "journal_entry_seq")
+    private Long id;
+
+    @Column(name = "account_number", nullable = false)
+    private Long accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    // in minor units, see Money
+    private long amount;
+
+    @Column(name = "balance_after")
+    private long balanceAfter;
+
+    @Column(name = "counterparty_account_number")
+    private Long counterpartyAccountNumber;
+
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+
+}
@@ -0,0 +1,32 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A row rewritten on the primary database at a fixed interval. How far a read replica is behind is told by the beat
+ * it holds, see {@link com.assignment.sahaj.banking.replica.ReplicaMonitor}.
+ */
+@Entity
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+
+    @Id
+    private Integer id;
+
+    private long beat;
+
+    // epoch millis of the application that wrote the beat
+    @Column(name = "written_at_millis")
+    private long writtenAtMillis;
+
+}
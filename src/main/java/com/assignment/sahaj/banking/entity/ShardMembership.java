@@ -0,0 +1,36 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The ring a shard was first started in, kept in the database of the shard, see
+ * {@link com.assignment.sahaj.banking.shard.ShardMembershipStore}.
+ */
+@Entity
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "shard_membership")
+public class ShardMembership {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "shard_name", nullable = false)
+    private String shardName;
+
+    // the names of all shards in ring order, separated by commas
+    @Column(nullable = false, length = 4000)
+    private String shards;
+
+    @Column(name = "virtual_nodes")
+    private int virtualNodes;
+
+}
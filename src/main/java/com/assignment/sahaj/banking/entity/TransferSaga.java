@@ -0,0 +1,68 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A transfer between accounts on different shards, kept by the shard of the source account. It is written before the
+ * source is debited and moves on in the transactions that debit, complete or reverse the transfer, see
+ * {@link com.assignment.sahaj.banking.shard.TransferSagaStore}.
+ */
+@Entity
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "transfer_saga", indexes = @Index(name = "idx_transfer_saga_status", columnList = "status, updated_at"))
+public class TransferSaga {
+
+    public enum Status {
+        // written, the source is not debited yet
+        PENDING,
+        // the source is debited, whether the destination is credited is not known yet
+        DEBITED,
+        CREDITED,
+        // the destination will never be credited and the debit was given back
+        REVERSED,
+        // the source was never debited
+        FAILED
+    }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "source_account_number", nullable = false)
+    private Long sourceAccountNumber;
+
+    @Column(name = "destination_account_number", nullable = false)
+    private Long destinationAccountNumber;
+
+    private long amount;
+
+    // the key the transfer was submitted with, if any; its outcome is forgotten when the transfer is reversed
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,43 @@
+package com.assignment.sahaj.banking.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * What the shard of the destination account decided for a {@link TransferSaga}. It is written either in the
+ * transaction that credits the destination or, when the transfer is given up, instead of it; since there is only one
+ * per saga, a saga is credited at most once and never after it was given up.
+ */
+@Entity
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "transfer_saga_credit")
+public class TransferSagaCredit {
+
+    public enum Outcome {
+        CREDITED,
+        CANCELLED
+    }
+
+    @Id
+    @Column(name = "saga_id", length = 36)
+    private String sagaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Outcome outcome;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+}
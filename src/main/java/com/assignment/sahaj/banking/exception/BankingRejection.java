@@ -0,0 +1,95 @@
+package com.assignment.sahaj.banking.exception;
+
+import com.assignment.sahaj.banking.utils.Money;
+
+import static com.assignment.sahaj.banking.utils.Messages.IDEMPOTENCY_KEY_REUSED_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.INSUFFICIENT_BALANCE_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_ACCOUNT_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_NAME_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_ACCOUNT_BALANCE_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_DAILY_CREDIT_LIMIT_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_DAILY_DEBIT_LIMIT_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.TRANSFER_EXCEPTION_MESSAGE;
+
+/**
+ * Thrown when an operation breaks one of the business rules. The {@link Reason} identifies the rule, so callers and
+ * monitoring do not have to parse the message.
+ * <p>
+ * Rejections are cheap to throw: no stack trace is captured, and the message is only rendered from {@code Messages}
+ * when {@link #getMessage()} is called. Every rejection is a new instance, since callers may add suppressed
+ * exceptions to it.
+ */
+public class BankingRejection extends IllegalArgumentException {
+
+    public enum Reason {
+        INVALID_NAME(INVALID_NAME_EXCEPTION_MESSAGE),
+        INVALID_ACCOUNT(INVALID_ACCOUNT_EXCEPTION_MESSAGE),
+        INSUFFICIENT_BALANCE(INSUFFICIENT_BALANCE_EXCEPTION_MESSAGE),
+        MAXIMUM_BALANCE(MAXIMUM_ACCOUNT_BALANCE_EXCEPTION_MESSAGE),
+        DAILY_CREDIT_LIMIT(MAXIMUM_DAILY_CREDIT_LIMIT_EXCEPTION_MESSAGE),
+        DAILY_DEBIT_LIMIT(MAXIMUM_DAILY_DEBIT_LIMIT_EXCEPTION_MESSAGE),
+        MINIMUM_WITHDRAWAL(MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE),
+        MAXIMUM_WITHDRAWAL(MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE),
+        MINIMUM_DEPOSIT(MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE),
+        MAXIMUM_DEPOSIT(MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE),
+        IDEMPOTENCY_KEY_REUSED(IDEMPOTENCY_KEY_REUSED_EXCEPTION_MESSAGE);
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+    }
+
+    private final Reason reason;
+    private final long limit;
+    private final boolean isTransfer;
+    private final Long accountNumber;
+    private String message;
+
+    private BankingRejection(Reason reason, long limit, boolean isTransfer, Long accountNumber) {
+        this.reason = reason;
+        this.limit = limit;
+        this.isTransfer = isTransfer;
+        this.accountNumber = accountNumber;
+    }
+
+    /**
+     * @param limit the limit that was breached; an amount in minor units, or a count for the daily limits
+     */
+    public static BankingRejection of(Reason reason, long limit, boolean isTransfer, Long accountNumber) {
+        return new BankingRejection(reason, limit, isTransfer, accountNumber);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = render();
+        }
+        return message;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    private String render() {
+        var rendered = switch (reason) {
+            case INVALID_NAME, INVALID_ACCOUNT, INSUFFICIENT_BALANCE, IDEMPOTENCY_KEY_REUSED -> reason.message;
+            case MAXIMUM_BALANCE -> String.format(reason.message, accountNumber, Money.format(limit));
+            case DAILY_CREDIT_LIMIT, DAILY_DEBIT_LIMIT -> String.format(reason.message, limit);
+            case MINIMUM_WITHDRAWAL, MAXIMUM_WITHDRAWAL, MINIMUM_DEPOSIT, MAXIMUM_DEPOSIT ->
+                    String.format(reason.message, Money.format(limit));
+        };
+        return isTransfer ? rendered.concat(String.format(TRANSFER_EXCEPTION_MESSAGE, accountNumber)) : rendered;
+    }
+}
@@ -0,0 +1,29 @@
+package com.assignment.sahaj.banking.idempotency;
+
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_IDEMPOTENCY_KEY_EXCEPTION_MESSAGE;
+
+/**
+ * A client supplied idempotency key together with a fingerprint of the request it was sent with.
+ */
+@Value
+public class IdempotencyKey {
+
+    // the length of the idempotency_key column
+    private static final int MAXIMUM_LENGTH = 128;
+
+    String key;
+
+    String fingerprint;
+
+    public static IdempotencyKey of(String key, String operation, Long accountNumber, Long counterpartyAccountNumber,
+                                    long amount) {
+        if (StringUtils.isBlank(key) || key.length() > MAXIMUM_LENGTH) {
+            throw new IllegalArgumentException(INVALID_IDEMPOTENCY_KEY_EXCEPTION_MESSAGE);
+        }
+        return new IdempotencyKey(key,
+                operation + ':' + accountNumber + ':' + counterpartyAccountNumber + ':' + amount);
+    }
+}
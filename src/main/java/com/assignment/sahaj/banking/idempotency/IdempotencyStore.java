@@ -0,0 +1,153 @@
+package com.assignment.sahaj.banking.idempotency;
+
+import com.assignment.sahaj.banking.entity.IdempotencyRecord;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.repository.IdempotencyRecordRepository;
+import com.assignment.sahaj.banking.service.ValidationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the outcome of operations submitted with an idempotency key for {@code banking.idempotency.window-ms},
+ * so a retried request gets the original result instead of being applied again. Keys are held in a bounded Caffeine
+ * cache, which evicts expired keys a few at a time as it is used. A request that arrives while the first one with
+ * the same key is still running waits for its outcome.
+ * <p>
+ * With {@code banking.idempotency.persistent} set, successful outcomes are also written to the
+ * {@code idempotency_record} table in the transaction of the operation, and keys that are no longer in memory are
+ * looked up there. Rejections are only remembered in memory.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<Long> outcome = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final Cache<String, Entry> entries;
+    private final boolean persistent;
+    private final Duration window;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ValidationService validationService;
+
+    @Autowired
+    public IdempotencyStore(@Value("${banking.idempotency.maximum-size}") long maximumSize,
+                            @Value("${banking.idempotency.window-ms}") long windowMillis,
+                            @Value("${banking.idempotency.persistent}") boolean persistent,
+                            IdempotencyRecordRepository idempotencyRecordRepository,
+                            ValidationService validationService) {
+        this.window = Duration.ofMillis(windowMillis);
+        this.persistent = persistent;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.validationService = validationService;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Runs {@code operation} unless an operation with the same key has already completed, in which case its outcome
+     * is returned or its rejection rethrown. Reusing a key with a different fingerprint is rejected. Operations that
+     * fail for any other reason are forgotten so they can be retried.
+     */
+    public long execute(IdempotencyKey idempotencyKey, LongSupplier operation) {
+        var entry = new Entry(idempotencyKey.getFingerprint());
+        var existing = entries.asMap().putIfAbsent(idempotencyKey.getKey(), entry);
+        if (existing != null) {
+            return replay(existing, idempotencyKey.getFingerprint());
+        }
+
+        try {
+            var record = persistent
+                    ? idempotencyRecordRepository.findById(idempotencyKey.getKey())
+                    .filter(found -> found.getCreatedAt().isAfter(LocalDateTime.now().minus(window)))
+                    : Optional.<IdempotencyRecord>empty();
+            if (record.isPresent()) {
+                if (!record.get().getFingerprint().equals(idempotencyKey.getFingerprint())) {
+                    throw validationService.rejection(BankingRejection.Reason.IDEMPOTENCY_KEY_REUSED, false, null);
+                }
+                entry.outcome.complete(record.get().getResult());
+                return record.get().getResult();
+            }
+
+            var result = operation.getAsLong();
+            entry.outcome.complete(result);
+            return result;
+        } catch (BankingRejection e) {
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            entries.asMap().remove(idempotencyKey.getKey(), entry);
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the outcome of a successful operation; must be called in the transaction of the operation.
+     */
+    public void persist(IdempotencyKey idempotencyKey, long result) {
+        if (persistent) {
+            idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                    .idempotencyKey(idempotencyKey.getKey())
+                    .fingerprint(idempotencyKey.getFingerprint())
+                    .result(result)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    /**
+     * Forgets the outcome of an operation that was undone afterwards, so the key can be used to submit it again; must
+     * be called in the transaction that undoes it. An operation with the key that is still running is not affected.
+     */
+    public void forget(String idempotencyKey) {
+        entries.asMap().computeIfPresent(idempotencyKey, (key, entry) -> entry.outcome.isDone() ? null : entry);
+        if (persistent) {
+            idempotencyRecordRepository.deleteByKey(idempotencyKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.purge-interval-ms}",
+            initialDelayString = "${banking.idempotency.purge-interval-ms}")
+    public void purgeExpiredRecords() {
+        if (persistent) {
+            var purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(window));
+            log.debug("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    private long replay(Entry existing, String fingerprint) {
+        if (!existing.fingerprint.equals(fingerprint)) {
+            throw validationService.rejection(BankingRejection.Reason.IDEMPOTENCY_KEY_REUSED, false, null);
+        }
+        try {
+            return existing.outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+}
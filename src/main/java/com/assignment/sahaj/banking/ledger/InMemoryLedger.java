@@ -0,0 +1,258 @@
+package com.assignment.sahaj.banking.ledger;
+
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.service.AccountStore;
+import com.assignment.sahaj.banking.service.ValidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps account state in memory and serialises the operations on each account with a per-account lock, taken for at
+ * most {@code banking.ledger.lock-timeout-ms}.
+ * <p>
+ * Inside a transaction the locks are held, like row locks, until the transaction completes. The journal entries of
+ * its operations are handed to the {@link LedgerWriter}, and persisted asynchronously, only once it has committed; if
+ * it rolls back, the accounts are put back in their previous state. The operation returns when the writer has made
+ * the entries durable, which it only waits for with a write-ahead log.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "in-memory")
+public class InMemoryLedger implements AccountStore {
+
+    private final ConcurrentMap<Long, Account> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final ThreadLocal<List<JournalEntry>> recordedEntries = ThreadLocal.withInitial(ArrayList::new);
+
+    private final AccountRepository accountRepository;
+    private final ValidationService validationService;
+    private final LedgerWriter ledgerWriter;
+    private final EntityManager entityManager;
+    private final long lockTimeoutMillis;
+
+    /**
+     * The changes made in one transaction, applied to the ledger or undone when it completes.
+     */
+    private final class LedgerTransaction implements TransactionSynchronization {
+
+        private final List<ReentrantLock> heldLocks = new ArrayList<>();
+        private final List<Account> changedAccounts = new ArrayList<>();
+        private final List<Account> previousStates = new ArrayList<>();
+        private final List<JournalEntry> entries = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            // still under the locks, so the entries of an account are queued in the order they were recorded
+            ledgerWriter.append(entries);
+            ledgerWriter.awaitDurable();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryLedger.this);
+            try {
+                if (status != STATUS_COMMITTED) {
+                    for (int i = changedAccounts.size() - 1; i >= 0; i--) {
+                        changedAccounts.get(i).restoreState(previousStates.get(i));
+                    }
+                }
+            } finally {
+                for (int i = heldLocks.size() - 1; i >= 0; i--) {
+                    heldLocks.get(i).unlock();
+                }
+            }
+        }
+    }
+
+    @Autowired
+    public InMemoryLedger(AccountRepository accountRepository,
+                          ValidationService validationService,
+                          LedgerWriter ledgerWriter,
+                          EntityManager entityManager,
+                          @Value("${banking.ledger.lock-timeout-ms}") long lockTimeoutMillis) {
+        this.accountRepository = accountRepository;
+        this.validationService = validationService;
+        this.ledgerWriter = ledgerWriter;
+        this.entityManager = entityManager;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    @Override
+    public long readBalance(Long accountNumber) {
+        var account = find(accountNumber, false);
+        var lock = lockOf(accountNumber);
+        acquire(lock, accountNumber);
+        try {
+            return account.getBalance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long update(Long accountNumber, boolean isTransfer, ToLongFunction<Account> mutation) {
+        var account = find(accountNumber, isTransfer);
+        return withLocks(List.of(account), () -> apply(List.of(account), () -> mutation.applyAsLong(account)));
+    }
+
+    @Override
+    public <T> T update(Long sourceAccountNumber, Long destinationAccountNumber,
+                        BiFunction<Account, Account, T> mutation) {
+        var source = find(sourceAccountNumber, true);
+        var destination = find(destinationAccountNumber, true);
+        var accounts = sourceAccountNumber.equals(destinationAccountNumber) ? List.of(source)
+                : sourceAccountNumber < destinationAccountNumber ? List.of(source, destination)
+                : List.of(destination, source);
+        return withLocks(accounts, () -> apply(accounts, () -> mutation.apply(source, destination)));
+    }
+
+    @Override
+    public <T> T updateAll(Collection<Long> accountNumbers, Function<Map<Long, Account>, T> mutation) {
+        var loaded = new TreeMap<Long, Account>();
+        for (var accountNumber : accountNumbers) {
+            if (!loaded.containsKey(accountNumber)) {
+                var account = load(accountNumber);
+                if (account != null) {
+                    loaded.put(accountNumber, account);
+                }
+            }
+        }
+        var accounts = List.copyOf(loaded.values());
+        return withLocks(accounts, () -> apply(accounts, () -> mutation.apply(loaded)));
+    }
+
+    /**
+     * Puts an account restored from a ledger snapshot in the ledger, so it is never loaded from the database. The
+     * account must already be stored there, since only its balance is written back.
+     */
+    public void preload(Account account) {
+        accounts.putIfAbsent(account.getAccountNumber(), account);
+    }
+
+    @Override
+    public void record(JournalEntry entry) {
+        recordedEntries.get().add(entry);
+    }
+
+    // locks the accounts in ascending account number order, which the callers sort them in, so that operations on
+    // the same accounts cannot deadlock; in a transaction the locks are released when it completes, otherwise at once
+    private <T> T withLocks(List<Account> accounts, Supplier<T> action) {
+        var transaction = currentTransaction();
+        var taken = new ArrayList<ReentrantLock>(accounts.size());
+        T result;
+        try {
+            for (var account : accounts) {
+                var lock = lockOf(account.getAccountNumber());
+                acquire(lock, account.getAccountNumber());
+                taken.add(lock);
+            }
+            if (transaction != null) {
+                transaction.heldLocks.addAll(taken);
+                taken.clear();
+            }
+            result = action.get();
+        } finally {
+            for (int i = taken.size() - 1; i >= 0; i--) {
+                taken.get(i).unlock();
+            }
+        }
+        if (transaction == null) {
+            ledgerWriter.awaitDurable();
+        }
+        return result;
+    }
+
+    // runs the mutation while the locks of the accounts are held; if it fails, the entries it recorded are dropped
+    // and the accounts are put back in their previous state. In a transaction the entries are queued once it commits.
+    private <T> T apply(Collection<Account> accounts, Supplier<T> mutation) {
+        var states = new ArrayList<Account>(accounts.size());
+        accounts.forEach(account -> states.add(account.copyState()));
+        var entries = recordedEntries.get();
+        entries.clear();
+        try {
+            var result = mutation.get();
+            var transaction = currentTransaction();
+            if (transaction == null) {
+                ledgerWriter.append(entries);
+            } else {
+                transaction.changedAccounts.addAll(accounts);
+                transaction.previousStates.addAll(states);
+                transaction.entries.addAll(entries);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // there is no transaction to roll back in memory, so the previous state is put back explicitly
+            var iterator = states.iterator();
+            accounts.forEach(account -> account.restoreState(iterator.next()));
+            throw e;
+        } finally {
+            entries.clear();
+        }
+    }
+
+    private LedgerTransaction currentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        var transaction = (LedgerTransaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction == null) {
+            transaction = new LedgerTransaction();
+            TransactionSynchronizationManager.bindResource(this, transaction);
+            TransactionSynchronizationManager.registerSynchronization(transaction);
+        }
+        return transaction;
+    }
+
+    private ReentrantLock lockOf(Long accountNumber) {
+        return locks.computeIfAbsent(accountNumber, key -> new ReentrantLock());
+    }
+
+    // a lock that is not free in time fails like a row lock timeout, so the operation is retried
+    private void acquire(ReentrantLock lock, Long accountNumber) {
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Timed out waiting for the lock of account " + accountNumber);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted waiting for the lock of account " + accountNumber, e);
+        }
+    }
+
+    private Account load(Long accountNumber) {
+        return accounts.computeIfAbsent(accountNumber, key -> accountRepository.findById(key)
+                .map(account -> {
+                    // the ledger owns this instance from now on, so the persistence context must never flush it
+                    entityManager.detach(account);
+                    return account;
+                })
+                .orElse(null));
+    }
+
+    private Account find(Long accountNumber, boolean isTransfer) {
+        return validationService.requireAccount(
+                Optional.ofNullable(load(accountNumber)), accountNumber, isTransfer);
+    }
+}
@@ -0,0 +1,321 @@
+package com.assignment.sahaj.banking.ledger;
+
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persists the journal entries recorded by the {@link InMemoryLedger} and the balances they lead to. Entries are
+ * queued in the order they are recorded and written every {@code banking.ledger.flush-interval-ms}, or as soon as
+ * {@code banking.ledger.flush-threshold} are waiting, in transactions of at most
+ * {@code banking.ledger.flush-batch-size} entries. Each transaction updates every account it touches once, to the
+ * balance after its last entry in the transaction, and stores the sequence number of its last entry in
+ * {@code ledger_checkpoint}.
+ * <p>
+ * With {@code banking.ledger.wal.enabled=true} the entries are also appended to a {@link WriteAheadLog} before they
+ * are queued, and {@link #awaitDurable()} waits for the log to be synced. On startup the entries logged after the
+ * checkpoint are written to the database before the ledger is used, so no acknowledged operation is lost in a crash.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "in-memory")
+public class LedgerWriter {
+
+    private static final String UPDATE_ACCOUNT_SQL =
+            "UPDATE account SET balance = ?, version = version + 1 WHERE account_number = ?";
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT last_sequence FROM ledger_checkpoint WHERE id = 1";
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO ledger_checkpoint (id, last_sequence) VALUES (1, 0)";
+    private static final String UPDATE_CHECKPOINT_SQL = "UPDATE ledger_checkpoint SET last_sequence = ? WHERE id = 1";
+
+    private record PendingEntry(long sequence, JournalEntry entry, long queuedAtNanos) {
+    }
+
+    private final Deque<PendingEntry> pendingEntries = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object appendLock = new Object();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAdder writtenEntries = new LongAdder();
+    private final LongAdder accountUpdates = new LongAdder();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "ledger-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JournalEntryRepository journalEntryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMillis;
+    private final int flushBatchSize;
+    private final int flushThreshold;
+    private final boolean walEnabled;
+    private final Path walDirectory;
+    private final long walSegmentSize;
+
+    // sequence number of the last entry queued, and of the last entry stored in the database
+    private volatile long lastSequence;
+    private volatile long checkpoint;
+    private volatile WriteAheadLog writeAheadLog;
+
+    @Autowired
+    public LedgerWriter(JdbcTemplate jdbcTemplate,
+                        JournalEntryRepository journalEntryRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${banking.ledger.flush-interval-ms:50}") long flushIntervalMillis,
+                        @Value("${banking.ledger.flush-batch-size:500}") int flushBatchSize,
+                        @Value("${banking.ledger.flush-threshold:5000}") int flushThreshold,
+                        @Value("${banking.ledger.wal.enabled:false}") boolean walEnabled,
+                        @Value("${banking.ledger.wal.directory:data/wal}") Path walDirectory,
+                        @Value("${banking.ledger.wal.segment-size:67108864}") long walSegmentSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.journalEntryRepository = journalEntryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushBatchSize = flushBatchSize;
+        this.flushThreshold = flushThreshold;
+        this.walEnabled = walEnabled;
+        this.walDirectory = walDirectory;
+        this.walSegmentSize = walSegmentSize;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        var stored = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, Long.class);
+        if (stored.isEmpty()) {
+            jdbcTemplate.update(INSERT_CHECKPOINT_SQL);
+        }
+        checkpoint = stored.isEmpty() ? 0 : stored.get(0);
+        lastSequence = checkpoint;
+        if (walEnabled) {
+            recover(stored.isEmpty());
+        }
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        executor.shutdown();
+        executor.awaitTermination(flushIntervalMillis * 10, TimeUnit.MILLISECONDS);
+        flush();
+        if (writeAheadLog != null) {
+            writeAheadLog.close();
+        }
+    }
+
+    /**
+     * Queues the entries recorded by one operation, after appending them to the write-ahead log if there is one.
+     * Called while the locks of their accounts are held, so the entries of an account are queued in the order they
+     * were recorded.
+     */
+    public void append(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        int queued;
+        synchronized (appendLock) {
+            var sequence = lastSequence;
+            if (writeAheadLog != null) {
+                try {
+                    writeAheadLog.append(sequence + 1, entries);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to append to the write-ahead log", e);
+                }
+            }
+            var now = System.nanoTime();
+            for (var entry : entries) {
+                pendingEntries.addLast(new PendingEntry(++sequence, entry, now));
+            }
+            lastSequence = sequence;
+            queued = pendingCount.addAndGet(entries.size());
+        }
+        if (queued >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down, stop() writes everything that is still queued
+            }
+        }
+    }
+
+    /**
+     * Returns once every entry queued so far is synced to the write-ahead log, at once if there is none.
+     */
+    public void awaitDurable() {
+        if (writeAheadLog == null) {
+            return;
+        }
+        try {
+            writeAheadLog.sync(lastSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sync the write-ahead log", e);
+        }
+    }
+
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Returns how long the oldest queued entry has been waiting to be written.
+     */
+    public long flushLagNanos() {
+        var oldest = pendingEntries.peekFirst();
+        return oldest == null ? 0 : System.nanoTime() - oldest.queuedAtNanos();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public long getFlushNanos() {
+        return flushNanos.sum();
+    }
+
+    public long getWrittenEntries() {
+        return writtenEntries.sum();
+    }
+
+    public long getAccountUpdates() {
+        return accountUpdates.sum();
+    }
+
+    /**
+     * Returns how many journal entries were written per account update, the higher the more updates were coalesced.
+     */
+    public double coalescingRatio() {
+        var updates = accountUpdates.sum();
+        return updates == 0 ? 0 : (double) writtenEntries.sum() / updates;
+    }
+
+    public long getWalSyncs() {
+        return writeAheadLog == null ? 0 : writeAheadLog.getSyncs();
+    }
+
+    /**
+     * Writes the entries queued when it is called. Entries queued in the meantime are left for the next flush, so a
+     * steady stream of operations cannot keep a flush running.
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        var start = System.nanoTime();
+        var remaining = pendingCount.get();
+        if (remaining > 0) {
+            var batch = new ArrayList<PendingEntry>(Math.min(remaining, flushBatchSize));
+            PendingEntry entry;
+            while (remaining-- > 0 && (entry = pendingEntries.pollFirst()) != null) {
+                batch.add(entry);
+                if (batch.size() == flushBatchSize) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            flushes.increment();
+            flushNanos.add(System.nanoTime() - start);
+        }
+        if (writeAheadLog != null) {
+            try {
+                writeAheadLog.truncate(checkpoint);
+                writeAheadLog.rollOver();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to roll over the write-ahead log", e);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to persist ledger changes, will retry on the next flush", e);
+        }
+    }
+
+    private void write(List<PendingEntry> batch) {
+        var entries = new ArrayList<JournalEntry>(batch.size());
+        // only the last balance of each account in the batch is written
+        var balances = new LinkedHashMap<Long, Long>();
+        for (var pending : batch) {
+            entries.add(pending.entry());
+            balances.put(pending.entry().getAccountNumber(), pending.entry().getBalanceAfter());
+        }
+        var rows = new ArrayList<Object[]>(balances.size());
+        balances.forEach((accountNumber, balance) -> rows.add(new Object[]{balance, accountNumber}));
+        var sequence = batch.get(batch.size() - 1).sequence();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                journalEntryRepository.saveAll(entries);
+                jdbcTemplate.batchUpdate(UPDATE_ACCOUNT_SQL, rows);
+                jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, sequence);
+            });
+        } catch (RuntimeException e) {
+            // put the entries back in front of the queue so that the order of each account is kept
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                pendingEntries.addFirst(batch.get(i));
+            }
+            throw e;
+        }
+        checkpoint = sequence;
+        pendingCount.addAndGet(-batch.size());
+        writtenEntries.add(batch.size());
+        accountUpdates.add(rows.size());
+    }
+
+    // a database without a checkpoint has never been written by a ledger writer, so a log found next to it belongs
+    // to another database and must not be applied to this one
+    private void recover(boolean newDatabase) throws IOException {
+        if (newDatabase) {
+            var discarded = WriteAheadLog.delete(walDirectory);
+            if (discarded > 0) {
+                log.warn("Discarded {} write-ahead log segments in {}, the database has no ledger checkpoint",
+                        discarded, walDirectory);
+            }
+        }
+        var replayed = new ArrayList<PendingEntry>();
+        var opened = WriteAheadLog.open(walDirectory, walSegmentSize, checkpoint,
+                (entry, sequence) -> replayed.add(new PendingEntry(sequence, entry, System.nanoTime())));
+        synchronized (appendLock) {
+            pendingEntries.addAll(replayed);
+            pendingCount.addAndGet(replayed.size());
+            if (!replayed.isEmpty()) {
+                lastSequence = replayed.get(replayed.size() - 1).sequence();
+            }
+            writeAheadLog = opened;
+        }
+        if (!replayed.isEmpty()) {
+            log.info("Replaying {} journal entries from the write-ahead log in {}", replayed.size(),
+                    walDirectory);
+        }
+        flush();
+    }
+}
@@ -0,0 +1,334 @@
+package com.assignment.sahaj.banking.ledger;
+
+import com.assignment.sahaj.banking.entity.JournalEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of the journal entries recorded by the {@link InMemoryLedger}, see {@link LedgerWriter}. The log is
+ * a sequence of segment files, each named after the sequence number of its first entry and starting with a magic
+ * number and format version, followed by fixed-size records, all big-endian:
+ * <pre>
+ * record: CRC-32C of the rest of the record (int), sequence number (long), account number (long), type (byte),
+ *         amount (long), balance after (long), counterparty account number (long, 0 for none),
+ *         posted at in UTC epoch seconds (long), nanoseconds of the second (int)
+ * </pre>
+ * A crash can leave the last record of the last segment partly written. Reading stops at the first record whose
+ * checksum does not match, and the segment is cut off there.
+ */
+final class WriteAheadLog implements Closeable {
+
+    // "BKWL"
+    static final int MAGIC = 0x424B574C;
+    static final short FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    static final int RECORD_BYTES = Integer.BYTES + 6 * Long.BYTES + 1 + Integer.BYTES;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int READ_BUFFER_RECORDS = 4096;
+
+    private record Segment(Path path, long lastSequence) {
+    }
+
+    private final Path directory;
+    private final long segmentSize;
+    private final Object syncLock = new Object();
+    private final LongAdder syncs = new LongAdder();
+
+    // guarded by this
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 16);
+    private FileChannel channel;
+    private Path currentPath;
+    private long writtenSequence;
+
+    // guarded by syncLock
+    private long syncedSequence;
+
+    private WriteAheadLog(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the log in {@code directory}, handing every entry logged with a sequence number above
+     * {@code afterSequence} to {@code replay} in sequence order. Entries appended from now on go to a new segment.
+     */
+    static WriteAheadLog open(Path directory, long segmentSize, long afterSequence,
+                              ObjLongConsumer<JournalEntry> replay) throws IOException {
+        Files.createDirectories(directory);
+        var log = new WriteAheadLog(directory, segmentSize);
+        var lastSequence = afterSequence;
+        var segments = segments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            var segment = segments.get(i);
+            var last = read(segment, afterSequence, i == segments.size() - 1, replay);
+            if (last > 0) {
+                lastSequence = Math.max(lastSequence, last);
+                log.closedSegments.addLast(new Segment(segment, last));
+            } else {
+                Files.delete(segment);
+            }
+        }
+        synchronized (log) {
+            log.writtenSequence = lastSequence;
+            log.startSegment(lastSequence + 1);
+        }
+        synchronized (log.syncLock) {
+            log.syncedSequence = lastSequence;
+        }
+        return log;
+    }
+
+    /**
+     * Deletes every segment in {@code directory} and returns how many there were.
+     */
+    static int delete(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        var segments = segments(directory);
+        for (var segment : segments) {
+            Files.delete(segment);
+        }
+        return segments.size();
+    }
+
+    /**
+     * Writes the entries with consecutive sequence numbers starting at {@code firstSequence}. They are only durable
+     * once {@link #sync(long)} has returned for the last of them.
+     */
+    synchronized void append(long firstSequence, List<JournalEntry> entries) throws IOException {
+        var bytes = entries.size() * RECORD_BYTES;
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        var sequence = firstSequence;
+        for (var entry : entries) {
+            encode(sequence++, entry);
+        }
+        buffer.flip();
+        var position = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // drop whatever part of the records made it to the file, they were never acknowledged
+            channel.truncate(position);
+            throw e;
+        }
+        writtenSequence = sequence - 1;
+    }
+
+    /**
+     * Returns once every entry up to {@code sequence} is on disk. Callers arriving while the file is being synced
+     * wait for that sync and are then covered by it, or by the next one, so a single sync serves many operations.
+     */
+    void sync(long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            FileChannel current;
+            long upTo;
+            synchronized (this) {
+                current = channel;
+                upTo = writtenSequence;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // the segment was closed by rollOver, which syncs it first
+            }
+            syncedSequence = upTo;
+            syncs.increment();
+        }
+    }
+
+    /**
+     * Starts a new segment once the current one has grown beyond the segment size.
+     */
+    synchronized void rollOver() throws IOException {
+        if (channel.position() < segmentSize) {
+            return;
+        }
+        channel.force(false);
+        channel.close();
+        closedSegments.addLast(new Segment(currentPath, writtenSequence));
+        startSegment(writtenSequence + 1);
+    }
+
+    /**
+     * Deletes the closed segments whose entries all have a sequence number up to {@code sequence}.
+     */
+    synchronized void truncate(long sequence) throws IOException {
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSequence() <= sequence) {
+            Files.deleteIfExists(closedSegments.pollFirst().path());
+        }
+    }
+
+    long getSyncs() {
+        return syncs.sum();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        currentPath = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(currentPath, CREATE_NEW, WRITE);
+        var header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(FORMAT_VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        // the new file name must be on disk too, or a crash could lose the whole segment
+        try (var directoryChannel = FileChannel.open(directory, READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // not every platform can sync a directory, there is nothing more to do on those
+        }
+    }
+
+    private void encode(long sequence, JournalEntry entry) {
+        var start = buffer.position();
+        var postedAt = entry.getPostedAt().toEpochSecond(ZoneOffset.UTC);
+        var counterparty = entry.getCounterpartyAccountNumber();
+        buffer.position(start + Integer.BYTES)
+                .putLong(sequence)
+                .putLong(entry.getAccountNumber())
+                .put((byte) entry.getType().ordinal())
+                .putLong(entry.getAmount())
+                .putLong(entry.getBalanceAfter())
+                .putLong(counterparty == null ? 0 : counterparty)
+                .putLong(postedAt)
+                .putInt(entry.getPostedAt().getNano());
+        crc.reset();
+        crc.update(buffer.slice(start + Integer.BYTES, RECORD_BYTES - Integer.BYTES));
+        buffer.putInt(start, (int) crc.getValue());
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> {
+                        var name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    // returns the sequence number of the last entry in the segment, or 0 if it holds none
+    private static long read(Path segment, long afterSequence, boolean last, ObjLongConsumer<JournalEntry> replay)
+            throws IOException {
+        try (var channel = FileChannel.open(segment, READ, WRITE)) {
+            var header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.position() < HEADER_BYTES) {
+                // the segment was being created when the application stopped
+                return 0;
+            }
+            if (header.flip().getInt() != MAGIC || header.getShort() != FORMAT_VERSION) {
+                throw new IOException("Write-ahead log segment " + segment + " is corrupt");
+            }
+            var buffer = ByteBuffer.allocate(READ_BUFFER_RECORDS * RECORD_BYTES);
+            var crc = new CRC32C();
+            var position = (long) HEADER_BYTES;
+            var lastSequence = 0L;
+            while (true) {
+                buffer.clear();
+                readFully(channel, buffer, position);
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    var start = buffer.position();
+                    crc.reset();
+                    crc.update(buffer.slice(start + Integer.BYTES, RECORD_BYTES - Integer.BYTES));
+                    if (buffer.getInt() != (int) crc.getValue()) {
+                        return cutOff(channel, segment, position, last, lastSequence);
+                    }
+                    var sequence = buffer.getLong();
+                    var entry = decode(buffer);
+                    if (sequence > afterSequence) {
+                        replay.accept(entry, sequence);
+                    }
+                    lastSequence = sequence;
+                    position += RECORD_BYTES;
+                }
+                if (buffer.hasRemaining()) {
+                    return cutOff(channel, segment, position, last, lastSequence);
+                }
+                if (buffer.limit() < buffer.capacity()) {
+                    return lastSequence;
+                }
+            }
+        }
+    }
+
+    private static JournalEntry decode(ByteBuffer buffer) {
+        var accountNumber = buffer.getLong();
+        var type = JournalEntry.Type.values()[buffer.get()];
+        var amount = buffer.getLong();
+        var balanceAfter = buffer.getLong();
+        var counterparty = buffer.getLong();
+        var postedAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return JournalEntry.builder()
+                .accountNumber(accountNumber)
+                .type(type)
+                .amount(amount)
+                .balanceAfter(balanceAfter)
+                .counterpartyAccountNumber(counterparty == 0 ? null : counterparty)
+                .postedAt(postedAt)
+                .build();
+    }
+
+    // only the end of the last segment can be torn by a crash, anything else is damage the log cannot recover from
+    private static long cutOff(FileChannel channel, Path segment, long position, boolean last, long lastSequence)
+            throws IOException {
+        if (!last) {
+            throw new IOException("Write-ahead log segment " + segment + " is corrupt at byte " + position);
+        }
+        channel.truncate(position);
+        channel.force(true);
+        return lastSequence;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            var read = channel.read(buffer, position);
+            if (read < 0) {
+                return;
+            }
+            position += read;
+        }
+    }
+}
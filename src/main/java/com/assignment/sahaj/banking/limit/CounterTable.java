@@ -0,0 +1,153 @@
+package com.assignment.sahaj.banking.limit;
+
+/**
+ * Open addressing table from account number to a ring of posting counts per direction, one cell per slot of the
+ * window. Rows that have not been touched for a whole window are dropped when the table grows. Not thread safe; each
+ * table is guarded by its stripe in {@link PostingLimitTracker}.
+ */
+final class CounterTable {
+
+    private static final long EMPTY = 0L;
+
+    private final int slots;
+    private final int initialCapacity;
+    private long[] keys;
+    private long[] lastSlots;
+    private int[] counts;
+    private int size;
+
+    CounterTable(int slots, int initialCapacity) {
+        this.slots = slots;
+        this.initialCapacity = initialCapacity;
+        allocate(initialCapacity);
+    }
+
+    /**
+     * Returns the row of the account, or -1 when it has no row.
+     */
+    int find(long accountNumber, int hash) {
+        var mask = keys.length - 1;
+        for (var row = hash & mask; ; row = (row + 1) & mask) {
+            if (keys[row] == accountNumber) {
+                return row;
+            }
+            if (keys[row] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Adds a row for an account that has none and returns it.
+     */
+    int insert(long accountNumber, int hash, long slot) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(slot);
+        }
+        var mask = keys.length - 1;
+        var row = hash & mask;
+        while (keys[row] != EMPTY) {
+            row = (row + 1) & mask;
+        }
+        keys[row] = accountNumber;
+        lastSlots[row] = slot;
+        size++;
+        return row;
+    }
+
+    int total(int row, int direction, long slot) {
+        advance(row, slot);
+        var from = cell(row, direction, 0);
+        var total = 0;
+        for (int i = 0; i < slots; i++) {
+            total += counts[from + i];
+        }
+        return total;
+    }
+
+    void increment(int row, int direction, long slot, int delta) {
+        advance(row, slot);
+        counts[cell(row, direction, (int) Math.floorMod(slot, (long) slots))] += delta;
+    }
+
+    /**
+     * Takes back one posting counted in {@code slot}, unless that slot has already left the window.
+     */
+    void decrement(int row, int direction, long slot) {
+        if (slot <= lastSlots[row] - slots) {
+            return;
+        }
+        var cell = cell(row, direction, (int) Math.floorMod(slot, (long) slots));
+        if (counts[cell] > 0) {
+            counts[cell]--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    private void advance(int row, long slot) {
+        var last = lastSlots[row];
+        if (slot <= last) {
+            return;
+        }
+        var expired = (int) Math.min(slot - last, slots);
+        for (int i = 1; i <= expired; i++) {
+            var ring = (int) Math.floorMod(last + i, (long) slots);
+            counts[cell(row, 0, ring)] = 0;
+            counts[cell(row, 1, ring)] = 0;
+        }
+        lastSlots[row] = slot;
+    }
+
+    private int cell(int row, int direction, int ring) {
+        return (row * 2 + direction) * slots + ring;
+    }
+
+    private void rehash(long slot) {
+        var oldKeys = keys;
+        var oldLastSlots = lastSlots;
+        var oldCounts = counts;
+
+        var live = 0;
+        for (int row = 0; row < oldKeys.length; row++) {
+            if (oldKeys[row] != EMPTY && oldLastSlots[row] > slot - slots) {
+                live++;
+            }
+        }
+        var capacity = initialCapacity;
+        while (capacity < (live + 1) * 4) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+
+        var mask = capacity - 1;
+        var width = 2 * slots;
+        for (int oldRow = 0; oldRow < oldKeys.length; oldRow++) {
+            var key = oldKeys[oldRow];
+            if (key == EMPTY || oldLastSlots[oldRow] <= slot - slots) {
+                continue;
+            }
+            var row = PostingLimitTracker.hash(key) & mask;
+            while (keys[row] != EMPTY) {
+                row = (row + 1) & mask;
+            }
+            keys[row] = key;
+            lastSlots[row] = oldLastSlots[oldRow];
+            System.arraycopy(oldCounts, oldRow * width, counts, row * width, width);
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        lastSlots = new long[capacity];
+        counts = new int[capacity * 2 * slots];
+        size = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.assignment.sahaj.banking.limit;
+
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.utils.Money;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * The {@link Limits} of every account tier. A policy never changes once built; {@link LimitPolicyProvider} replaces
+ * it as a whole, so an operation that read the policy once sees one consistent set of limits.
+ */
+public final class LimitPolicy {
+
+    private final Limits[] limits = new Limits[Account.Tier.values().length];
+
+    public LimitPolicy(Map<Account.Tier, Limits> limits) {
+        for (var tier : Account.Tier.values()) {
+            var tierLimits = limits.get(tier);
+            if (tierLimits == null) {
+                throw new IllegalArgumentException("No limits for tier " + tier);
+            }
+            this.limits[tier.ordinal()] = tierLimits;
+        }
+    }
+
+    /**
+     * Reads the limits of every tier. A tier takes {@code banking.tier.<tier>.<limit>} where it is set and
+     * {@code banking.<limit>} otherwise, for example {@code banking.tier.business.daily.limit.credit}.
+     */
+    public static LimitPolicy from(UnaryOperator<String> properties) {
+        var limits = new EnumMap<Account.Tier, Limits>(Account.Tier.class);
+        for (var tier : Account.Tier.values()) {
+            var prefix = "banking.tier." + tier.name().toLowerCase(Locale.ROOT) + ".";
+            UnaryOperator<String> property = key -> {
+                var value = properties.apply(prefix + key);
+                if (value == null) {
+                    value = properties.apply("banking." + key);
+                }
+                if (value == null || value.isBlank()) {
+                    throw new IllegalArgumentException("banking." + key + " is not set");
+                }
+                return value.strip();
+            };
+            limits.put(tier, Limits.builder()
+                    .minimumBalanceLimit(Money.of(property.apply("balance.limit.minimum")))
+                    .maximumBalanceLimit(Money.of(property.apply("balance.limit.maximum")))
+                    .dailyCreditLimit(Integer.parseInt(property.apply("daily.limit.credit")))
+                    .dailyDebitLimit(Integer.parseInt(property.apply("daily.limit.debit")))
+                    .minimumWithdrawalLimit(Money.of(property.apply("withdrawal.limit.minimum")))
+                    .maximumWithdrawalLimit(Money.of(property.apply("withdrawal.limit.maximum")))
+                    .minimumDepositLimit(Money.of(property.apply("deposit.limit.minimum")))
+                    .maximumDepositLimit(Money.of(property.apply("deposit.limit.maximum")))
+                    .build());
+        }
+        return new LimitPolicy(limits);
+    }
+
+    public Limits of(Account.Tier tier) {
+        return limits[tier.ordinal()];
+    }
+
+    public Limits getDefaults() {
+        return of(Account.Tier.RETAIL);
+    }
+}
@@ -0,0 +1,90 @@
+package com.assignment.sahaj.banking.limit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Publishes the current {@link LimitPolicy}. Operations read it with {@link #current()}, a single volatile read, and
+ * a reload builds a new policy and swaps it in without ever blocking them.
+ * <p>
+ * The limits come from the application properties. When {@code banking.limit.policy-file} names a properties file,
+ * the keys set there take precedence; the file is checked for changes every {@code banking.limit.reload-interval-ms}
+ * and can be reloaded on demand with {@link #reload()}. A file that does not give a valid policy is logged and the
+ * current policy is kept.
+ */
+@Slf4j
+@Component
+public class LimitPolicyProvider {
+
+    private final Environment environment;
+    private final Path policyFile;
+    private volatile LimitPolicy policy;
+    private long policyFileModified;
+
+    @Autowired
+    public LimitPolicyProvider(Environment environment,
+                               @Value("${banking.limit.policy-file:}") String policyFile) {
+        this.environment = environment;
+        this.policyFile = policyFile.isBlank() ? null : Path.of(policyFile);
+        this.policy = load();
+    }
+
+    public LimitPolicy current() {
+        return policy;
+    }
+
+    public synchronized LimitPolicy reload() {
+        var reloaded = load();
+        policy = reloaded;
+        log.info("Reloaded limits{}", policyFile == null ? "" : " from " + policyFile);
+        return reloaded;
+    }
+
+    @Scheduled(initialDelayString = "${banking.limit.reload-interval-ms}",
+            fixedDelayString = "${banking.limit.reload-interval-ms}")
+    public synchronized void reloadIfChanged() {
+        if (policyFile == null) {
+            return;
+        }
+        try {
+            if (lastModified() != policyFileModified) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to reload limits from {}, keeping the current limits", policyFile, e);
+        }
+    }
+
+    private LimitPolicy load() {
+        var overrides = new Properties();
+        if (policyFile != null) {
+            policyFileModified = lastModified();
+            if (policyFileModified != 0L) {
+                try (var reader = Files.newBufferedReader(policyFile)) {
+                    overrides.load(reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return LimitPolicy.from(key -> overrides.getProperty(key, environment.getProperty(key)));
+    }
+
+    private long lastModified() {
+        try {
+            return Files.exists(policyFile) ? Files.getLastModifiedTime(policyFile).toMillis() : 0L;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
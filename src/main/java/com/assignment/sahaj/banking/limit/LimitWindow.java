@@ -0,0 +1,73 @@
+package com.assignment.sahaj.banking.limit;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * The period over which postings are counted against the daily limits. Time is divided into slots; a window is the
+ * current slot plus the {@code slots - 1} slots before it.
+ */
+public enum LimitWindow {
+
+    /**
+     * Calendar days in the zone of the clock, starting at midnight.
+     */
+    DAILY(1) {
+        @Override
+        long slotAt(long epochMillis, ZoneId zone) {
+            return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone).toEpochDay();
+        }
+
+        @Override
+        long slotStart(long slot, ZoneId zone) {
+            return LocalDate.ofEpochDay(slot).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+    },
+
+    /**
+     * Clock hours.
+     */
+    HOURLY(1) {
+        @Override
+        long slotAt(long epochMillis, ZoneId zone) {
+            return Math.floorDiv(epochMillis, HOUR_MILLIS);
+        }
+
+        @Override
+        long slotStart(long slot, ZoneId zone) {
+            return slot * HOUR_MILLIS;
+        }
+    },
+
+    /**
+     * The last 24 hours, counted in hourly slots.
+     */
+    ROLLING_24H(24) {
+        @Override
+        long slotAt(long epochMillis, ZoneId zone) {
+            return Math.floorDiv(epochMillis, HOUR_MILLIS);
+        }
+
+        @Override
+        long slotStart(long slot, ZoneId zone) {
+            return slot * HOUR_MILLIS;
+        }
+    };
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private final int slots;
+
+    LimitWindow(int slots) {
+        this.slots = slots;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    abstract long slotAt(long epochMillis, ZoneId zone);
+
+    abstract long slotStart(long slot, ZoneId zone);
+}
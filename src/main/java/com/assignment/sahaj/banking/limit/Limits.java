@@ -0,0 +1,64 @@
+package com.assignment.sahaj.banking.limit;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The business limits of one {@link com.assignment.sahaj.banking.entity.Account.Tier}. Amount limits are held in
+ * minor units, see {@link com.assignment.sahaj.banking.utils.Money}.
+ */
+@Getter
+public final class Limits {
+
+    private final long minimumBalanceLimit;
+
+    private final long maximumBalanceLimit;
+
+    private final int dailyCreditLimit;
+
+    private final int dailyDebitLimit;
+
+    private final long minimumWithdrawalLimit;
+
+    private final long maximumWithdrawalLimit;
+
+    private final long minimumDepositLimit;
+
+    private final long maximumDepositLimit;
+
+    @Builder
+    public Limits(long minimumBalanceLimit, long maximumBalanceLimit, int dailyCreditLimit, int dailyDebitLimit,
+                  long minimumWithdrawalLimit, long maximumWithdrawalLimit,
+                  long minimumDepositLimit, long maximumDepositLimit) {
+        if (minimumBalanceLimit > maximumBalanceLimit || minimumWithdrawalLimit > maximumWithdrawalLimit
+                || minimumDepositLimit > maximumDepositLimit) {
+            throw new IllegalArgumentException("A minimum limit is above its maximum");
+        }
+        this.minimumBalanceLimit = minimumBalanceLimit;
+        this.maximumBalanceLimit = maximumBalanceLimit;
+        this.dailyCreditLimit = dailyCreditLimit;
+        this.dailyDebitLimit = dailyDebitLimit;
+        this.minimumWithdrawalLimit = minimumWithdrawalLimit;
+        this.maximumWithdrawalLimit = maximumWithdrawalLimit;
+        this.minimumDepositLimit = minimumDepositLimit;
+        this.maximumDepositLimit = maximumDepositLimit;
+    }
+
+    public BankingRejection rejection(BankingRejection.Reason reason, boolean isTransfer, Long accountNumber) {
+        return BankingRejection.of(reason, limitOf(reason), isTransfer, accountNumber);
+    }
+
+    private long limitOf(BankingRejection.Reason reason) {
+        return switch (reason) {
+            case MAXIMUM_BALANCE -> maximumBalanceLimit;
+            case DAILY_CREDIT_LIMIT -> dailyCreditLimit;
+            case DAILY_DEBIT_LIMIT -> dailyDebitLimit;
+            case MINIMUM_WITHDRAWAL -> minimumWithdrawalLimit;
+            case MAXIMUM_WITHDRAWAL -> maximumWithdrawalLimit;
+            case MINIMUM_DEPOSIT -> minimumDepositLimit;
+            case MAXIMUM_DEPOSIT -> maximumDepositLimit;
+            case INVALID_NAME, INVALID_ACCOUNT, INSUFFICIENT_BALANCE, IDEMPOTENCY_KEY_REUSED -> 0L;
+        };
+    }
+}
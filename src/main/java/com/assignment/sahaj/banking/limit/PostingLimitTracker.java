@@ -0,0 +1,267 @@
+package com.assignment.sahaj.banking.limit;
+
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the credits and debits of every account within the {@link LimitWindow} configured by
+ * {@code banking.limit.window}, so the daily limits are enforced without storing counters on the account. Counters
+ * live in memory, spread over striped primitive tables keyed by account number; the current slot is worked out once
+ * per rollover rather than on every posting.
+ * <p>
+ * The first time an account is seen, its counters are seeded from the journal when
+ * {@code banking.limit.seed-from-journal} is set, so a restart does not reset the limits.
+ */
+@Component
+public class PostingLimitTracker {
+
+    public enum Direction {
+        CREDIT,
+        DEBIT
+    }
+
+    /**
+     * Counts the postings of an account in one direction since a point in time.
+     */
+    @FunctionalInterface
+    public interface Seed {
+
+        long count(Long accountNumber, Direction direction, LocalDateTime since);
+
+        Seed NONE = (accountNumber, direction, since) -> 0L;
+    }
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private record CurrentSlot(long slot, long startMillis, long endMillis) {
+    }
+
+    private record Acquisition(Long accountNumber, Direction direction, long slot) {
+    }
+
+    /**
+     * The postings counted in one transaction, taken back if it rolls back.
+     */
+    private final class Acquisitions implements TransactionSynchronization {
+
+        private final List<Acquisition> acquired = new ArrayList<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PostingLimitTracker.this);
+            if (status == STATUS_ROLLED_BACK) {
+                acquired.forEach(acquisition -> release(acquisition.accountNumber(), acquisition.direction(),
+                        acquisition.slot()));
+            }
+        }
+    }
+
+    private final LimitWindow window;
+    private final Clock clock;
+    private final Seed seed;
+    private final CounterTable[] stripes = new CounterTable[STRIPES];
+    private volatile CurrentSlot currentSlot;
+
+    @Autowired
+    public PostingLimitTracker(@Value("${banking.limit.window}") LimitWindow window,
+                               @Value("${banking.limit.seed-from-journal}") boolean seedFromJournal,
+                               JournalEntryRepository journalEntryRepository) {
+        this(window, Clock.systemDefaultZone(), seedFromJournal
+                ? (accountNumber, direction, since) -> direction == Direction.CREDIT
+                ? journalEntryRepository.countCreditsSince(accountNumber, since)
+                : journalEntryRepository.countDebitsSince(accountNumber, since)
+                : Seed.NONE);
+    }
+
+    public PostingLimitTracker(LimitWindow window, Clock clock, Seed seed) {
+        this.window = window;
+        this.clock = clock;
+        this.seed = seed;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new CounterTable(window.getSlots(), INITIAL_CAPACITY);
+        }
+        this.currentSlot = slotAt(clock.millis());
+    }
+
+    /**
+     * Counts a posting if the account has made fewer than {@code limit} postings in this direction within the window.
+     * A posting counted inside a transaction is taken back if the transaction rolls back.
+     */
+    public boolean tryAcquire(Long accountNumber, Direction direction, int limit) {
+        var slot = currentSlot().slot();
+        var hash = hash(accountNumber);
+        var table = stripe(hash);
+        int row;
+        synchronized (table) {
+            row = table.find(accountNumber, hash);
+            if (row >= 0 && !acquire(table, row, direction, slot, limit)) {
+                return false;
+            }
+        }
+        if (row < 0) {
+            // the journal is read without holding the stripe, which other accounts share
+            var since = windowStart(slot);
+            var credits = seed.count(accountNumber, Direction.CREDIT, since);
+            var debits = seed.count(accountNumber, Direction.DEBIT, since);
+            synchronized (table) {
+                row = table.find(accountNumber, hash);
+                if (row < 0) {
+                    row = table.insert(accountNumber, hash, slot);
+                    // seeded postings all go into the current slot, which can only hold them back for longer
+                    table.increment(row, Direction.CREDIT.ordinal(), slot, (int) credits);
+                    table.increment(row, Direction.DEBIT.ordinal(), slot, (int) debits);
+                }
+                if (!acquire(table, row, direction, slot, limit)) {
+                    return false;
+                }
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            var acquisitions = (Acquisitions) TransactionSynchronizationManager.getResource(this);
+            if (acquisitions == null) {
+                acquisitions = new Acquisitions();
+                TransactionSynchronizationManager.bindResource(this, acquisitions);
+                TransactionSynchronizationManager.registerSynchronization(acquisitions);
+            }
+            acquisitions.acquired.add(new Acquisition(accountNumber, direction, slot));
+        }
+        return true;
+    }
+
+    /**
+     * Takes back a posting counted by {@link #tryAcquire} that was not made after all.
+     */
+    public void release(Long accountNumber, Direction direction) {
+        var acquisitions = TransactionSynchronizationManager.isSynchronizationActive()
+                ? (Acquisitions) TransactionSynchronizationManager.getResource(this)
+                : null;
+        if (acquisitions != null) {
+            var acquired = acquisitions.acquired;
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                var acquisition = acquired.get(i);
+                if (acquisition.accountNumber().equals(accountNumber) && acquisition.direction() == direction) {
+                    acquired.remove(i);
+                    release(accountNumber, direction, acquisition.slot());
+                    return;
+                }
+            }
+        }
+        release(accountNumber, direction, currentSlot().slot());
+    }
+
+    /**
+     * Returns the number of postings the account has made in this direction within the window.
+     */
+    public int count(Long accountNumber, Direction direction) {
+        var slot = currentSlot().slot();
+        var hash = hash(accountNumber);
+        var table = stripe(hash);
+        synchronized (table) {
+            var row = table.find(accountNumber, hash);
+            return row < 0 ? 0 : table.total(row, direction.ordinal(), slot);
+        }
+    }
+
+    /**
+     * Counts postings restored from a ledger snapshot taken in {@code slot}, unless the account is already tracked or
+     * the slot has left the window.
+     */
+    public void restore(Long accountNumber, long slot, int credits, int debits) {
+        var current = currentSlot().slot();
+        if (slot > current || slot <= current - window.getSlots()) {
+            return;
+        }
+        var hash = hash(accountNumber);
+        var table = stripe(hash);
+        synchronized (table) {
+            if (table.find(accountNumber, hash) < 0) {
+                var row = table.insert(accountNumber, hash, current);
+                table.increment(row, Direction.CREDIT.ordinal(), current, credits);
+                table.increment(row, Direction.DEBIT.ordinal(), current, debits);
+            }
+        }
+    }
+
+    public LimitWindow getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the slot of the window that the current time falls in.
+     */
+    public long getSlot() {
+        return currentSlot().slot();
+    }
+
+    int trackedAccounts() {
+        var tracked = 0;
+        for (var table : stripes) {
+            synchronized (table) {
+                tracked += table.size();
+            }
+        }
+        return tracked;
+    }
+
+    static int hash(long accountNumber) {
+        var mixed = accountNumber * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private void release(Long accountNumber, Direction direction, long slot) {
+        var hash = hash(accountNumber);
+        var table = stripe(hash);
+        synchronized (table) {
+            var row = table.find(accountNumber, hash);
+            if (row >= 0) {
+                table.decrement(row, direction.ordinal(), slot);
+            }
+        }
+    }
+
+    private CounterTable stripe(int hash) {
+        // the table uses the low bits of the hash, so pick the stripe with the high ones
+        return stripes[hash >>> 26];
+    }
+
+    private static boolean acquire(CounterTable table, int row, Direction direction, long slot, int limit) {
+        if (table.total(row, direction.ordinal(), slot) >= limit) {
+            return false;
+        }
+        table.increment(row, direction.ordinal(), slot, 1);
+        return true;
+    }
+
+    private LocalDateTime windowStart(long slot) {
+        var zone = clock.getZone();
+        return LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(window.slotStart(slot - window.getSlots() + 1, zone)), zone);
+    }
+
+    private CurrentSlot currentSlot() {
+        var current = currentSlot;
+        var now = clock.millis();
+        if (now < current.startMillis() || now >= current.endMillis()) {
+            current = slotAt(now);
+            currentSlot = current;
+        }
+        return current;
+    }
+
+    private CurrentSlot slotAt(long epochMillis) {
+        var slot = window.slotAt(epochMillis, clock.getZone());
+        return new CurrentSlot(slot, window.slotStart(slot, clock.getZone()),
+                window.slotStart(slot + 1, clock.getZone()));
+    }
+}
@@ -0,0 +1,144 @@
+package com.assignment.sahaj.banking.metrics;
+
+import com.assignment.sahaj.banking.accrual.AccrualBatchService;
+import com.assignment.sahaj.banking.cache.AccountCache;
+import com.assignment.sahaj.banking.controller.RequestExecutor;
+import com.assignment.sahaj.banking.ledger.LedgerWriter;
+import com.assignment.sahaj.banking.replica.ReplicaMonitor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the statistics the application already keeps: the account caches, row lock contention, HTTP requests in
+ * flight, in {@code in-memory} mode the backlog and throughput of the {@link LedgerWriter}, the use and lag of the
+ * read replicas, and the progress of the accrual batch. The connection pool is bound by Spring Boot itself
+ * ({@code hikaricp.connections.*}).
+ */
+@Component
+public class BankingMeterBinder implements MeterBinder {
+
+    private final AccountCache accountCache;
+    private final LockContentionMetrics lockContentionMetrics;
+    private final ObjectProvider<LedgerWriter> ledgerWriter;
+    private final RequestExecutor requestExecutor;
+    private final ObjectProvider<ReplicaMonitor> replicaMonitor;
+    private final ObjectProvider<AccrualBatchService> accrualBatchService;
+
+    @Autowired
+    public BankingMeterBinder(AccountCache accountCache,
+                              LockContentionMetrics lockContentionMetrics,
+                              ObjectProvider<LedgerWriter> ledgerWriter,
+                              RequestExecutor requestExecutor,
+                              ObjectProvider<ReplicaMonitor> replicaMonitor,
+                              ObjectProvider<AccrualBatchService> accrualBatchService) {
+        this.accountCache = accountCache;
+        this.lockContentionMetrics = lockContentionMetrics;
+        this.ledgerWriter = ledgerWriter;
+        this.requestExecutor = requestExecutor;
+        this.replicaMonitor = replicaMonitor;
+        this.accrualBatchService = accrualBatchService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, accountCache.getBalances(), "account.balances");
+        CaffeineCacheMetrics.monitor(registry, accountCache.getMissingAccounts(), "account.missing");
+
+        FunctionTimer.builder("banking.lock.wait", lockContentionMetrics,
+                        LockContentionMetrics::getLockAcquisitions,
+                        LockContentionMetrics::getLockWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent waiting for account row locks")
+                .register(registry);
+        Gauge.builder("banking.lock.wait.max", lockContentionMetrics,
+                        metrics -> metrics.getMaximumLockWaitNanos() / 1e9)
+                .description("Longest wait for an account row lock")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("banking.lock.retries", lockContentionMetrics, LockContentionMetrics::getRetries)
+                .description("Operations retried after a lock timeout or version conflict")
+                .register(registry);
+        FunctionCounter.builder("banking.lock.retries.exhausted", lockContentionMetrics,
+                        LockContentionMetrics::getExhaustedRetries)
+                .description("Operations that failed after every retry")
+                .register(registry);
+
+        Gauge.builder("banking.api.in-flight", requestExecutor, RequestExecutor::getInFlight)
+                .description("HTTP requests accepted and not yet completed")
+                .register(registry);
+
+        ledgerWriter.ifAvailable(writer -> bindLedgerWriter(registry, writer));
+        replicaMonitor.ifAvailable(monitor -> bindReplicaMonitor(registry, monitor));
+        accrualBatchService.ifAvailable(service -> bindAccrualBatchService(registry, service));
+    }
+
+    private void bindLedgerWriter(MeterRegistry registry, LedgerWriter writer) {
+        Gauge.builder("banking.ledger.pending", writer, LedgerWriter::pendingCount)
+                .description("Journal entries waiting to be written")
+                .register(registry);
+        Gauge.builder("banking.ledger.flush.lag", writer, ledger -> ledger.flushLagNanos() / 1e9)
+                .description("Time the oldest waiting journal entry has been waiting")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionTimer.builder("banking.ledger.flush", writer, LedgerWriter::getFlushes,
+                        LedgerWriter::getFlushNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent writing queued journal entries and balances")
+                .register(registry);
+        FunctionCounter.builder("banking.ledger.entries.written", writer, LedgerWriter::getWrittenEntries)
+                .description("Journal entries written")
+                .register(registry);
+        FunctionCounter.builder("banking.ledger.account.updates", writer, LedgerWriter::getAccountUpdates)
+                .description("Account rows updated, one per account per batch of journal entries")
+                .register(registry);
+        Gauge.builder("banking.ledger.coalescing.ratio", writer, LedgerWriter::coalescingRatio)
+                .description("Journal entries written per account row updated")
+                .register(registry);
+        FunctionCounter.builder("banking.ledger.wal.syncs", writer, LedgerWriter::getWalSyncs)
+                .description("Syncs of the write-ahead log to disk")
+                .register(registry);
+    }
+
+    private void bindReplicaMonitor(MeterRegistry registry, ReplicaMonitor monitor) {
+        FunctionCounter.builder("banking.replica.reads", monitor, ReplicaMonitor::getReplicaReads)
+                .description("Read-only transactions, by the database that served them")
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("banking.replica.reads", monitor, ReplicaMonitor::getPrimaryReads)
+                .description("Read-only transactions, by the database that served them")
+                .tag("target", "primary")
+                .register(registry);
+        for (var replica : monitor.getReplicas()) {
+            Gauge.builder("banking.replica.lag", replica,
+                            r -> r.isAvailable() ? r.lagMillis() / 1e3 : Double.NaN)
+                    .description("Age of the newest heartbeat held by the read replica")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+        }
+    }
+
+    private void bindAccrualBatchService(MeterRegistry registry, AccrualBatchService service) {
+        FunctionCounter.builder("banking.accrual.accounts", service, AccrualBatchService::getAccounts)
+                .description("Accounts processed by the accrual batch")
+                .register(registry);
+        FunctionCounter.builder("banking.accrual.postings", service, AccrualBatchService::getInterestPostings)
+                .description("Postings made by the accrual batch, by type")
+                .tag("type", "interest")
+                .register(registry);
+        FunctionCounter.builder("banking.accrual.postings", service, AccrualBatchService::getFeePostings)
+                .description("Postings made by the accrual batch, by type")
+                .tag("type", "fee")
+                .register(registry);
+        FunctionCounter.builder("banking.accrual.chunks.failed", service, AccrualBatchService::getFailedChunks)
+                .description("Chunks of accounts the accrual batch failed to post")
+                .register(registry);
+    }
+}
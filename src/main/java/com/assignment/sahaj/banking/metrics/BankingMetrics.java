@@ -0,0 +1,111 @@
+package com.assignment.sahaj.banking.metrics;
+
+import com.assignment.sahaj.banking.dto.CommandResult;
+import com.assignment.sahaj.banking.dto.TransferResult;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every {@link com.assignment.sahaj.banking.service.BankingService} operation and counts rejections by
+ * {@link BankingRejection.Reason}. Runs outside the retry and transaction advice, so a timing includes lock retries
+ * and the commit. Every meter is registered up front; recording one is a map lookup and a few atomic adds.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BankingMetrics {
+
+    private static final List<String> OPERATIONS =
+            List.of("createAccount", "deposit", "withdraw", "transferFund", "transferBatch", "applyCommands",
+                    "getBalance");
+
+    private static final class OperationTimers {
+
+        private final Timer success;
+        private final Timer rejected;
+        private final Timer failed;
+
+        private OperationTimers(MeterRegistry registry, String operation) {
+            this.success = timer(registry, operation, "success");
+            this.rejected = timer(registry, operation, "rejected");
+            this.failed = timer(registry, operation, "failed");
+        }
+
+        private static Timer timer(MeterRegistry registry, String operation, String outcome) {
+            return Timer.builder("banking.operation")
+                    .description("Time taken by a BankingService operation")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(50_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+        }
+    }
+
+    private final Map<String, OperationTimers> timers = new HashMap<>();
+    private final Map<BankingRejection.Reason, Counter> rejections = new EnumMap<>(BankingRejection.Reason.class);
+
+    @Autowired
+    public BankingMetrics(MeterRegistry registry) {
+        OPERATIONS.forEach(operation -> timers.put(operation, new OperationTimers(registry, operation)));
+        for (var reason : BankingRejection.Reason.values()) {
+            rejections.put(reason, Counter.builder("banking.rejections")
+                    .description("Operations rejected by a business rule")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+
+    @Around("execution(public * com.assignment.sahaj.banking.service.BankingService.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        var operationTimers = timers.get(joinPoint.getSignature().getName());
+        if (operationTimers == null) {
+            return joinPoint.proceed();
+        }
+
+        var start = System.nanoTime();
+        try {
+            var result = joinPoint.proceed();
+            operationTimers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (result instanceof List<?> results) {
+                countBatchRejections(results);
+            }
+            return result;
+        } catch (BankingRejection e) {
+            operationTimers.rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            rejections.get(e.getReason()).increment();
+            throw e;
+        } catch (Throwable t) {
+            operationTimers.failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw t;
+        }
+    }
+
+    private void countBatchRejections(List<?> results) {
+        for (var result : results) {
+            if (result instanceof TransferResult transferResult && transferResult.getReason() != null) {
+                rejections.get(transferResult.getReason()).increment();
+            } else if (result instanceof CommandResult commandResult && !commandResult.isApplied()) {
+                rejections.get(commandResult.getRejection().getReason()).increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.assignment.sahaj.banking.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts lock waits on account rows and the retries they cause. Registered as the retry listener of the
+ * money operations in {@link com.assignment.sahaj.banking.service.BankingService}.
+ */
+@Component("lockContentionListener")
+public class LockContentionMetrics extends RetryListenerSupport {
+
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final AtomicLong maximumLockWaitNanos = new AtomicLong();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhaustedRetries = new LongAdder();
+    private final int maximumAttempts;
+
+    @Autowired
+    public LockContentionMetrics(@Value("${banking.lock.retry.max-attempts}") int maximumAttempts) {
+        this.maximumAttempts = maximumAttempts;
+    }
+
+    public void recordLockWait(long nanos) {
+        lockAcquisitions.increment();
+        lockWaitNanos.add(nanos);
+        maximumLockWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                 Throwable throwable) {
+        // the retry count already includes this attempt; after the last one there is no retry, only exhaustion
+        if (throwable instanceof ConcurrencyFailureException && context.getRetryCount() < maximumAttempts) {
+            retries.increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                               Throwable throwable) {
+        if (throwable instanceof ConcurrencyFailureException) {
+            exhaustedRetries.increment();
+        }
+    }
+
+    public long getLockAcquisitions() {
+        return lockAcquisitions.sum();
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos.sum();
+    }
+
+    public long getMaximumLockWaitNanos() {
+        return maximumLockWaitNanos.get();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhaustedRetries() {
+        return exhaustedRetries.sum();
+    }
+}
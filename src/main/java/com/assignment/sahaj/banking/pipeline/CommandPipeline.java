@@ -0,0 +1,204 @@
+package com.assignment.sahaj.banking.pipeline;
+
+import com.assignment.sahaj.banking.dto.AccountCommand;
+import com.assignment.sahaj.banking.dto.CommandResult;
+import com.assignment.sahaj.banking.service.BankingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.assignment.sahaj.banking.utils.Messages.SUCCESS_MESSAGE;
+
+/**
+ * Applies deposits, withdrawals and transfers through {@code banking.pipeline.partitions} single writer threads
+ * instead of one transaction per call. A command goes to the partition of its account (the source account of a
+ * transfer), so the commands submitted for one account are applied in the order they were submitted. Each writer
+ * takes up to {@code banking.pipeline.group-size} queued commands, waiting at most
+ * {@code banking.pipeline.group-wait-us} for more once it has one, and applies them with
+ * {@link BankingService#applyCommands} so the whole group shares one commit. If the group fails for any other reason
+ * than a rejected command, it is applied again in halves, so only the commands that cause the failure fail.
+ * <p>
+ * Every partition queue holds at most {@code banking.pipeline.queue-capacity} commands; beyond that a command is
+ * refused with a {@link RejectedExecutionException}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.pipeline.enabled", havingValue = "true")
+public class CommandPipeline {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private record Pending(AccountCommand command, CompletableFuture<Long> result) {
+    }
+
+    private final class Partition implements Runnable {
+
+        private final BlockingQueue<Pending> queue;
+        private final List<Pending> group;
+        private final Thread writer;
+
+        private Partition(int index) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.group = new ArrayList<>(groupSize);
+            this.writer = new Thread(this, "command-writer-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    var first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        group.add(first);
+                        fill();
+                        apply(group);
+                        group.clear();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void fill() throws InterruptedException {
+            var deadline = System.nanoTime() + groupWaitNanos;
+            while (group.size() < groupSize) {
+                if (queue.drainTo(group, groupSize - group.size()) == 0) {
+                    var remaining = deadline - System.nanoTime();
+                    var next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        return;
+                    }
+                    group.add(next);
+                }
+            }
+        }
+    }
+
+    private final BankingService bankingService;
+    private final int groupSize;
+    private final long groupWaitNanos;
+    private final int queueCapacity;
+    private final Partition[] partitions;
+    private volatile boolean running = true;
+
+    @Autowired
+    public CommandPipeline(BankingService bankingService,
+                           @Value("${banking.pipeline.partitions}") int partitions,
+                           @Value("${banking.pipeline.group-size}") int groupSize,
+                           @Value("${banking.pipeline.group-wait-us}") long groupWaitMicros,
+                           @Value("${banking.pipeline.queue-capacity}") int queueCapacity) {
+        this.bankingService = bankingService;
+        this.groupSize = groupSize;
+        this.groupWaitNanos = TimeUnit.MICROSECONDS.toNanos(groupWaitMicros);
+        this.queueCapacity = queueCapacity;
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition(i);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (var partition : partitions) {
+            partition.writer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // the writers finish the commands already queued, anything submitted after this is refused
+        running = false;
+        for (var partition : partitions) {
+            partition.writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        for (var partition : partitions) {
+            Pending pending;
+            while ((pending = partition.queue.poll()) != null) {
+                pending.result().completeExceptionally(new RejectedExecutionException("Command pipeline stopped"));
+            }
+        }
+    }
+
+    /**
+     * Queues a command and returns the balance of its account once the group it was applied in has committed.
+     * A rejected command completes with its {@link com.assignment.sahaj.banking.exception.BankingRejection}.
+     */
+    public CompletableFuture<Long> submit(AccountCommand command) {
+        var result = new CompletableFuture<Long>();
+        if (!running) {
+            result.completeExceptionally(new RejectedExecutionException("Command pipeline stopped"));
+        } else if (!partitionOf(command.getAccountNumber()).queue.offer(new Pending(command, result))) {
+            result.completeExceptionally(new RejectedExecutionException("Command pipeline is full"));
+        }
+        return result;
+    }
+
+    public CompletableFuture<Long> deposit(Long accountNumber, long amount) {
+        return submit(AccountCommand.deposit(accountNumber, amount));
+    }
+
+    public CompletableFuture<Long> withdraw(Long accountNumber, long amount) {
+        return submit(AccountCommand.withdrawal(accountNumber, amount));
+    }
+
+    public CompletableFuture<String> transferFund(Long sourceAccountNumber, Long destinationAccountNumber,
+                                                  long amount) {
+        return submit(AccountCommand.transfer(sourceAccountNumber, destinationAccountNumber, amount))
+                .thenApply(balance -> SUCCESS_MESSAGE);
+    }
+
+    public int getQueued() {
+        var queued = 0;
+        for (var partition : partitions) {
+            queued += partition.queue.size();
+        }
+        return queued;
+    }
+
+    private Partition partitionOf(Long accountNumber) {
+        return partitions[(int) Math.floorMod(accountNumber, (long) partitions.length)];
+    }
+
+    // a group that fails as a whole has been rolled back, together with the postings it counted against the daily
+    // limits, so it is split in halves that are applied in turn until only the failing commands are left
+    private void apply(List<Pending> group) {
+        var commands = new ArrayList<AccountCommand>(group.size());
+        group.forEach(pending -> commands.add(pending.command()));
+        List<CommandResult> results;
+        try {
+            results = bankingService.applyCommands(commands);
+        } catch (RuntimeException e) {
+            if (group.size() > 1) {
+                log.warn("Failed to apply a group of {} commands, applying it in halves", group.size(), e);
+                apply(group.subList(0, group.size() / 2));
+                apply(group.subList(group.size() / 2, group.size()));
+            } else {
+                log.error("Failed to apply {}", group.get(0).command(), e);
+                group.get(0).result().completeExceptionally(e);
+            }
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            var result = results.get(i);
+            if (result.isApplied()) {
+                group.get(i).result().complete(result.getBalance());
+            } else {
+                group.get(i).result().completeExceptionally(result.getRejection());
+            }
+        }
+    }
+}
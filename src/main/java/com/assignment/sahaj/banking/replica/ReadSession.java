@@ -0,0 +1,63 @@
+package com.assignment.sahaj.banking.replica;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The reads and writes of one client. Once a write of the session has committed, its reads only go to replicas that
+ * hold the heartbeat written after it, so the session always reads its own writes. Reads outside a session only have
+ * to stay within {@code banking.replica.max-lag-ms} of the primary.
+ * <p>
+ * The session of the running operation is bound to its thread with {@link #callWith}.
+ */
+public final class ReadSession {
+
+    private static final ThreadLocal<ReadSession> CURRENT = new ThreadLocal<>();
+    // no replica ever reaches this beat
+    private static final ReadSession PRIMARY = new ReadSession(Long.MAX_VALUE);
+
+    private final AtomicLong minimumBeat;
+
+    public ReadSession() {
+        this(0);
+    }
+
+    private ReadSession(long minimumBeat) {
+        this.minimumBeat = new AtomicLong(minimumBeat);
+    }
+
+    public static ReadSession current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callWith(ReadSession session, Supplier<T> operation) {
+        var previous = bind(session);
+        try {
+            return operation.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    /**
+     * Runs the operation with every read going to the primary, for reads that must see the latest state.
+     */
+    public static <T> T onPrimary(Supplier<T> operation) {
+        return callWith(PRIMARY, operation);
+    }
+
+    public long getMinimumBeat() {
+        return minimumBeat.get();
+    }
+
+    // binds the session to the current thread and returns the one bound before
+    static ReadSession bind(ReadSession session) {
+        var previous = CURRENT.get();
+        CURRENT.set(session);
+        return previous;
+    }
+
+    void requireBeat(long beat) {
+        minimumBeat.accumulateAndGet(beat, Math::max);
+    }
+}
@@ -0,0 +1,46 @@
+package com.assignment.sahaj.banking.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Serves the requests carrying a {@code Session-Id} header in the {@link ReadSession} of that id, so a client reads
+ * its own writes from the replicas. Sessions unused for {@code banking.replica.session-ttl-ms} are forgotten.
+ */
+public class ReadSessionFilter extends OncePerRequestFilter {
+
+    static final String SESSION_ID_HEADER = "Session-Id";
+
+    private final Cache<String, ReadSession> sessions;
+
+    public ReadSessionFilter(long maximumSize, long ttlMillis) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofMillis(ttlMillis))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var sessionId = request.getHeader(SESSION_ID_HEADER);
+        if (sessionId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        var previous = ReadSession.bind(sessions.get(sessionId, id -> new ReadSession()));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadSession.bind(previous);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.assignment.sahaj.banking.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single {@code spring.datasource} with a {@link ReplicaRoutingDataSource} over the primary and the
+ * read replicas at {@code banking.replica.urls}. The replicas are reached with the credentials of the primary and are
+ * expected to be kept up to date by the database's own replication, including the {@code replica_heartbeat} table.
+ * <p>
+ * Only used in {@code jpa} mode; in {@code in-memory} mode balances are already served from memory, and the ledger
+ * must load accounts from the primary.
+ */
+@Configuration
+@ConditionalOnExpression("${banking.replica.enabled:false} and '${banking.engine.mode:jpa}' == 'jpa'")
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaMonitor replicaMonitor(HikariDataSource primaryDataSource,
+                                         DataSourceProperties properties,
+                                         @Value("${banking.replica.urls}") List<String> urls,
+                                         @Value("${banking.replica.pool-size}") int poolSize,
+                                         @Value("${banking.replica.connection-timeout-ms}")
+                                         long connectionTimeoutMillis,
+                                         @Value("${banking.replica.max-lag-ms}") long maxLagMillis) {
+        var replicas = new ArrayList<ReplicaMonitor.Replica>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            var name = "replica-" + i;
+            var dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(urls.get(i));
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+            dataSource.setMaximumPoolSize(poolSize);
+            // a replica that does not answer quickly is skipped in favour of the primary
+            dataSource.setConnectionTimeout(connectionTimeoutMillis);
+            dataSource.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaMonitor.Replica(name, dataSource));
+        }
+        return new ReplicaMonitor(primaryDataSource, replicas, maxLagMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaMonitor replicaMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaMonitor));
+    }
+
+    @Bean
+    public ReadSessionFilter readSessionFilter(@Value("${banking.replica.sessions.maximum-size}") long maximumSize,
+                                               @Value("${banking.replica.session-ttl-ms}") long ttlMillis) {
+        return new ReadSessionFilter(maximumSize, ttlMillis);
+    }
+}
@@ -0,0 +1,190 @@
+package com.assignment.sahaj.banking.replica;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how far each read replica is behind the primary database. Every {@code banking.replica.heartbeat-interval-ms}
+ * the beat in the {@code replica_heartbeat} row of the primary is incremented and the row is read back from every
+ * replica. A replica holding beat {@code n} has every change committed before beat {@code n} was written, so it is at
+ * most as old as that beat. The beat is only ever incremented in the database, so every application node sharing the
+ * primary moves the same count forward.
+ * <p>
+ * A read goes to a replica, taken in turn, that answered the last check, whose beat is at most
+ * {@code banking.replica.max-lag-ms} old and that holds the beat its {@link ReadSession} requires. When there is none
+ * it goes to the primary.
+ */
+@Slf4j
+public class ReplicaMonitor implements Closeable {
+
+    private static final String SELECT_HEARTBEAT_SQL =
+            "SELECT beat, written_at_millis FROM replica_heartbeat WHERE id = 1";
+    private static final String SELECT_BEAT_SQL = "SELECT beat FROM replica_heartbeat WHERE id = 1";
+    private static final String INCREMENT_HEARTBEAT_SQL =
+            "UPDATE replica_heartbeat SET beat = beat + 1, written_at_millis = ? WHERE id = 1";
+    private static final String INSERT_HEARTBEAT_SQL =
+            "INSERT INTO replica_heartbeat (id, beat, written_at_millis) VALUES (1, ?, ?)";
+
+    /**
+     * A read replica and what its last check found.
+     */
+    @Getter
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+        private volatile long beat;
+        private volatile long beatWrittenAtMillis;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Returns how old the state of the replica is at most, or {@code Long.MAX_VALUE} if it is not available.
+         */
+        public long lagMillis() {
+            return available ? Math.max(0, System.currentTimeMillis() - beatWrittenAtMillis) : Long.MAX_VALUE;
+        }
+    }
+
+    private final DataSource primary;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final TransactionTemplate primaryTransactionTemplate;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaMonitor(DataSource primary, List<Replica> replicas, long maxLagMillis) {
+        this.primary = primary;
+        this.primaryJdbcTemplate = new JdbcTemplate(primary);
+        this.primaryTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primary));
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.replica.heartbeat-interval-ms}")
+    public void heartbeat() {
+        try {
+            beat();
+        } catch (DataAccessException e) {
+            log.warn("Failed to write the replica heartbeat", e);
+        }
+        check();
+    }
+
+    /**
+     * Increments the beat on the primary and returns the beat written.
+     */
+    public long beat() {
+        return primaryTransactionTemplate.execute(status -> {
+            var now = System.currentTimeMillis();
+            if (primaryJdbcTemplate.update(INCREMENT_HEARTBEAT_SQL, now) == 0) {
+                primaryJdbcTemplate.update(INSERT_HEARTBEAT_SQL, 1L, now);
+            }
+            // the row stays locked until the commit, so this is the beat just written
+            return primaryJdbcTemplate.queryForObject(SELECT_BEAT_SQL, Long.class);
+        });
+    }
+
+    /**
+     * Reads the beat held by every replica. A replica that cannot be read is not used until it can be again.
+     */
+    public void check() {
+        for (var replica : replicas) {
+            try {
+                var heartbeat = new JdbcTemplate(replica.dataSource).query(SELECT_HEARTBEAT_SQL,
+                        (row, index) -> new long[]{row.getLong(1), row.getLong(2)});
+                if (heartbeat.isEmpty()) {
+                    replica.available = false;
+                } else {
+                    replica.beat = heartbeat.get(0)[0];
+                    replica.beatWrittenAtMillis = heartbeat.get(0)[1];
+                    replica.available = true;
+                }
+            } catch (DataAccessException e) {
+                markUnavailable(replica, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the beat that a replica has to hold to have every change committed up to now: the one after the beat
+     * the primary holds. It is read from the primary, since other nodes move the beat forward too. If it cannot be
+     * read, no beat is known to be late enough, and {@code Long.MAX_VALUE} is returned.
+     */
+    public long nextBeat() {
+        try {
+            var beat = primaryJdbcTemplate.query(SELECT_BEAT_SQL, (row, index) -> row.getLong(1));
+            return beat.isEmpty() ? 1 : beat.get(0) + 1;
+        } catch (DataAccessException e) {
+            log.warn("Failed to read the replica heartbeat, the session reads from the primary", e);
+            return Long.MAX_VALUE;
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Returns a replica fresh enough for the session, or {@code null} if the read has to go to the primary.
+     */
+    Replica select(ReadSession session) {
+        var minimumBeat = session == null ? 0 : session.getMinimumBeat();
+        var start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            var replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.available && replica.beat >= minimumBeat && replica.lagMillis() <= maxLagMillis) {
+                replicaReads.increment();
+                return replica;
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    void markUnavailable(Replica replica, Exception cause) {
+        if (replica.available) {
+            log.warn("Read replica {} is not available, reading from the primary instead", replica.name, cause);
+        }
+        replica.available = false;
+    }
+}
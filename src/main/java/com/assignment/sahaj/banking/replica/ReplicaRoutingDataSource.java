@@ -0,0 +1,85 @@
+package com.assignment.sahaj.banking.replica;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out connections to the primary database, except in read-only transactions, which get a connection to a read
+ * replica picked by the {@link ReplicaMonitor} if one is fresh enough. If the replica cannot be reached, the
+ * connection comes from the primary after all.
+ * <p>
+ * The transaction must be known to be read-only when the connection is taken, so this data source is used behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which takes the connection at the first
+ * statement rather than when the transaction begins.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Object REPLICA_READ = new Object();
+
+    private final ReplicaMonitor replicaMonitor;
+
+    public ReplicaRoutingDataSource(ReplicaMonitor replicaMonitor) {
+        this.replicaMonitor = replicaMonitor;
+    }
+
+    /**
+     * Tells whether the current transaction reads from a replica, whose state can be behind the primary.
+     */
+    public static boolean isReadFromReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return replicaMonitor.getPrimary().getConnection();
+        }
+        var replica = replicaMonitor.select(ReadSession.current());
+        if (replica != null) {
+            try {
+                var connection = replica.getDataSource().getConnection();
+                markReplicaRead();
+                return connection;
+            } catch (SQLException e) {
+                replicaMonitor.markUnavailable(replica, e);
+            }
+        }
+        return replicaMonitor.getPrimary().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Connections for another user are not supported by " + getClass().getSimpleName());
+    }
+
+    // once the transaction has committed, the session only reads from replicas holding the next heartbeat
+    private void trackWrite() {
+        var session = ReadSession.current();
+        if (session != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    session.requireBeat(replicaMonitor.nextBeat());
+                }
+            });
+        }
+    }
+
+    private void markReplicaRead() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+            TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+                }
+            });
+        }
+    }
+}
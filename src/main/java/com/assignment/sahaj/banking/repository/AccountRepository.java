@@ -1,7 +1,56 @@
 package com.assignment.sahaj.banking.repository;
 
+import com.assignment.sahaj.banking.dto.AccountBalance;
+import com.assignment.sahaj.banking.dto.AccountSnapshot;
 import com.assignment.sahaj.banking.entity.Account;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
+
+    @Query("select new com.assignment.sahaj.banking.dto.AccountBalance(a.accountNumber, a.balance, a.version) "
+            + "from Account a where a.accountNumber = :accountNumber")
+    Optional<AccountBalance> findBalanceById(@Param("accountNumber") Long accountNumber);
+
+    @Query("select a from Account a join fetch a.customer where a.accountNumber = :accountNumber")
+    Optional<Account> findWithCustomerById(@Param("accountNumber") Long accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber = :accountNumber")
+    Optional<Account> findByIdForUpdate(@Param("accountNumber") Long accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.accountNumber in :accountNumbers order by a.accountNumber")
+    List<Account> findAllByIdForUpdate(@Param("accountNumbers") Collection<Long> accountNumbers);
+
+    /**
+     * Returns the account numbers after {@code afterAccountNumber} in ascending order, read as a range of the primary
+     * key however far into the table it starts.
+     */
+    @Query("select a.accountNumber from Account a where a.accountNumber > :afterAccountNumber "
+            + "order by a.accountNumber")
+    List<Long> findAccountNumbersAfter(@Param("afterAccountNumber") long afterAccountNumber, Pageable page);
+
+    // rows are fetched from a forward-only cursor in chunks of the fetch size, so callers must close the stream
+    @QueryHints({
+            @QueryHint(name = FETCH_SIZE, value = "10000"),
+            @QueryHint(name = READ_ONLY, value = "true")})
+    @Query("select new com.assignment.sahaj.banking.dto.AccountSnapshot(a.accountNumber, c.id, c.name, a.tier, "
+            + "a.balance, a.version) from Account a join a.customer c order by a.accountNumber")
+    Stream<AccountSnapshot> streamSnapshots();
+
 }
@@ -1,12 +1,46 @@
 package com.assignment.sahaj.banking.repository;
 
+import com.assignment.sahaj.banking.dto.CustomerMatch;
 import com.assignment.sahaj.banking.entity.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
-    Customer findByName(String name);
+    List<Customer> findByName(String name);
+
+    /**
+     * Returns the customers whose name key starts with {@code prefix} and sorts after ({@code afterKey},
+     * {@code afterId}), in name key order. {@code prefix} is a LIKE pattern escaped with {@code !}.
+     */
+    @Query("select new com.assignment.sahaj.banking.dto.CustomerMatch(c.id, c.name, a.accountNumber) "
+            + "from Account a join a.customer c "
+            + "where c.nameKey like :prefix escape '!' and c.nameKey >= :afterKey "
+            + "and (c.nameKey > :afterKey or c.id > :afterId) "
+            + "order by c.nameKey, c.id")
+    List<CustomerMatch> findByNamePrefix(@Param("prefix") String prefix,
+                                         @Param("afterKey") String afterKey,
+                                         @Param("afterId") long afterId,
+                                         Pageable page);
+
+    @Query("select new com.assignment.sahaj.banking.dto.CustomerMatch(c.id, c.name, a.accountNumber) "
+            + "from Account a join a.customer c where a.accountNumber in :accountNumbers")
+    List<CustomerMatch> findByAccountNumbers(@Param("accountNumbers") Collection<Long> accountNumbers);
+
+    /**
+     * Returns the name key, customer id and account number of every customer after ({@code afterKey},
+     * {@code afterId}), in name key order.
+     */
+    @Query("select c.nameKey, c.id, a.accountNumber from Account a join a.customer c "
+            + "where c.nameKey >= :afterKey and (c.nameKey > :afterKey or c.id > :afterId) "
+            + "order by c.nameKey, c.id")
+    List<Object[]> findNameKeys(@Param("afterKey") String afterKey,
+                                @Param("afterId") long afterId,
+                                Pageable page);
 
 }
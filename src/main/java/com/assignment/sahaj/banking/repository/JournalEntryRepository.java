@@ -0,0 +1,55 @@
+package com.assignment.sahaj.banking.repository;
+
+import com.assignment.sahaj.banking.dto.StatementLine;
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
+
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+
+    @Query("select coalesce(sum(e.amount), 0) from JournalEntry e "
+            + "where e.accountNumber = :accountNumber and e.id > :afterId and e.id <= :upToId")
+    long sumAmounts(@Param("accountNumber") Long accountNumber,
+                    @Param("afterId") long afterId,
+                    @Param("upToId") long upToId);
+
+    @Query("select coalesce(max(e.id), 0) from JournalEntry e")
+    long findLastId();
+
+    @Query("select coalesce(max(e.id), 0) from JournalEntry e where e.accountNumber = :accountNumber")
+    long findLastId(@Param("accountNumber") Long accountNumber);
+
+    @Query("select distinct e.accountNumber from JournalEntry e where e.id > :afterId and e.id <= :upToId")
+    List<Long> findAccountNumbersWithEntries(@Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    // reversals give back a debit and interest is posted by the bank, so neither counts as a credit
+    @Query("select count(e) from JournalEntry e where e.accountNumber = :accountNumber and e.amount > 0 "
+            + "and e.type <> 'REVERSAL' and e.type <> 'INTEREST' and e.postedAt >= :since")
+    long countCreditsSince(@Param("accountNumber") Long accountNumber, @Param("since") LocalDateTime since);
+
+    @Query("select count(e) from JournalEntry e where e.accountNumber = :accountNumber and e.amount < 0 "
+            + "and e.type <> 'FEE' and e.postedAt >= :since")
+    long countDebitsSince(@Param("accountNumber") Long accountNumber, @Param("since") LocalDateTime since);
+
+    // rows are fetched from a forward-only cursor in chunks of the fetch size, so callers must close the stream
+    @QueryHints({
+            @QueryHint(name = FETCH_SIZE, value = "1000"),
+            @QueryHint(name = READ_ONLY, value = "true")})
+    @Query("select new com.assignment.sahaj.banking.dto.StatementLine(e.id, e.postedAt, e.type, e.amount, "
+            + "e.balanceAfter, e.counterpartyAccountNumber) from JournalEntry e "
+            + "where e.accountNumber = :accountNumber and e.postedAt >= :from and e.postedAt < :to order by e.id")
+    Stream<StatementLine> streamStatement(@Param("accountNumber") Long accountNumber,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+}
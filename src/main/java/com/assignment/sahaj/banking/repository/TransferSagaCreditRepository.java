@@ -0,0 +1,7 @@
+package com.assignment.sahaj.banking.repository;
+
+import com.assignment.sahaj.banking.entity.TransferSagaCredit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TransferSagaCreditRepository extends JpaRepository<TransferSagaCredit, String> {
+}
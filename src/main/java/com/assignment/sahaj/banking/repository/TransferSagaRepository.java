@@ -0,0 +1,28 @@
+package com.assignment.sahaj.banking.repository;
+
+import com.assignment.sahaj.banking.entity.TransferSaga;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TransferSagaRepository extends JpaRepository<TransferSaga, String> {
+
+    // only moves a saga that is still in the expected status, so two callers never both move it on
+    @Transactional
+    @Modifying
+    @Query("update TransferSaga s set s.status = :to, s.updatedAt = :updatedAt where s.id = :id and s.status = :from")
+    int updateStatus(@Param("id") String id,
+                     @Param("from") TransferSaga.Status from,
+                     @Param("to") TransferSaga.Status to,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    List<TransferSaga> findByStatusInAndUpdatedAtBefore(Collection<TransferSaga.Status> statuses,
+                                                       LocalDateTime updatedBefore);
+
+}
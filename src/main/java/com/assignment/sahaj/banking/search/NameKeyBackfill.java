@@ -0,0 +1,60 @@
+package com.assignment.sahaj.banking.search;
+
+import com.assignment.sahaj.banking.entity.Customer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+/**
+ * Fills in the name key of customers stored before customers could be searched by name, see
+ * {@code db/customer_name_key.sql}. The key is computed with {@link Customer#nameKeyOf}, so it is exactly the key a
+ * search looks for; SQL's own lower-casing and trimming differ from Java's for some characters. Customers are updated
+ * in batches of {@value #BATCH_SIZE} in id order, one transaction per batch.
+ */
+@Slf4j
+@Component
+public class NameKeyBackfill {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String SELECT_MISSING_SQL = "SELECT id, name FROM customer "
+            + "WHERE name_key IS NULL AND name IS NOT NULL AND id > ? ORDER BY id LIMIT " + BATCH_SIZE;
+    private static final String UPDATE_NAME_KEY_SQL = "UPDATE customer SET name_key = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NameKeyBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        var filled = backfill();
+        if (filled > 0) {
+            log.info("Filled in the name key of {} customers", filled);
+        }
+    }
+
+    /**
+     * Fills in every missing name key and returns how many were filled in.
+     */
+    public long backfill() {
+        var filled = 0L;
+        var afterId = 0L;
+        while (true) {
+            var batch = jdbcTemplate.query(SELECT_MISSING_SQL,
+                    (row, index) -> new Object[]{Customer.nameKeyOf(row.getString(2)), row.getLong(1)}, afterId);
+            if (batch.isEmpty()) {
+                return filled;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_NAME_KEY_SQL, new ArrayList<>(batch));
+            filled += batch.size();
+            afterId = (Long) batch.get(batch.size() - 1)[1];
+        }
+    }
+}
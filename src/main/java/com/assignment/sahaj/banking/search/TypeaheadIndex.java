@@ -0,0 +1,102 @@
+package com.assignment.sahaj.banking.search;
+
+import com.assignment.sahaj.banking.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Sorted in-memory index of customer name keys for typeahead. The keys and account numbers are held in two parallel
+ * arrays, so a prefix is found with one binary search and no database round trip; customers sharing a name share one
+ * key string. The index is rebuilt from the database every {@code banking.search.typeahead.rebuild-interval-ms}, so
+ * customers created since the last rebuild are not found until the next one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.search.typeahead.enabled", havingValue = "true")
+public class TypeaheadIndex {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private static final class Snapshot {
+
+        private final String[] keys;
+        private final long[] accountNumbers;
+        private final int size;
+
+        private Snapshot(String[] keys, long[] accountNumbers, int size) {
+            this.keys = keys;
+            this.accountNumbers = accountNumbers;
+            this.size = size;
+        }
+    }
+
+    private final CustomerRepository customerRepository;
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new long[0], 0);
+
+    @Autowired
+    public TypeaheadIndex(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    /**
+     * Returns the account numbers of at most {@code limit} customers whose name key starts with {@code keyPrefix},
+     * in name order.
+     */
+    public long[] find(String keyPrefix, int limit) {
+        var current = snapshot;
+        var from = Arrays.binarySearch(current.keys, 0, current.size, keyPrefix);
+        if (from < 0) {
+            from = -from - 1;
+        } else {
+            // the prefix is itself a key, which may be shared by the customers before this one
+            while (from > 0 && current.keys[from - 1].equals(keyPrefix)) {
+                from--;
+            }
+        }
+        var to = from;
+        while (to < current.size && to - from < limit && current.keys[to].startsWith(keyPrefix)) {
+            to++;
+        }
+        return Arrays.copyOfRange(current.accountNumbers, from, to);
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.search.typeahead.rebuild-interval-ms}")
+    public synchronized void rebuild() {
+        var keys = new String[Math.max(snapshot.size, LOAD_PAGE_SIZE)];
+        var accountNumbers = new long[keys.length];
+        var size = 0;
+        var afterKey = "";
+        var afterId = 0L;
+        while (true) {
+            var rows = customerRepository.findNameKeys(afterKey, afterId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            for (var row : rows) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    accountNumbers = Arrays.copyOf(accountNumbers, size * 2);
+                }
+                var key = (String) row[0];
+                keys[size] = size > 0 && keys[size - 1].equals(key) ? keys[size - 1] : key;
+                accountNumbers[size] = (Long) row[2];
+                size++;
+            }
+            if (rows.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            var last = rows.get(rows.size() - 1);
+            afterKey = (String) last[0];
+            afterId = (Long) last[1];
+        }
+        snapshot = new Snapshot(keys, accountNumbers, size);
+        log.debug("Rebuilt the typeahead index with {} customers", size);
+    }
+}
@@ -0,0 +1,35 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.entity.JournalEntry;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Resolves the {@link Account} state used by {@link BankingService} and persists the changes made to it.
+ * Mutations passed to {@code update} run while the store guarantees exclusive access to the account(s).
+ */
+public interface AccountStore {
+
+    long readBalance(Long accountNumber);
+
+    long update(Long accountNumber, boolean isTransfer, ToLongFunction<Account> mutation);
+
+    <T> T update(Long sourceAccountNumber, Long destinationAccountNumber, BiFunction<Account, Account, T> mutation);
+
+    /**
+     * Applies a mutation to several accounts at once. Account numbers that do not exist are left out of the map
+     * handed to the mutation. If the mutation throws, none of its changes are kept.
+     */
+    <T> T updateAll(Collection<Long> accountNumbers, Function<Map<Long, Account>, T> mutation);
+
+    /**
+     * Appends a posting to the journal. Called from within a mutation, so entries of one account are recorded in
+     * the order the mutations were applied.
+     */
+    void record(JournalEntry entry);
+}
@@ -1,179 +1,485 @@
 package com.assignment.sahaj.banking.service;
 
+import com.assignment.sahaj.banking.cache.AccountCache;
+import com.assignment.sahaj.banking.dto.AccountCommand;
+import com.assignment.sahaj.banking.dto.CommandResult;
+import com.assignment.sahaj.banking.dto.TransferInstruction;
+import com.assignment.sahaj.banking.dto.TransferResult;
 import com.assignment.sahaj.banking.entity.Account;
 import com.assignment.sahaj.banking.entity.Customer;
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.idempotency.IdempotencyKey;
+import com.assignment.sahaj.banking.idempotency.IdempotencyStore;
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.limit.Limits;
+import com.assignment.sahaj.banking.limit.PostingLimitTracker;
 import com.assignment.sahaj.banking.repository.AccountRepository;
-import com.assignment.sahaj.banking.repository.CustomerRepository;
-import com.assignment.sahaj.banking.utils.ExceptionMessageUtil;
-import com.assignment.sahaj.banking.utils.PropertyUtil;
+import com.assignment.sahaj.banking.shard.TransferSagaStore;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
-import java.util.concurrent.atomic.AtomicReference;
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
 
-import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_DAILY_CREDIT_LIMIT_EXCEPTION_MESSAGE;
-import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_DAILY_DEBIT_LIMIT_EXCEPTION_MESSAGE;
-import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_ACCOUNT_BALANCE_EXCEPTION_MESSAGE;
+import static com.assignment.sahaj.banking.utils.Messages.SUCCESS_MESSAGE;
 
 @Service
 public class BankingService {
 
-    private final CustomerRepository customerRepository;
     private final AccountRepository accountRepository;
     private final ValidationService validationService;
-    private final ExceptionMessageUtil exceptionMessageUtil;
-    private final PropertyUtil propertyUtil;
+    private final AccountStore accountStore;
+    private final AccountCache accountCache;
+    private final IdempotencyStore idempotencyStore;
+    private final PostingLimitTracker postingLimitTracker;
+    private final LimitPolicyProvider limitPolicyProvider;
+    private final TransferSagaStore transferSagaStore;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int onboardingBatchSize;
 
     @Autowired
-    public BankingService(CustomerRepository customerRepository,
-                          AccountRepository accountRepository,
+    public BankingService(AccountRepository accountRepository,
                           ValidationService validationService,
-                          ExceptionMessageUtil exceptionMessageUtil,
-                          PropertyUtil propertyUtil) {
-        this.customerRepository = customerRepository;
+                          AccountStore accountStore,
+                          AccountCache accountCache,
+                          IdempotencyStore idempotencyStore,
+                          PostingLimitTracker postingLimitTracker,
+                          LimitPolicyProvider limitPolicyProvider,
+                          TransferSagaStore transferSagaStore,
+                          TransactionTemplate transactionTemplate,
+                          EntityManager entityManager,
+                          @Value("${banking.onboarding.batch-size}") int onboardingBatchSize) {
         this.accountRepository = accountRepository;
         this.validationService = validationService;
-        this.exceptionMessageUtil = exceptionMessageUtil;
-        this.propertyUtil = propertyUtil;
+        this.accountStore = accountStore;
+        this.accountCache = accountCache;
+        this.idempotencyStore = idempotencyStore;
+        this.postingLimitTracker = postingLimitTracker;
+        this.limitPolicyProvider = limitPolicyProvider;
+        this.transferSagaStore = transferSagaStore;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.onboardingBatchSize = onboardingBatchSize;
     }
 
     @Transactional
     public Long createAccount(String name) {
+        return createAccount(name, Account.Tier.RETAIL);
+    }
+
+    @Transactional
+    public Long createAccount(String name, Account.Tier tier) {
 
         validationService.validateName(name);
 
-        return accountRepository.saveAndFlush(Account.builder()
-                .balance(0.0)
-                .dailyCreditCount(0)
-                .dailyDebitCount(0)
-                .lastCreditDate(LocalDate.now())
-                .lastDebitDate(LocalDate.now())
-                .customer(customerRepository
-                        .saveAndFlush(
-                                Customer.builder()
-                                        .name(name)
-                                        .build()))
-                .build()
-        ).getAccountNumber();
+        // the customer is inserted with the account, both ids come from pooled sequences
+        var accountNumber = accountRepository.saveAndFlush(newAccount(name, tier)).getAccountNumber();
+
+        // the number may have been looked up before it was allocated
+        accountCache.clearMissingAfterCommit(accountNumber);
+        return accountNumber;
     }
 
+    public long createAccounts(Stream<String> names) {
+        return createAccounts(names, (name, accountNumber) -> {
+        });
+    }
+
+    /**
+     * Opens an account for every name in {@code names}, reading the stream as it goes. Accounts are inserted in JDBC
+     * batches of {@code banking.onboarding.batch-size}, one transaction per batch, and {@code onCreated} is given
+     * each name with its account number once its batch has committed. A blank name rejects its whole batch; the
+     * batches before it stay committed.
+     */
+    public long createAccounts(Stream<String> names, ObjLongConsumer<String> onCreated) {
+        var batch = new ArrayList<Account>(onboardingBatchSize);
+        var accountNumbers = new ArrayList<Long>(onboardingBatchSize);
+        var created = 0L;
+        var iterator = names.iterator();
+        while (iterator.hasNext()) {
+            batch.clear();
+            while (batch.size() < onboardingBatchSize && iterator.hasNext()) {
+                var name = iterator.next();
+                validationService.validateName(name);
+                batch.add(newAccount(name, Account.Tier.RETAIL));
+            }
+            insert(batch);
+
+            accountNumbers.clear();
+            for (var account : batch) {
+                accountNumbers.add(account.getAccountNumber());
+                onCreated.accept(account.getCustomer().getName(), account.getAccountNumber());
+            }
+            accountCache.clearMissing(accountNumbers);
+            created += batch.size();
+        }
+        return created;
+    }
+
+    @RetryOnLockContention
     @Transactional
-    public String transferFund(Long sourceAccountNumber, Long destinationAccountNumber, Double amount) {
-        withdraw(sourceAccountNumber, amount, true);
-        deposit(destinationAccountNumber, amount, true);
+    public String transferFund(Long sourceAccountNumber, Long destinationAccountNumber, long amount) {
+        accountStore.update(sourceAccountNumber, destinationAccountNumber,
+                (source, destination) -> {
+                    transfer(source, destination, amount);
+                    return null;
+                });
 
-        return "Success";
+        return SUCCESS_MESSAGE;
 
     }
 
+    /**
+     * Applies a batch of transfers in one transaction. All the accounts involved are locked with one query and every
+     * changed account is written once at the end. A rejected instruction is reported in its {@link TransferResult};
+     * when {@code atomic} is set it rolls back the whole batch instead.
+     */
+    @RetryOnLockContention
     @Transactional
-    public Double deposit(Long accountNumber, Double amount) {
-        return deposit(accountNumber, amount, false);
+    public List<TransferResult> transferBatch(List<TransferInstruction> instructions, boolean atomic) {
+        var accountNumbers = new HashSet<Long>();
+        instructions.forEach(instruction -> {
+            accountNumbers.add(instruction.getSourceAccountNumber());
+            accountNumbers.add(instruction.getDestinationAccountNumber());
+        });
+
+        return accountStore.updateAll(accountNumbers, accounts -> {
+            var results = new ArrayList<TransferResult>(instructions.size());
+            for (var instruction : instructions) {
+                var sourceAccountNumber = instruction.getSourceAccountNumber();
+                var destinationAccountNumber = instruction.getDestinationAccountNumber();
+                var amount = instruction.getAmount();
+                try {
+                    transfer(validationService.requireAccount(Optional.ofNullable(accounts.get(sourceAccountNumber)),
+                                    sourceAccountNumber, true),
+                            validationService.requireAccount(
+                                    Optional.ofNullable(accounts.get(destinationAccountNumber)),
+                                    destinationAccountNumber, true),
+                            amount);
+                    results.add(TransferResult.success(instruction));
+                } catch (BankingRejection e) {
+                    if (atomic) {
+                        throw e;
+                    }
+                    results.add(TransferResult.rejected(instruction, e));
+                }
+            }
+            return results;
+        });
     }
 
+    /**
+     * Applies a group of deposits, withdrawals and transfers in one transaction, in the order given, with the same
+     * rules as the single operations. The accounts involved are locked up front in account number order and each
+     * changed account is written once. A rejected command is reported in its {@link CommandResult} and does not
+     * affect the others.
+     */
+    @RetryOnLockContention
     @Transactional
-    public Double withdraw(Long accountNumber, Double amount) {
-        return withdraw(accountNumber, amount, false);
+    public List<CommandResult> applyCommands(List<AccountCommand> commands) {
+        var accountNumbers = new HashSet<Long>();
+        commands.forEach(command -> {
+            accountNumbers.add(command.getAccountNumber());
+            if (command.getDestinationAccountNumber() != null) {
+                accountNumbers.add(command.getDestinationAccountNumber());
+            }
+        });
+
+        return accountStore.updateAll(accountNumbers, accounts -> {
+            var results = new ArrayList<CommandResult>(commands.size());
+            for (var command : commands) {
+                try {
+                    results.add(CommandResult.applied(command, apply(command, accounts)));
+                } catch (BankingRejection e) {
+                    results.add(CommandResult.rejected(command, e));
+                }
+            }
+            return results;
+        });
     }
 
-    private Double withdraw(Long accountNumber, Double amount, boolean isTransfer) {
-
-        final var balance = new AtomicReference<Double>();
+    @RetryOnLockContention
+    @Transactional
+    public long deposit(Long accountNumber, long amount) {
+        return accountStore.update(accountNumber, false, account -> deposit(account, amount));
+    }
 
-        validationService.validateWithdrawAmount(amount, isTransfer, accountNumber);
+    @RetryOnLockContention
+    @Transactional
+    public long withdraw(Long accountNumber, long amount) {
+        return accountStore.update(accountNumber, false, account -> withdraw(account, amount));
+    }
 
-        validationService.ifValidAccountNumber(accountNumber,
-                account -> {
-                    if (account.debit(amount) >= propertyUtil.getMinimumBalanceLimit()) {
-                        if (isWithinDailyDebitLimit(account)) {
-                            balance.set(account.getBalance());
-                            account.incrementDailyDebitCount();
-                            accountRepository.saveAndFlush(account);
+    /**
+     * Deposits and records the outcome under {@code idempotencyKey} in the same transaction. Callers go through
+     * {@link IdempotentBankingService}, which replays earlier outcomes.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public long deposit(Long accountNumber, long amount, IdempotencyKey idempotencyKey) {
+        var balance = deposit(accountNumber, amount);
+        idempotencyStore.persist(idempotencyKey, balance);
+        return balance;
+    }
 
-                        } else {
-                            throw new IllegalArgumentException(
-                                    exceptionMessageUtil.formatExceptionMessage(isTransfer,
-                                            String.format(MAXIMUM_DAILY_DEBIT_LIMIT_EXCEPTION_MESSAGE,
-                                                    propertyUtil.getDailyCreditLimit()),
-                                            accountNumber));
-                        }
-                    } else {
-                        throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(
-                                isTransfer,
-                                "Insufficient Balance", accountNumber));
-                    }
-                },
-                isTransfer);
+    @RetryOnLockContention
+    @Transactional
+    public long withdraw(Long accountNumber, long amount, IdempotencyKey idempotencyKey) {
+        var balance = withdraw(accountNumber, amount);
+        idempotencyStore.persist(idempotencyKey, balance);
+        return balance;
+    }
 
-        return balance.get();
+    @RetryOnLockContention
+    @Transactional
+    public String transferFund(Long sourceAccountNumber, Long destinationAccountNumber, long amount,
+                               IdempotencyKey idempotencyKey) {
+        var result = transferFund(sourceAccountNumber, destinationAccountNumber, amount);
+        idempotencyStore.persist(idempotencyKey, 0L);
+        return result;
+    }
 
+    /**
+     * Debits the source account of a transfer whose destination is held by another shard, with the checks of a
+     * transfer. See {@link com.assignment.sahaj.banking.shard.ShardedBankingService}.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public long debitTransfer(Long sourceAccountNumber, Long destinationAccountNumber, long amount) {
+        return accountStore.update(sourceAccountNumber, true, source -> {
+            var limits = limitPolicyProvider.current().of(source.getTier());
+            validationService.validateWithdrawAmount(limits, amount, true, sourceAccountNumber);
+            ensureCanWithdraw(limits, source, amount, true);
+            return debit(source, amount, JournalEntry.Type.TRANSFER_OUT, destinationAccountNumber);
+        });
     }
 
-    private Double deposit(Long accountNumber, Double amount, boolean isTransfer) {
+    /**
+     * Credits the destination account of a transfer whose source is held by another shard, with the checks of a
+     * transfer.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public long creditTransfer(Long destinationAccountNumber, Long sourceAccountNumber, long amount) {
+        return accountStore.update(destinationAccountNumber, true, destination -> {
+            var limits = limitPolicyProvider.current().of(destination.getTier());
+            validationService.validateDepositAmount(limits, amount, true, destinationAccountNumber);
+            ensureCanDeposit(limits, destination, destination.getBalance() + amount, true);
+            return credit(destination, amount, JournalEntry.Type.TRANSFER_IN, sourceAccountNumber);
+        });
+    }
 
-        final var balance = new AtomicReference<Double>();
-        validationService.validateDepositAmount(amount, isTransfer, accountNumber);
+    /**
+     * Gives back a debit made by {@link #debitTransfer} when the credit could not be made. The money is returned
+     * without any limit check; the debit still counts against the daily debit limit, since it was posted.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public long reverseTransferDebit(Long sourceAccountNumber, Long destinationAccountNumber, long amount) {
+        return accountStore.update(sourceAccountNumber, true,
+                source -> credit(source, amount, JournalEntry.Type.REVERSAL, destinationAccountNumber));
+    }
 
-        validationService.ifValidAccountNumber(accountNumber,
-                account -> {
-                    if (account.credit(amount) <= propertyUtil.getMaximumBalanceLimit()) {
-                        if (isWithinDailyCreditLimit(account)) {
-                            balance.set(account.getBalance());
-                            account.incrementDailyCreditCount();
-                            accountRepository.saveAndFlush(account);
+    /**
+     * Debits the source of a transfer saga and marks the saga debited in the same transaction. See
+     * {@link TransferSagaStore}.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public long debitTransfer(String sagaId) {
+        var saga = transferSagaStore.markDebited(sagaId);
+        return debitTransfer(saga.getSourceAccountNumber(), saga.getDestinationAccountNumber(), saga.getAmount());
+    }
 
-                        } else {
-                            throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(isTransfer,
-                                    String.format(MAXIMUM_DAILY_CREDIT_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getDailyCreditLimit()),
-                                    accountNumber));
-                        }
-                    } else {
-                        throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(isTransfer,
-                                String.format(MAXIMUM_ACCOUNT_BALANCE_EXCEPTION_MESSAGE, account.getAccountNumber(),
-                                        propertyUtil.getMaximumBalanceLimit()), accountNumber));
-                    }
-                },
-                isTransfer
-        );
+    /**
+     * Debits the source of a transfer saga submitted with an idempotency key, and records the outcome under the key in
+     * the same transaction. If the saga is reversed, the outcome is forgotten again.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public long debitTransfer(String sagaId, IdempotencyKey idempotencyKey) {
+        var balance = debitTransfer(sagaId);
+        idempotencyStore.persist(idempotencyKey, 0L);
+        return balance;
+    }
 
-        return balance.get();
+    /**
+     * Credits the destination of a transfer saga and records the credit in the same transaction. A saga that was
+     * credited before is not credited again.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public void creditTransfer(String sagaId, Long destinationAccountNumber, Long sourceAccountNumber, long amount) {
+        if (transferSagaStore.recordCredit(sagaId)) {
+            creditTransfer(destinationAccountNumber, sourceAccountNumber, amount);
+        }
+    }
 
+    /**
+     * Gives back the debit of a transfer saga whose destination will never be credited, unless it was given back
+     * before.
+     */
+    @RetryOnLockContention
+    @Transactional
+    public void reverseTransferDebit(String sagaId) {
+        var saga = transferSagaStore.find(sagaId);
+        if (transferSagaStore.markReversed(sagaId)) {
+            reverseTransferDebit(saga.getSourceAccountNumber(), saga.getDestinationAccountNumber(), saga.getAmount());
+            if (saga.getIdempotencyKey() != null) {
+                idempotencyStore.forget(saga.getIdempotencyKey());
+            }
+        }
     }
 
-    public Double getBalance(Long accountNumber) {
-        var balance = new AtomicReference<Double>();
-        validationService.ifValidAccountNumber(accountNumber,
-                account -> {
-                    balance.set(account.getBalance());
-                },
-                false);
-        return balance.get();
+    /**
+     * Reads the balance in a read-only transaction, which is served by a read replica when replicas are enabled.
+     */
+    @Transactional(readOnly = true)
+    public long getBalance(Long accountNumber) {
+        return accountStore.readBalance(accountNumber);
     }
 
-    private boolean isWithinDailyCreditLimit(Account account) {
-        var now = LocalDate.now();
+    // every check runs before the account is changed, so a rejected operation never leaves a partial update behind;
+    // the posting counters are taken last and given back if the transfer or the transaction fails after all
+    private void ensureCanWithdraw(Limits limits, Account account, long amount, boolean isTransfer) {
+        if (account.getBalance() - amount >= limits.getMinimumBalanceLimit()) {
+            if (!postingLimitTracker.tryAcquire(account.getAccountNumber(), PostingLimitTracker.Direction.DEBIT,
+                    limits.getDailyDebitLimit())) {
+                throw limits.rejection(BankingRejection.Reason.DAILY_DEBIT_LIMIT, isTransfer,
+                        account.getAccountNumber());
+            }
+        } else {
+            throw limits.rejection(BankingRejection.Reason.INSUFFICIENT_BALANCE, isTransfer,
+                    account.getAccountNumber());
+        }
+    }
 
-        if (now.isAfter(account.getLastCreditDate())) {
-            account.resetDailyCreditCount();
-            return true;
+    private void ensureCanDeposit(Limits limits, Account account, long balanceAfterCredit, boolean isTransfer) {
+        if (balanceAfterCredit <= limits.getMaximumBalanceLimit()) {
+            if (!postingLimitTracker.tryAcquire(account.getAccountNumber(), PostingLimitTracker.Direction.CREDIT,
+                    limits.getDailyCreditLimit())) {
+                throw limits.rejection(BankingRejection.Reason.DAILY_CREDIT_LIMIT, isTransfer,
+                        account.getAccountNumber());
+            }
         } else {
-            // if the last credit was performed today
-            return account.getDailyCreditCount() < propertyUtil.getDailyCreditLimit();
+            throw limits.rejection(BankingRejection.Reason.MAXIMUM_BALANCE, isTransfer,
+                    account.getAccountNumber());
         }
     }
 
-    private boolean isWithinDailyDebitLimit(Account account) {
-        var now = LocalDate.now();
+    private long apply(AccountCommand command, Map<Long, Account> accounts) {
+        var accountNumber = command.getAccountNumber();
+        var amount = command.getAmount();
+        return switch (command.getType()) {
+            case DEPOSIT -> deposit(require(accounts, accountNumber, false), amount);
+            case WITHDRAWAL -> withdraw(require(accounts, accountNumber, false), amount);
+            case TRANSFER -> {
+                var source = require(accounts, accountNumber, true);
+                transfer(source, require(accounts, command.getDestinationAccountNumber(), true), amount);
+                yield source.getBalance();
+            }
+        };
+    }
 
-        if (now.isAfter(account.getLastCreditDate())) {
-            account.resetDailyDebitCount();
-            return true;
-        } else {
-            // if the last debit was performed today
-            return account.getDailyDebitCount() < propertyUtil.getDailyDebitLimit();
+    private Account require(Map<Long, Account> accounts, Long accountNumber, boolean isTransfer) {
+        return validationService.requireAccount(Optional.ofNullable(accounts.get(accountNumber)), accountNumber,
+                isTransfer);
+    }
+
+    // the limits depend on the tier of the account, so the amount is only checked once the account is locked
+    private long deposit(Account account, long amount) {
+        var limits = limitPolicyProvider.current().of(account.getTier());
+        validationService.validateDepositAmount(limits, amount, false, account.getAccountNumber());
+        ensureCanDeposit(limits, account, account.getBalance() + amount, false);
+        return credit(account, amount, JournalEntry.Type.DEPOSIT, null);
+    }
+
+    private long withdraw(Account account, long amount) {
+        var limits = limitPolicyProvider.current().of(account.getTier());
+        validationService.validateWithdrawAmount(limits, amount, false, account.getAccountNumber());
+        ensureCanWithdraw(limits, account, amount, false);
+        return debit(account, amount, JournalEntry.Type.WITHDRAWAL, null);
+    }
+
+    private static Account newAccount(String name, Account.Tier tier) {
+        return Account.builder()
+                .tier(tier)
+                .balance(0L)
+                .customer(Customer.builder()
+                        .name(name)
+                        .build())
+                .build();
+    }
+
+    private void insert(List<Account> accounts) {
+        transactionTemplate.executeWithoutResult(status -> {
+            var session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(onboardingBatchSize);
+            try {
+                accounts.forEach(entityManager::persist);
+                entityManager.flush();
+                // the entities are not needed again, so they are not kept in the persistence context
+                entityManager.clear();
+            } finally {
+                session.setJdbcBatchSize(null);
+            }
+        });
+    }
+
+    private void transfer(Account source, Account destination, long amount) {
+        var isSameAccount = source == destination;
+        // both accounts are checked against the same policy, even if it is reloaded in between
+        var policy = limitPolicyProvider.current();
+        var sourceLimits = policy.of(source.getTier());
+        var destinationLimits = policy.of(destination.getTier());
+        validationService.validateWithdrawAmount(sourceLimits, amount, true, source.getAccountNumber());
+        validationService.validateDepositAmount(destinationLimits, amount, true, destination.getAccountNumber());
+        ensureCanWithdraw(sourceLimits, source, amount, true);
+        try {
+            ensureCanDeposit(destinationLimits, destination,
+                    isSameAccount ? destination.getBalance() : destination.getBalance() + amount, true);
+        } catch (BankingRejection e) {
+            postingLimitTracker.release(source.getAccountNumber(), PostingLimitTracker.Direction.DEBIT);
+            throw e;
         }
+        debit(source, amount, JournalEntry.Type.TRANSFER_OUT, destination.getAccountNumber());
+        credit(destination, amount, JournalEntry.Type.TRANSFER_IN, source.getAccountNumber());
+    }
+
+    private long debit(Account account, long amount, JournalEntry.Type type, Long counterpartyAccountNumber) {
+        var balance = account.debit(amount);
+        record(account, type, -amount, counterpartyAccountNumber);
+        return balance;
+    }
+
+    private long credit(Account account, long amount, JournalEntry.Type type, Long counterpartyAccountNumber) {
+        var balance = account.credit(amount);
+        record(account, type, amount, counterpartyAccountNumber);
+        return balance;
+    }
+
+    private void record(Account account, JournalEntry.Type type, long signedAmount, Long counterpartyAccountNumber) {
+        accountStore.record(JournalEntry.builder()
+                .accountNumber(account.getAccountNumber())
+                .type(type)
+                .amount(signedAmount)
+                .balanceAfter(account.getBalance())
+                .counterpartyAccountNumber(counterpartyAccountNumber)
+                .postedAt(LocalDateTime.now())
+                .build());
     }
 
 }
@@ -0,0 +1,134 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.dto.CustomerMatch;
+import com.assignment.sahaj.banking.dto.CustomerPage;
+import com.assignment.sahaj.banking.entity.Customer;
+import com.assignment.sahaj.banking.repository.CustomerRepository;
+import com.assignment.sahaj.banking.search.TypeaheadIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_CURSOR_EXCEPTION_MESSAGE;
+
+/**
+ * Finds customers by a case-insensitive prefix of their name. Results are ordered by name and paginated with a
+ * cursor holding the position of the last match, so every page is one range scan of the name key index however deep
+ * it is. Typeahead suggestions come from the {@link TypeaheadIndex} when it is enabled.
+ */
+@Service
+public class CustomerSearchService {
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final CustomerRepository customerRepository;
+    private final ValidationService validationService;
+    private final ObjectProvider<TypeaheadIndex> typeaheadIndex;
+    private final int defaultPageSize;
+    private final int maximumPageSize;
+
+    @Autowired
+    public CustomerSearchService(CustomerRepository customerRepository,
+                                 ValidationService validationService,
+                                 ObjectProvider<TypeaheadIndex> typeaheadIndex,
+                                 @Value("${banking.search.default-page-size}") int defaultPageSize,
+                                 @Value("${banking.search.max-page-size}") int maximumPageSize) {
+        this.customerRepository = customerRepository;
+        this.validationService = validationService;
+        this.typeaheadIndex = typeaheadIndex;
+        this.defaultPageSize = defaultPageSize;
+        this.maximumPageSize = maximumPageSize;
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerPage search(String namePrefix, String cursor, Integer limit) {
+        validationService.validateName(namePrefix);
+        var size = pageSize(limit);
+        var afterKey = "";
+        var afterId = 0L;
+        if (cursor != null) {
+            var position = decodeCursor(cursor);
+            afterId = Long.parseLong(position[0]);
+            afterKey = position[1];
+        }
+
+        // one more than asked for tells whether there is a next page
+        var matches = customerRepository.findByNamePrefix(likePattern(Customer.nameKeyOf(namePrefix)),
+                afterKey, afterId, PageRequest.ofSize(size + 1));
+        if (matches.size() <= size) {
+            return new CustomerPage(matches, null);
+        }
+        var page = matches.subList(0, size);
+        var last = page.get(size - 1);
+        return new CustomerPage(new ArrayList<>(page), cursorAfter(last));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerMatch> suggest(String namePrefix, Integer limit) {
+        var index = typeaheadIndex.getIfAvailable();
+        if (index == null) {
+            return search(namePrefix, null, limit).getMatches();
+        }
+        validationService.validateName(namePrefix);
+
+        var accountNumbers = index.find(Customer.nameKeyOf(namePrefix), pageSize(limit));
+        var byAccountNumber = new HashMap<Long, CustomerMatch>();
+        var numbers = new ArrayList<Long>(accountNumbers.length);
+        for (var accountNumber : accountNumbers) {
+            numbers.add(accountNumber);
+        }
+        customerRepository.findByAccountNumbers(numbers)
+                .forEach(match -> byAccountNumber.put(match.getAccountNumber(), match));
+
+        var suggestions = new ArrayList<CustomerMatch>(accountNumbers.length);
+        for (var accountNumber : accountNumbers) {
+            var match = byAccountNumber.get(accountNumber);
+            if (match != null) {
+                suggestions.add(match);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Returns the number of matches a page holds when {@code limit} are asked for.
+     */
+    public int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maximumPageSize));
+    }
+
+    private static String likePattern(String keyPrefix) {
+        return keyPrefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    /**
+     * Returns the cursor of the page that starts after the match.
+     */
+    public static String cursorAfter(CustomerMatch match) {
+        return CURSOR_ENCODER.encodeToString((match.getCustomerId() + ":" + Customer.nameKeyOf(match.getName()))
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            var position = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            Long.parseLong(position[0]);
+            if (position.length == 2) {
+                return position;
+            }
+        } catch (IllegalArgumentException e) {
+            // not a cursor this service produced
+        }
+        throw new IllegalArgumentException(INVALID_CURSOR_EXCEPTION_MESSAGE);
+    }
+}
@@ -0,0 +1,46 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.idempotency.IdempotencyKey;
+import com.assignment.sahaj.banking.idempotency.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import static com.assignment.sahaj.banking.utils.Messages.SUCCESS_MESSAGE;
+
+/**
+ * The money operations of {@link BankingService} for callers that may retry them. A repeated idempotency key returns
+ * the outcome of the first request without reading any account; see {@link IdempotencyStore}.
+ */
+@Service
+public class IdempotentBankingService {
+
+    private final BankingService bankingService;
+    private final IdempotencyStore idempotencyStore;
+
+    @Autowired
+    public IdempotentBankingService(BankingService bankingService, IdempotencyStore idempotencyStore) {
+        this.bankingService = bankingService;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    public long deposit(String idempotencyKey, Long accountNumber, long amount) {
+        var key = IdempotencyKey.of(idempotencyKey, "deposit", accountNumber, null, amount);
+        return idempotencyStore.execute(key, () -> bankingService.deposit(accountNumber, amount, key));
+    }
+
+    public long withdraw(String idempotencyKey, Long accountNumber, long amount) {
+        var key = IdempotencyKey.of(idempotencyKey, "withdraw", accountNumber, null, amount);
+        return idempotencyStore.execute(key, () -> bankingService.withdraw(accountNumber, amount, key));
+    }
+
+    public String transferFund(String idempotencyKey, Long sourceAccountNumber, Long destinationAccountNumber,
+                               long amount) {
+        var key = IdempotencyKey.of(idempotencyKey, "transferFund", sourceAccountNumber, destinationAccountNumber,
+                amount);
+        idempotencyStore.execute(key, () -> {
+            bankingService.transferFund(sourceAccountNumber, destinationAccountNumber, amount, key);
+            return 0L;
+        });
+        return SUCCESS_MESSAGE;
+    }
+}
@@ -0,0 +1,78 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.entity.BalanceSnapshot;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.repository.BalanceSnapshotRepository;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rebuilds balances from the journal. A balance is the latest {@link BalanceSnapshot} of the account plus the
+ * journal entries written after it; snapshots are refreshed periodically for the accounts that had postings.
+ */
+@Slf4j
+@Service
+public class JournalService {
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // entries up to this id have been considered by a previous snapshot run
+    private long snapshotWatermark;
+
+    @Autowired
+    public JournalService(JournalEntryRepository journalEntryRepository,
+                          BalanceSnapshotRepository balanceSnapshotRepository,
+                          AccountRepository accountRepository,
+                          TransactionTemplate transactionTemplate) {
+        this.journalEntryRepository = journalEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public long reconstructBalance(Long accountNumber) {
+        var snapshot = balanceSnapshotRepository.findById(accountNumber);
+        var afterId = snapshot.map(BalanceSnapshot::getLastEntryId).orElse(0L);
+        return snapshot.map(BalanceSnapshot::getBalance).orElse(0L)
+                + journalEntryRepository.sumAmounts(accountNumber, afterId, Long.MAX_VALUE);
+    }
+
+    public BalanceSnapshot snapshot(Long accountNumber) {
+        return transactionTemplate.execute(status -> {
+            // holding the row lock guarantees that no posting for this account is still uncommitted
+            accountRepository.findByIdForUpdate(accountNumber);
+            var previous = balanceSnapshotRepository.findById(accountNumber);
+            var afterId = previous.map(BalanceSnapshot::getLastEntryId).orElse(0L);
+            var lastEntryId = journalEntryRepository.findLastId(accountNumber);
+            if (previous.isPresent() && lastEntryId == afterId) {
+                return previous.get();
+            }
+            return balanceSnapshotRepository.save(BalanceSnapshot.builder()
+                    .accountNumber(accountNumber)
+                    .balance(previous.map(BalanceSnapshot::getBalance).orElse(0L)
+                            + journalEntryRepository.sumAmounts(accountNumber, afterId, lastEntryId))
+                    .lastEntryId(lastEntryId)
+                    .takenAt(LocalDateTime.now())
+                    .build());
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${banking.journal.snapshot-interval-ms}",
+            initialDelayString = "${banking.journal.snapshot-interval-ms}")
+    public synchronized void snapshotChangedAccounts() {
+        var upToId = journalEntryRepository.findLastId();
+        var accountNumbers = journalEntryRepository.findAccountNumbersWithEntries(snapshotWatermark, upToId);
+        accountNumbers.forEach(this::snapshot);
+        snapshotWatermark = upToId;
+        log.debug("Refreshed {} balance snapshots up to journal entry {}", accountNumbers.size(), upToId);
+    }
+}
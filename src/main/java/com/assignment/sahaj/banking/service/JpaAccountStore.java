@@ -0,0 +1,165 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.cache.AccountCache;
+import com.assignment.sahaj.banking.dto.AccountBalance;
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.metrics.LockContentionMetrics;
+import com.assignment.sahaj.banking.replica.ReplicaRoutingDataSource;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "jpa", matchIfMissing = true)
+public class JpaAccountStore implements AccountStore {
+
+    private static final int LOCK_CHUNK_SIZE = 1000;
+
+    private final AccountRepository accountRepository;
+    private final ValidationService validationService;
+    private final LockContentionMetrics lockContentionMetrics;
+    private final JournalEntryRepository journalEntryRepository;
+    private final AccountCache accountCache;
+
+    @Autowired
+    public JpaAccountStore(AccountRepository accountRepository,
+                           ValidationService validationService,
+                           LockContentionMetrics lockContentionMetrics,
+                           JournalEntryRepository journalEntryRepository,
+                           AccountCache accountCache) {
+        this.accountRepository = accountRepository;
+        this.validationService = validationService;
+        this.lockContentionMetrics = lockContentionMetrics;
+        this.journalEntryRepository = journalEntryRepository;
+        this.accountCache = accountCache;
+    }
+
+    @Override
+    public long readBalance(Long accountNumber) {
+        var cached = accountCache.getBalance(accountNumber);
+        if (cached != null) {
+            return cached.getBalance();
+        }
+        // only the balance is read, not the account entity
+        var balance = accountCache.isMissing(accountNumber)
+                ? Optional.<AccountBalance>empty()
+                : accountRepository.findBalanceById(accountNumber);
+        // a replica can be behind the primary, so what it returns is not cached, and an account it does not hold
+        // may only have been opened since
+        var fromReplica = ReplicaRoutingDataSource.isReadFromReplica();
+        if (balance.isEmpty()) {
+            if (!fromReplica) {
+                accountCache.markMissing(accountNumber);
+            }
+            throw validationService.rejection(BankingRejection.Reason.INVALID_ACCOUNT, false, accountNumber);
+        }
+        if (!fromReplica) {
+            accountCache.putBalance(accountNumber, balance.get().getBalance(), balance.get().getVersion());
+        }
+        return balance.get().getBalance();
+    }
+
+    @Override
+    public long update(Long accountNumber, boolean isTransfer, ToLongFunction<Account> mutation) {
+        var account = lock(accountNumber, isTransfer);
+        var result = mutation.applyAsLong(account);
+        accountRepository.saveAndFlush(account);
+        cacheAfterCommit(account);
+        return result;
+    }
+
+    @Override
+    public <T> T update(Long sourceAccountNumber, Long destinationAccountNumber,
+                        BiFunction<Account, Account, T> mutation) {
+        Account source;
+        Account destination;
+        // row locks are always taken in account number order so that opposite transfers cannot deadlock
+        if (sourceAccountNumber.equals(destinationAccountNumber)) {
+            source = lock(sourceAccountNumber, true);
+            destination = source;
+        } else if (sourceAccountNumber < destinationAccountNumber) {
+            source = lock(sourceAccountNumber, true);
+            destination = lock(destinationAccountNumber, true);
+        } else {
+            destination = lock(destinationAccountNumber, true);
+            source = lock(sourceAccountNumber, true);
+        }
+        var result = mutation.apply(source, destination);
+        accountRepository.saveAndFlush(source);
+        accountRepository.saveAndFlush(destination);
+        cacheAfterCommit(source);
+        cacheAfterCommit(destination);
+        return result;
+    }
+
+    @Override
+    public <T> T updateAll(Collection<Long> accountNumbers, Function<Map<Long, Account>, T> mutation) {
+        var accounts = new HashMap<Long, Account>();
+        // chunks are locked in ascending account number order, like the two accounts of a single transfer
+        var chunk = new ArrayList<Long>(LOCK_CHUNK_SIZE);
+        for (var accountNumber : new TreeSet<>(accountNumbers)) {
+            chunk.add(accountNumber);
+            if (chunk.size() == LOCK_CHUNK_SIZE) {
+                lockAll(chunk, accounts);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            lockAll(chunk, accounts);
+        }
+        var result = mutation.apply(accounts);
+        // the changed accounts are written once each, as JDBC batches, instead of one flush per change
+        accountRepository.flush();
+        accounts.values().forEach(this::cacheAfterCommit);
+        return result;
+    }
+
+    @Override
+    public void record(JournalEntry entry) {
+        journalEntryRepository.save(entry);
+    }
+
+    private void lockAll(List<Long> accountNumbers, Map<Long, Account> accounts) {
+        var start = System.nanoTime();
+        var locked = accountRepository.findAllByIdForUpdate(accountNumbers);
+        lockContentionMetrics.recordLockWait(System.nanoTime() - start);
+        locked.forEach(account -> accounts.put(account.getAccountNumber(), account));
+    }
+
+    private Account lock(Long accountNumber, boolean isTransfer) {
+        return require(accountNumber, isTransfer, () -> {
+            var start = System.nanoTime();
+            var account = accountRepository.findByIdForUpdate(accountNumber);
+            lockContentionMetrics.recordLockWait(System.nanoTime() - start);
+            return account;
+        });
+    }
+
+    private Account require(Long accountNumber, boolean isTransfer, Supplier<Optional<Account>> lookup) {
+        var account = accountCache.isMissing(accountNumber) ? Optional.<Account>empty() : lookup.get();
+        if (account.isEmpty()) {
+            accountCache.markMissing(accountNumber);
+        }
+        return validationService.requireAccount(account, accountNumber, isTransfer);
+    }
+
+    private void cacheAfterCommit(Account account) {
+        accountCache.putBalanceAfterCommit(account.getAccountNumber(), account.getBalance(), account.getVersion());
+    }
+}
@@ -0,0 +1,33 @@
+package com.assignment.sahaj.banking.service;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.annotation.RetryConfiguration;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * Orders the retry advice of {@link RetryOnLockContention} outside the transaction advice. Both default to the
+ * lowest precedence, which leaves their order to chance, and a retry inside the transaction would run every attempt
+ * in the transaction that the failed attempt left rollback-only, still holding its locks.
+ */
+@Configuration
+@EnableRetry
+@EnableTransactionManagement(order = LockRetryConfiguration.TRANSACTION_ORDER)
+public class LockRetryConfiguration {
+
+    static final int TRANSACTION_ORDER = Ordered.LOWEST_PRECEDENCE;
+    static final int RETRY_ORDER = TRANSACTION_ORDER - 1;
+
+    // @EnableRetry has no order attribute, so the order is set on the advisor it registers before it is created
+    @Bean
+    public static BeanFactoryPostProcessor retryAdvisorOrder() {
+        return beanFactory -> {
+            for (var name : beanFactory.getBeanNamesForType(RetryConfiguration.class, true, false)) {
+                beanFactory.getBeanDefinition(name).getPropertyValues().add("order", RETRY_ORDER);
+            }
+        };
+    }
+}
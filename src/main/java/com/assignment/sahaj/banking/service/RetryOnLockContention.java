@@ -0,0 +1,31 @@
+package com.assignment.sahaj.banking.service;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a method that failed on a lock timeout, deadlock or optimistic lock conflict, up to
+ * {@code banking.lock.retry.max-attempts} times with a randomised exponential backoff, and records the retries with
+ * {@link com.assignment.sahaj.banking.metrics.LockContentionMetrics}.
+ * <p>
+ * The retry advice is ordered outside the transaction advice by {@link LockRetryConfiguration}, so every attempt of
+ * a {@code @Transactional} method runs in a new transaction.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(value = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${banking.lock.retry.max-attempts}",
+        backoff = @Backoff(delayExpression = "${banking.lock.retry.initial-backoff-ms}",
+                maxDelayExpression = "${banking.lock.retry.max-backoff-ms}",
+                multiplier = 2, random = true),
+        listeners = "lockContentionListener")
+public @interface RetryOnLockContention {
+}
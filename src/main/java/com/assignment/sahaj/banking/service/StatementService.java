@@ -0,0 +1,133 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.dto.StatementLine;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import com.assignment.sahaj.banking.utils.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_DATE_RANGE_EXCEPTION_MESSAGE;
+
+/**
+ * Writes the journal entries of an account within a date range as a statement, oldest first. The entries are read
+ * from a forward-only cursor and written to the output as they arrive, so a statement of any length is exported in
+ * constant memory. The read-only transaction only lasts for the export itself.
+ */
+@Service
+public class StatementService {
+
+    public enum Format {
+        CSV,
+        JSON
+    }
+
+    private static final String CSV_HEADER =
+            "id,posted_at,type,amount,balance_after,counterparty_account_number";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final AccountRepository accountRepository;
+    private final ValidationService validationService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public StatementService(JournalEntryRepository journalEntryRepository,
+                            AccountRepository accountRepository,
+                            ValidationService validationService,
+                            ObjectMapper objectMapper) {
+        this.journalEntryRepository = journalEntryRepository;
+        this.accountRepository = accountRepository;
+        this.validationService = validationService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Checks a statement request before any of it is written, so a bad request can still be answered with an error.
+     */
+    public void validate(Long accountNumber, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException(INVALID_DATE_RANGE_EXCEPTION_MESSAGE);
+        }
+        if (!accountRepository.existsById(accountNumber)) {
+            throw validationService.rejection(BankingRejection.Reason.INVALID_ACCOUNT, false, accountNumber);
+        }
+    }
+
+    /**
+     * Writes the entries posted from the start of {@code from} to the end of {@code to} and returns how many there
+     * were. The output stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public long export(Long accountNumber, LocalDate from, LocalDate to, Format format, OutputStream outputStream)
+            throws IOException {
+        try (var lines = journalEntryRepository.streamStatement(accountNumber, from.atStartOfDay(),
+                to.plusDays(1).atStartOfDay())) {
+            var iterator = lines.iterator();
+            var count = 0L;
+            if (format == Format.CSV) {
+                var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                        BUFFER_SIZE);
+                writer.write(CSV_HEADER);
+                writer.newLine();
+                while (iterator.hasNext()) {
+                    writeCsv(writer, iterator.next());
+                    count++;
+                }
+                writer.flush();
+            } else {
+                try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartArray();
+                    while (iterator.hasNext()) {
+                        writeJson(generator, iterator.next());
+                        count++;
+                    }
+                    generator.writeEndArray();
+                }
+            }
+            return count;
+        }
+    }
+
+    private static void writeCsv(BufferedWriter writer, StatementLine line) throws IOException {
+        writer.write(String.valueOf(line.getId()));
+        writer.write(',');
+        writer.write(line.getPostedAt().toString());
+        writer.write(',');
+        writer.write(line.getType().name());
+        writer.write(',');
+        writer.write(Money.format(line.getAmount()));
+        writer.write(',');
+        writer.write(Money.format(line.getBalanceAfter()));
+        writer.write(',');
+        if (line.getCounterpartyAccountNumber() != null) {
+            writer.write(String.valueOf(line.getCounterpartyAccountNumber()));
+        }
+        writer.newLine();
+    }
+
+    private static void writeJson(JsonGenerator generator, StatementLine line) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", line.getId());
+        generator.writeStringField("postedAt", line.getPostedAt().toString());
+        generator.writeStringField("type", line.getType().name());
+        generator.writeNumberField("amount", Money.toDecimal(line.getAmount()));
+        generator.writeNumberField("balanceAfter", Money.toDecimal(line.getBalanceAfter()));
+        if (line.getCounterpartyAccountNumber() != null) {
+            generator.writeNumberField("counterpartyAccountNumber", line.getCounterpartyAccountNumber());
+        }
+        generator.writeEndObject();
+    }
+}
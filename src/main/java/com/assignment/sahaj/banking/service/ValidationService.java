@@ -1,82 +1,69 @@
 package com.assignment.sahaj.banking.service;
 
 import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.limit.Limits;
 import com.assignment.sahaj.banking.repository.AccountRepository;
-import com.assignment.sahaj.banking.utils.ExceptionMessageUtil;
-import com.assignment.sahaj.banking.utils.PropertyUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
 import java.util.function.Consumer;
 
-import static com.assignment.sahaj.banking.utils.Messages.INVALID_ACCOUNT_EXCEPTION_MESSAGE;
-import static com.assignment.sahaj.banking.utils.Messages.INVALID_NAME_EXCEPTION_MESSAGE;
-import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE;
-import static com.assignment.sahaj.banking.utils.Messages.MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE;
-import static com.assignment.sahaj.banking.utils.Messages.MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE;
-import static com.assignment.sahaj.banking.utils.Messages.MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE;
-
 @Service
 public class ValidationService {
 
-    private final ExceptionMessageUtil exceptionMessageUtil;
     private final AccountRepository accountRepository;
-    private final PropertyUtil propertyUtil;
+    private final LimitPolicyProvider limitPolicyProvider;
 
     @Autowired
-    public ValidationService(ExceptionMessageUtil exceptionMessageUtil,
-                             AccountRepository accountRepository,
-                             PropertyUtil propertyUtil) {
-        this.exceptionMessageUtil = exceptionMessageUtil;
+    public ValidationService(AccountRepository accountRepository,
+                             LimitPolicyProvider limitPolicyProvider) {
         this.accountRepository = accountRepository;
-        this.propertyUtil = propertyUtil;
+        this.limitPolicyProvider = limitPolicyProvider;
     }
 
     public void validateName(String name) {
         if (StringUtils.isBlank(name)) {
-            throw new IllegalArgumentException(INVALID_NAME_EXCEPTION_MESSAGE);
+            throw rejection(BankingRejection.Reason.INVALID_NAME, false, null);
         }
     }
 
-    public void validateWithdrawAmount(Double amount, boolean isTransfer, Long accountNumber) {
-        if (amount < propertyUtil.getMinimumWithdrawalLimit()) {
-            throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(
-                    isTransfer,
-                    String.format(MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMinimumWithdrawalLimit()),
-                    accountNumber));
+    public void validateWithdrawAmount(Limits limits, long amount, boolean isTransfer, Long accountNumber) {
+        if (amount < limits.getMinimumWithdrawalLimit()) {
+            throw limits.rejection(BankingRejection.Reason.MINIMUM_WITHDRAWAL, isTransfer, accountNumber);
         }
 
-        if (amount > propertyUtil.getMaximumWithdrawalLimit()) {
-            throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(
-                    isTransfer,
-                    String.format(MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMaximumWithdrawalLimit()),
-                    accountNumber));
+        if (amount > limits.getMaximumWithdrawalLimit()) {
+            throw limits.rejection(BankingRejection.Reason.MAXIMUM_WITHDRAWAL, isTransfer, accountNumber);
         }
     }
 
-    public void validateDepositAmount(Double amount, boolean isTransfer, Long accountNumber) {
-        if (amount < propertyUtil.getMinimumDepositLimit()) {
-            throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(
-                    isTransfer,
-                    String.format(MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMinimumDepositLimit()),
-                    accountNumber));
+    public void validateDepositAmount(Limits limits, long amount, boolean isTransfer, Long accountNumber) {
+        if (amount < limits.getMinimumDepositLimit()) {
+            throw limits.rejection(BankingRejection.Reason.MINIMUM_DEPOSIT, isTransfer, accountNumber);
         }
 
-        if (amount > propertyUtil.getMaximumDepositLimit()) {
-            throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(
-                    isTransfer,
-                    String.format(MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMaximumDepositLimit()),
-                    accountNumber));
+        if (amount > limits.getMaximumDepositLimit()) {
+            throw limits.rejection(BankingRejection.Reason.MAXIMUM_DEPOSIT, isTransfer, accountNumber);
         }
 
     }
 
     public void ifValidAccountNumber(Long accountNumber, Consumer<Account> consumer, boolean isTransfer) {
-        accountRepository.findById(accountNumber)
-                .ifPresentOrElse((t) -> consumer.accept(t), () -> {
-                    throw new IllegalArgumentException(exceptionMessageUtil.formatExceptionMessage(isTransfer,
-                            INVALID_ACCOUNT_EXCEPTION_MESSAGE, accountNumber));
-                });
+        consumer.accept(requireAccount(accountRepository.findById(accountNumber), accountNumber, isTransfer));
+    }
+
+    public Account requireAccount(Optional<Account> account, Long accountNumber, boolean isTransfer) {
+        if (account.isEmpty()) {
+            throw rejection(BankingRejection.Reason.INVALID_ACCOUNT, isTransfer, accountNumber);
+        }
+        return account.get();
+    }
+
+    public BankingRejection rejection(BankingRejection.Reason reason, boolean isTransfer, Long accountNumber) {
+        return limitPolicyProvider.current().getDefaults().rejection(reason, isTransfer, accountNumber);
     }
 }
@@ -0,0 +1,70 @@
+package com.assignment.sahaj.banking.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps account numbers to shards. Every shard is placed on a ring of 64-bit hashes at {@code virtualNodes} points
+ * derived from its name, and an account belongs to the shard of the first point at or after the hash of its number.
+ * Since the points of a shard only depend on its name, adding a shard only moves the accounts that now fall just before
+ * one of its points, about one in {@code shards.size()} of them, and all of them move to the new shard. Moving them is
+ * not automated, so {@link ShardedBankingService} keeps the ring of a deployment fixed.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> shards;
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one shard and one virtual node per shard");
+        }
+        this.shards = List.copyOf(shards);
+        var nodes = new long[shards.size() * virtualNodes][];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            var seed = fnv1a(shards.get(shard));
+            for (int node = 0; node < virtualNodes; node++) {
+                nodes[shard * virtualNodes + node] = new long[]{mix(seed + node * 0x9E3779B97F4A7C15L), shard};
+            }
+        }
+        Arrays.sort(nodes, (left, right) -> Long.compare(left[0], right[0]));
+        this.points = new long[nodes.length];
+        this.owners = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            points[i] = nodes[i][0];
+            owners[i] = (int) nodes[i][1];
+        }
+    }
+
+    /**
+     * Returns the index in {@link #getShards()} of the shard that holds the account.
+     */
+    public int shardOf(long accountNumber) {
+        var index = Arrays.binarySearch(points, mix(accountNumber));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    // the finaliser of SplitMix64, so consecutive account numbers are spread over the whole ring
+    private static long mix(long value) {
+        var mixed = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    private static long fnv1a(String name) {
+        var hash = 0xCBF29CE484222325L;
+        for (var b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,48 @@
+package com.assignment.sahaj.banking.shard;
+
+import com.assignment.sahaj.banking.idempotency.IdempotencyStore;
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.service.CustomerSearchService;
+import com.assignment.sahaj.banking.service.IdempotentBankingService;
+import com.assignment.sahaj.banking.service.StatementService;
+import lombok.Getter;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * One shard started by {@link ShardedBankingService}: an application context of its own, with its own datasource,
+ * running the banking services against the accounts the {@link ConsistentHashRing} maps to it.
+ */
+@Getter
+public class Shard implements AutoCloseable {
+
+    private final String name;
+    private final BankingService bankingService;
+    private final IdempotentBankingService idempotentBankingService;
+    private final IdempotencyStore idempotencyStore;
+    private final StatementService statementService;
+    private final CustomerSearchService customerSearchService;
+    private final AccountRepository accountRepository;
+    private final LimitPolicyProvider limitPolicyProvider;
+    private final TransferSagaStore transferSagaStore;
+    private final ConfigurableApplicationContext context;
+
+    Shard(String name, ConfigurableApplicationContext context) {
+        this.name = name;
+        this.context = context;
+        this.bankingService = context.getBean(BankingService.class);
+        this.idempotentBankingService = context.getBean(IdempotentBankingService.class);
+        this.idempotencyStore = context.getBean(IdempotencyStore.class);
+        this.statementService = context.getBean(StatementService.class);
+        this.customerSearchService = context.getBean(CustomerSearchService.class);
+        this.accountRepository = context.getBean(AccountRepository.class);
+        this.limitPolicyProvider = context.getBean(LimitPolicyProvider.class);
+        this.transferSagaStore = context.getBean(TransferSagaStore.class);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,54 @@
+package com.assignment.sahaj.banking.shard;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Generates account numbers from {@code account_number_seq} like a plain sequence generator. Inside a shard, started
+ * by {@link ShardedBankingService}, numbers that the {@link ConsistentHashRing} maps to another shard are skipped, so
+ * every account is created on the shard it is routed to. Every shard skips the numbers of the others, so no number is
+ * taken twice even though each shard has its own sequence. That only holds while every shard is started in the same
+ * ring as when its accounts were created, which {@link ShardMembershipStore} checks.
+ * <p>
+ * The shard is read from the Hibernate settings {@value #SHARD_SETTING}, {@value #SHARDS_SETTING} and
+ * {@value #VIRTUAL_NODES_SETTING}; without them every number is taken.
+ */
+public class ShardAwareSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String SHARD_SETTING = "banking.sharding.shard";
+    public static final String SHARDS_SETTING = "banking.sharding.shards";
+    public static final String VIRTUAL_NODES_SETTING = "banking.sharding.virtual-nodes";
+
+    private ConsistentHashRing ring;
+    private int shard;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        super.configure(type, params, serviceRegistry);
+        var settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        var shardName = (String) settings.get(SHARD_SETTING);
+        if (shardName != null) {
+            var shards = Arrays.asList(((String) settings.get(SHARDS_SETTING)).split(","));
+            ring = new ConsistentHashRing(shards,
+                    Integer.parseInt((String) settings.get(VIRTUAL_NODES_SETTING)));
+            shard = shards.indexOf(shardName);
+        }
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        while (true) {
+            var accountNumber = super.generate(session, object);
+            if (ring == null || ring.shardOf(((Number) accountNumber).longValue()) == shard) {
+                return accountNumber;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.assignment.sahaj.banking.shard;
+
+import com.assignment.sahaj.banking.entity.ShardMembership;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * Ties the database of a shard to the ring it was first started in. The ring decides both where an account is routed
+ * and which account numbers the {@link ShardAwareSequenceGenerator} of each shard hands out, so a shard whose
+ * accounts were created in one ring must never be started in another: its accounts would be looked up on other
+ * shards, and the shards would hand out numbers already taken elsewhere.
+ */
+@Component
+public class ShardMembershipStore {
+
+    private static final int MEMBERSHIP_ID = 1;
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ShardMembershipStore(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Records the ring on the first start of the shard, and afterwards checks that it is started in the same ring.
+     *
+     * @throws IllegalStateException if the shard was started in a different ring before
+     */
+    @Transactional
+    public void claim(String shardName, List<String> shards, int virtualNodes) {
+        var ring = String.join(",", shards);
+        var membership = entityManager.find(ShardMembership.class, MEMBERSHIP_ID);
+        if (membership == null) {
+            entityManager.persist(new ShardMembership(MEMBERSHIP_ID, shardName, ring, virtualNodes));
+        } else if (!membership.getShardName().equals(shardName) || !membership.getShards().equals(ring)
+                || membership.getVirtualNodes() != virtualNodes) {
+            throw new IllegalStateException(String.format("The database of shard %s belongs to shard %s of the ring "
+                            + "%s with %d virtual nodes, it cannot be started as shard %s of the ring %s with %d "
+                            + "virtual nodes", shardName, membership.getShardName(), membership.getShards(),
+                    membership.getVirtualNodes(), shardName, ring, virtualNodes));
+        }
+    }
+}
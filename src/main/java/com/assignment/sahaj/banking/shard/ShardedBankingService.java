@@ -0,0 +1,278 @@
+package com.assignment.sahaj.banking.shard;
+
+import com.assignment.sahaj.banking.BankingApplication;
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.entity.TransferSaga;
+import com.assignment.sahaj.banking.entity.TransferSagaCredit;
+import com.assignment.sahaj.banking.idempotency.IdempotencyKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.assignment.sahaj.banking.shard.ShardAwareSequenceGenerator.SHARDS_SETTING;
+import static com.assignment.sahaj.banking.shard.ShardAwareSequenceGenerator.SHARD_SETTING;
+import static com.assignment.sahaj.banking.shard.ShardAwareSequenceGenerator.VIRTUAL_NODES_SETTING;
+import static com.assignment.sahaj.banking.utils.Messages.SUCCESS_MESSAGE;
+
+/**
+ * Spreads accounts over the shards named in {@code banking.sharding.shards} and routes every operation to the shard
+ * that holds its account, found with a {@link ConsistentHashRing} over the account number. Each shard is started as
+ * an application context of its own, with the same configuration except for its datasource, whose URL is
+ * {@code banking.sharding.url-pattern} with the shard name filled in.
+ * <p>
+ * New accounts are opened on the shards in turn; the account number generator of a shard only hands out numbers that
+ * the ring maps back to it. The shard list and the number of virtual nodes are therefore fixed once a shard holds
+ * accounts: every shard records the ring it was first started in and refuses to start in another, see
+ * {@link ShardMembershipStore}.
+ * <p>
+ * A transfer between accounts on the same shard is a local transaction. Across shards it is a saga, recorded by the
+ * {@link TransferSagaStore} of both shards: the source is debited in one transaction and the destination credited in
+ * another. If the credit is rejected or its outcome is unknown, the shard of the destination is asked to cancel it;
+ * unless it was credited after all, the debit is reversed and the error is passed on to the caller. Sagas left
+ * unfinished by a failure are finished or reversed when the application starts and by {@link #recoverSagas()}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "banking.sharding.enabled", havingValue = "true")
+public class ShardedBankingService {
+
+    private final ConfigurableEnvironment environment;
+    private final List<String> shardNames;
+    private final int virtualNodes;
+    private final String urlPattern;
+    private final Duration sagaRecoveryDelay;
+    private final ConsistentHashRing ring;
+    private final List<Shard> shards = new ArrayList<>();
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    @Autowired
+    public ShardedBankingService(ConfigurableEnvironment environment,
+                                 @Value("${banking.sharding.shards}") List<String> shardNames,
+                                 @Value("${banking.sharding.virtual-nodes}") int virtualNodes,
+                                 @Value("${banking.sharding.url-pattern}") String urlPattern,
+                                 @Value("${banking.sharding.saga-recovery-ms}") long sagaRecoveryMillis) {
+        this.environment = environment;
+        this.shardNames = shardNames;
+        this.virtualNodes = virtualNodes;
+        this.urlPattern = urlPattern;
+        this.sagaRecoveryDelay = Duration.ofMillis(sagaRecoveryMillis);
+        this.ring = new ConsistentHashRing(shardNames, virtualNodes);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            for (var name : shardNames) {
+                var shard = new Shard(name, startShard(name));
+                shards.add(shard);
+                shard.getContext().getBean(ShardMembershipStore.class).claim(name, shardNames, virtualNodes);
+                log.info("Started shard {}", name);
+            }
+            // every saga that is not finished was left behind by an earlier run
+            recoverSagas(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            stop();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        shards.forEach(Shard::close);
+    }
+
+    public Shard shardOf(Long accountNumber) {
+        return shards.get(ring.shardOf(accountNumber));
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public Long createAccount(String name) {
+        return createAccount(name, Account.Tier.RETAIL);
+    }
+
+    public Long createAccount(String name, Account.Tier tier) {
+        var shard = shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size()));
+        return shard.getBankingService().createAccount(name, tier);
+    }
+
+    public long deposit(Long accountNumber, long amount) {
+        return shardOf(accountNumber).getBankingService().deposit(accountNumber, amount);
+    }
+
+    public long withdraw(Long accountNumber, long amount) {
+        return shardOf(accountNumber).getBankingService().withdraw(accountNumber, amount);
+    }
+
+    public long getBalance(Long accountNumber) {
+        return shardOf(accountNumber).getBankingService().getBalance(accountNumber);
+    }
+
+    public String transferFund(Long sourceAccountNumber, Long destinationAccountNumber, long amount) {
+        var source = shardOf(sourceAccountNumber);
+        var destination = shardOf(destinationAccountNumber);
+        if (source == destination) {
+            return source.getBankingService().transferFund(sourceAccountNumber, destinationAccountNumber, amount);
+        }
+        transfer(source, destination, sourceAccountNumber, destinationAccountNumber, amount, null);
+        return SUCCESS_MESSAGE;
+    }
+
+    /**
+     * Transfers at most once per idempotency key. The key is kept by the shard of the source account; across shards it
+     * is recorded in the transaction of the debit, and forgotten in the transaction that reverses it.
+     */
+    public String transferFund(String idempotencyKey, Long sourceAccountNumber, Long destinationAccountNumber,
+                               long amount) {
+        var source = shardOf(sourceAccountNumber);
+        var destination = shardOf(destinationAccountNumber);
+        if (source == destination) {
+            return source.getIdempotentBankingService().transferFund(idempotencyKey, sourceAccountNumber,
+                    destinationAccountNumber, amount);
+        }
+        var key = IdempotencyKey.of(idempotencyKey, "transferFund", sourceAccountNumber, destinationAccountNumber,
+                amount);
+        source.getIdempotencyStore().execute(key, () -> {
+            transfer(source, destination, sourceAccountNumber, destinationAccountNumber, amount, key);
+            return 0L;
+        });
+        return SUCCESS_MESSAGE;
+    }
+
+    /**
+     * Finishes the transfer sagas that have not moved on for {@code banking.sharding.saga-recovery-ms}, left behind
+     * by a failure: a saga that was never debited is failed, and a debited one is completed or reversed, depending on
+     * whether its destination was credited.
+     */
+    @Scheduled(fixedDelayString = "${banking.sharding.saga-recovery-ms}",
+            initialDelayString = "${banking.sharding.saga-recovery-ms}")
+    public void recoverSagas() {
+        recoverSagas(LocalDateTime.now().minus(sagaRecoveryDelay));
+    }
+
+    void recoverSagas(LocalDateTime updatedBefore) {
+        for (var shard : shards) {
+            var sagas = shard.getTransferSagaStore();
+            for (var saga : sagas.findUnfinished(updatedBefore)) {
+                try {
+                    if (saga.getStatus() == TransferSaga.Status.PENDING) {
+                        sagas.markFailed(saga.getId());
+                    } else {
+                        var status = settle(shard, shardOf(saga.getDestinationAccountNumber()), saga.getId());
+                        log.info("Recovered transfer saga {} as {}", saga.getId(), status);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not recover transfer saga {}, it is tried again later", saga.getId(), e);
+                }
+            }
+        }
+    }
+
+    private void transfer(Shard source, Shard destination, Long sourceAccountNumber, Long destinationAccountNumber,
+                          long amount, IdempotencyKey idempotencyKey) {
+        var sagaId = source.getTransferSagaStore().begin(sourceAccountNumber, destinationAccountNumber, amount,
+                idempotencyKey);
+        try {
+            if (idempotencyKey == null) {
+                source.getBankingService().debitTransfer(sagaId);
+            } else {
+                source.getBankingService().debitTransfer(sagaId, idempotencyKey);
+            }
+        } catch (RuntimeException e) {
+            if (!wasDebited(source, sagaId, e)) {
+                throw e;
+            }
+            log.warn("Transfer saga {} was debited although the debit failed", sagaId, e);
+        }
+        try {
+            destination.getBankingService().creditTransfer(sagaId, destinationAccountNumber, sourceAccountNumber,
+                    amount);
+        } catch (RuntimeException e) {
+            // the credit may have committed although the call failed, so the shard of the destination decides
+            try {
+                if (settle(source, destination, sagaId) == TransferSaga.Status.CREDITED) {
+                    return;
+                }
+            } catch (RuntimeException settleFailure) {
+                log.error("Transfer of {} from {} to {} was debited but could not be settled, saga {} is left to "
+                        + "recovery", amount, sourceAccountNumber, destinationAccountNumber, sagaId, settleFailure);
+                e.addSuppressed(settleFailure);
+            }
+            throw e;
+        }
+        try {
+            source.getTransferSagaStore().markCredited(sagaId);
+        } catch (RuntimeException e) {
+            log.warn("Transfer saga {} was credited but could not be completed, it is left to recovery", sagaId, e);
+        }
+    }
+
+    // a saga that is no longer pending was debited although the call failed, and carries on; if that cannot be told,
+    // the saga is left to recovery
+    private boolean wasDebited(Shard source, String sagaId, RuntimeException debitFailure) {
+        try {
+            return !source.getTransferSagaStore().markFailed(sagaId);
+        } catch (RuntimeException e) {
+            debitFailure.addSuppressed(e);
+            return false;
+        }
+    }
+
+    // once the shard of the destination has recorded an outcome it never credits the saga again, so the source is
+    // completed if it was credited and reversed otherwise
+    private TransferSaga.Status settle(Shard source, Shard destination, String sagaId) {
+        if (destination.getTransferSagaStore().cancel(sagaId) == TransferSagaCredit.Outcome.CREDITED) {
+            source.getTransferSagaStore().markCredited(sagaId);
+            return TransferSaga.Status.CREDITED;
+        }
+        source.getBankingService().reverseTransferDebit(sagaId);
+        return TransferSaga.Status.REVERSED;
+    }
+
+    // the shard sees the configuration of this application, apart from the overrides that make it a shard
+    private ConfigurableApplicationContext startShard(String name) {
+        var overrides = new HashMap<String, Object>();
+        overrides.put("spring.datasource.url", String.format(urlPattern, name));
+        overrides.put("banking.sharding.enabled", "false");
+        // the replicas configured for this application hold none of the shard's data
+        overrides.put("banking.replica.enabled", "false");
+        overrides.put("spring.jpa.properties." + SHARD_SETTING, name);
+        overrides.put("spring.jpa.properties." + SHARDS_SETTING, String.join(",", shardNames));
+        overrides.put("spring.jpa.properties." + VIRTUAL_NODES_SETTING, String.valueOf(virtualNodes));
+        overrides.put("banking.snapshot.path", environment.getProperty("banking.snapshot.path") + "." + name);
+        overrides.put("banking.ledger.wal.directory",
+                environment.getProperty("banking.ledger.wal.directory", "data/wal") + "/" + name);
+        overrides.put("management.metrics.tags.shard", name);
+        var shardEnvironment = new StandardEnvironment();
+        shardEnvironment.merge(environment);
+        shardEnvironment.getPropertySources().addFirst(new MapPropertySource("shard " + name, overrides));
+        return new SpringApplicationBuilder(BankingApplication.class)
+                .environment(shardEnvironment)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .registerShutdownHook(false)
+                .run();
+    }
+}
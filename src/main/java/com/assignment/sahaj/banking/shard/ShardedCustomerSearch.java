@@ -0,0 +1,129 @@
+package com.assignment.sahaj.banking.shard;
+
+import com.assignment.sahaj.banking.dto.CustomerMatch;
+import com.assignment.sahaj.banking.dto.CustomerPage;
+import com.assignment.sahaj.banking.entity.Customer;
+import com.assignment.sahaj.banking.service.CustomerSearchService;
+import com.assignment.sahaj.banking.service.ValidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_CURSOR_EXCEPTION_MESSAGE;
+
+/**
+ * Searches the customers of every shard with its {@link CustomerSearchService} and merges the matches in name key and
+ * customer id order. Customer ids are only unique within a shard, so ties are broken by the shard.
+ * <p>
+ * Every shard is searched from a position of its own, which the cursor holds for each shard in turn: the cursor of
+ * its last match taken, empty before the first one, or {@value #EXHAUSTED} once it has no more matches.
+ */
+@Service
+@ConditionalOnProperty(name = "banking.sharding.enabled", havingValue = "true")
+public class ShardedCustomerSearch {
+
+    private static final String EXHAUSTED = "*";
+    // not used by the Base64 alphabet of the shard cursors
+    private static final String SEPARATOR = ".";
+    private static final Comparator<Candidate> ORDER = Comparator.comparing(Candidate::nameKey)
+            .thenComparing(candidate -> candidate.match().getCustomerId())
+            .thenComparingInt(Candidate::shard);
+
+    private record Candidate(int shard, String nameKey, CustomerMatch match) {
+
+        private Candidate(int shard, CustomerMatch match) {
+            this(shard, Customer.nameKeyOf(match.getName()), match);
+        }
+    }
+
+    private final ShardedBankingService shardedBankingService;
+    private final CustomerSearchService customerSearchService;
+    private final ValidationService validationService;
+
+    @Autowired
+    public ShardedCustomerSearch(ShardedBankingService shardedBankingService,
+                                 CustomerSearchService customerSearchService,
+                                 ValidationService validationService) {
+        this.shardedBankingService = shardedBankingService;
+        this.customerSearchService = customerSearchService;
+        this.validationService = validationService;
+    }
+
+    public CustomerPage search(String namePrefix, String cursor, Integer limit) {
+        validationService.validateName(namePrefix);
+        var shards = shardedBankingService.getShards();
+        var positions = positionsOf(cursor, shards.size());
+        var size = customerSearchService.pageSize(limit);
+
+        var pages = new CustomerPage[shards.size()];
+        var candidates = new ArrayList<Candidate>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (!EXHAUSTED.equals(positions[shard])) {
+                pages[shard] = shards.get(shard).getCustomerSearchService().search(namePrefix,
+                        positions[shard].isEmpty() ? null : positions[shard], size);
+                for (var match : pages[shard].getMatches()) {
+                    candidates.add(new Candidate(shard, match));
+                }
+            }
+        }
+        candidates.sort(ORDER);
+        var taken = candidates.subList(0, Math.min(size, candidates.size()));
+
+        var takenCounts = new int[shards.size()];
+        var lastTaken = new CustomerMatch[shards.size()];
+        var matches = new ArrayList<CustomerMatch>(taken.size());
+        for (var candidate : taken) {
+            takenCounts[candidate.shard()]++;
+            lastTaken[candidate.shard()] = candidate.match();
+            matches.add(candidate.match());
+        }
+        var hasMore = false;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            var page = pages[shard];
+            if (page != null) {
+                if (takenCounts[shard] == page.getMatches().size()) {
+                    positions[shard] = page.getNextCursor() == null ? EXHAUSTED : page.getNextCursor();
+                } else if (takenCounts[shard] > 0) {
+                    positions[shard] = CustomerSearchService.cursorAfter(lastTaken[shard]);
+                }
+            }
+            hasMore |= !EXHAUSTED.equals(positions[shard]);
+        }
+        return new CustomerPage(matches, hasMore ? String.join(SEPARATOR, positions) : null);
+    }
+
+    public List<CustomerMatch> suggest(String namePrefix, Integer limit) {
+        validationService.validateName(namePrefix);
+        var shards = shardedBankingService.getShards();
+        var candidates = new ArrayList<Candidate>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (var match : shards.get(shard).getCustomerSearchService().suggest(namePrefix, limit)) {
+                candidates.add(new Candidate(shard, match));
+            }
+        }
+        return candidates.stream()
+                .sorted(ORDER)
+                .limit(customerSearchService.pageSize(limit))
+                .map(Candidate::match)
+                .toList();
+    }
+
+    private static String[] positionsOf(String cursor, int shards) {
+        if (cursor == null) {
+            var positions = new String[shards];
+            Arrays.fill(positions, "");
+            return positions;
+        }
+        var positions = cursor.split(Pattern.quote(SEPARATOR), -1);
+        if (positions.length != shards) {
+            throw new IllegalArgumentException(INVALID_CURSOR_EXCEPTION_MESSAGE);
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,140 @@
+package com.assignment.sahaj.banking.shard;
+
+import com.assignment.sahaj.banking.entity.TransferSaga;
+import com.assignment.sahaj.banking.entity.TransferSagaCredit;
+import com.assignment.sahaj.banking.idempotency.IdempotencyKey;
+import com.assignment.sahaj.banking.repository.TransferSagaCreditRepository;
+import com.assignment.sahaj.banking.repository.TransferSagaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the state of the transfers between shards, so that {@link ShardedBankingService} can finish or reverse a
+ * transfer interrupted by a failure or a restart. The shard of the source keeps a {@link TransferSaga}, which becomes
+ * {@code DEBITED} in the transaction of the debit. The shard of the destination keeps a {@link TransferSagaCredit},
+ * written in the transaction of the credit or, when the transfer is given up, instead of it; once it is written the
+ * outcome of the transfer is decided, and the saga is moved on to match.
+ */
+@Component
+public class TransferSagaStore {
+
+    private final TransferSagaRepository transferSagaRepository;
+    private final TransferSagaCreditRepository transferSagaCreditRepository;
+
+    @Autowired
+    public TransferSagaStore(TransferSagaRepository transferSagaRepository,
+                             TransferSagaCreditRepository transferSagaCreditRepository) {
+        this.transferSagaRepository = transferSagaRepository;
+        this.transferSagaCreditRepository = transferSagaCreditRepository;
+    }
+
+    /**
+     * Writes a new {@code PENDING} saga on the shard of the source and returns its id.
+     */
+    public String begin(Long sourceAccountNumber, Long destinationAccountNumber, long amount) {
+        return begin(sourceAccountNumber, destinationAccountNumber, amount, null);
+    }
+
+    public String begin(Long sourceAccountNumber, Long destinationAccountNumber, long amount,
+                        IdempotencyKey idempotencyKey) {
+        var now = LocalDateTime.now();
+        return transferSagaRepository.save(TransferSaga.builder()
+                .id(UUID.randomUUID().toString())
+                .sourceAccountNumber(sourceAccountNumber)
+                .destinationAccountNumber(destinationAccountNumber)
+                .amount(amount)
+                .idempotencyKey(idempotencyKey == null ? null : idempotencyKey.getKey())
+                .status(TransferSaga.Status.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build()).getId();
+    }
+
+    public TransferSaga find(String sagaId) {
+        return transferSagaRepository.findById(sagaId)
+                .orElseThrow(() -> new IllegalStateException("Unknown transfer saga " + sagaId));
+    }
+
+    /**
+     * Returns the sagas that are still {@code PENDING} or {@code DEBITED} and have not moved on since
+     * {@code updatedBefore}.
+     */
+    public List<TransferSaga> findUnfinished(LocalDateTime updatedBefore) {
+        return transferSagaRepository.findByStatusInAndUpdatedAtBefore(
+                EnumSet.of(TransferSaga.Status.PENDING, TransferSaga.Status.DEBITED), updatedBefore);
+    }
+
+    /**
+     * Moves a pending saga to {@code DEBITED}; must be called in the transaction of the debit.
+     *
+     * @throws IllegalStateException if the saga is no longer pending
+     */
+    public TransferSaga markDebited(String sagaId) {
+        var saga = find(sagaId);
+        if (!move(sagaId, TransferSaga.Status.PENDING, TransferSaga.Status.DEBITED)) {
+            throw new IllegalStateException("Transfer saga " + sagaId + " is no longer pending");
+        }
+        return saga;
+    }
+
+    /**
+     * Moves a debited saga to {@code REVERSED}; must be called in the transaction that gives the debit back, which is
+     * only to be made if this returns {@code true}.
+     */
+    public boolean markReversed(String sagaId) {
+        return move(sagaId, TransferSaga.Status.DEBITED, TransferSaga.Status.REVERSED);
+    }
+
+    public boolean markCredited(String sagaId) {
+        return move(sagaId, TransferSaga.Status.DEBITED, TransferSaga.Status.CREDITED);
+    }
+
+    /**
+     * Moves a saga that was never debited to {@code FAILED}. Returns {@code false} if the saga was debited after all.
+     */
+    public boolean markFailed(String sagaId) {
+        return move(sagaId, TransferSaga.Status.PENDING, TransferSaga.Status.FAILED);
+    }
+
+    /**
+     * Records on the shard of the destination that the saga is credited; must be called in the transaction of the
+     * credit, which is only to be made if this returns {@code true}. Returns {@code false} if the saga was credited
+     * before.
+     *
+     * @throws IllegalStateException if the saga was cancelled
+     */
+    public boolean recordCredit(String sagaId) {
+        var existing = transferSagaCreditRepository.findById(sagaId);
+        if (existing.isPresent()) {
+            if (existing.get().getOutcome() == TransferSagaCredit.Outcome.CANCELLED) {
+                throw new IllegalStateException("Transfer saga " + sagaId + " was cancelled");
+            }
+            return false;
+        }
+        transferSagaCreditRepository.save(
+                new TransferSagaCredit(sagaId, TransferSagaCredit.Outcome.CREDITED, LocalDateTime.now()));
+        return true;
+    }
+
+    /**
+     * Decides the outcome of a saga on the shard of the destination: if it was not credited, it is cancelled so that
+     * it never will be. Returns the outcome.
+     */
+    @Transactional
+    public TransferSagaCredit.Outcome cancel(String sagaId) {
+        return transferSagaCreditRepository.findById(sagaId)
+                .orElseGet(() -> transferSagaCreditRepository.save(new TransferSagaCredit(sagaId,
+                        TransferSagaCredit.Outcome.CANCELLED, LocalDateTime.now())))
+                .getOutcome();
+    }
+
+    private boolean move(String sagaId, TransferSaga.Status from, TransferSaga.Status to) {
+        return transferSagaRepository.updateStatus(sagaId, from, to, LocalDateTime.now()) == 1;
+    }
+}
@@ -0,0 +1,223 @@
+package com.assignment.sahaj.banking.snapshot;
+
+import com.assignment.sahaj.banking.dto.AccountSnapshot;
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.limit.LimitWindow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Binary file holding the state of every account, see {@link LedgerSnapshotService}. A fixed header is followed by
+ * one record per account, all big-endian:
+ * <pre>
+ * header: magic (int), format version (short), limit window (byte), unused (byte), taken at in epoch millis (long),
+ *         limit window slot (long), account count (long), CRC-32 of the records (long)
+ * record: account number (long), customer id (long), balance (long), version (long), tier (byte), credits (int),
+ *         debits (int), customer name length (unsigned short), customer name (UTF-8)
+ * </pre>
+ * Snapshots are read through memory-mapped windows of the file, so no part of it is copied onto the heap before it
+ * is decoded.
+ */
+final class LedgerSnapshotFile {
+
+    // "BKSN"
+    static final int MAGIC = 0x424B534E;
+    static final short FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 40;
+
+    private static final int FIXED_RECORD_BYTES = 4 * Long.BYTES + 1 + 2 * Integer.BYTES + Short.BYTES;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final int MAX_RECORD_BYTES = FIXED_RECORD_BYTES + MAX_NAME_BYTES;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final long MAP_WINDOW_BYTES = 1L << 30;
+
+    record Header(LimitWindow window, long slot, long takenAtMillis, long count) {
+    }
+
+    private LedgerSnapshotFile() {
+    }
+
+    /**
+     * Writes the accounts to a temporary file next to {@code path} and then moves it over {@code path}, so a reader
+     * never sees a partly written snapshot.
+     */
+    static Header write(Path path, LimitWindow window, long slot, Iterator<AccountSnapshot> accounts)
+            throws IOException {
+        var directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        var temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        Header header;
+        try (var channel = FileChannel.open(temporary, WRITE)) {
+            var buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            var crc = new CRC32();
+            var count = 0L;
+            channel.position(HEADER_BYTES);
+            while (accounts.hasNext()) {
+                var account = accounts.next();
+                var name = account.getCustomerName().getBytes(UTF_8);
+                if (name.length > MAX_NAME_BYTES) {
+                    throw new IOException("Customer name of account " + account.getAccountNumber() + " is too long");
+                }
+                if (buffer.remaining() < FIXED_RECORD_BYTES + name.length) {
+                    drain(channel, buffer, crc);
+                }
+                buffer.putLong(account.getAccountNumber())
+                        .putLong(account.getCustomerId())
+                        .putLong(account.getBalance())
+                        .putLong(account.getVersion())
+                        .put((byte) account.getTier().ordinal())
+                        .putInt(account.getCredits())
+                        .putInt(account.getDebits())
+                        .putShort((short) name.length)
+                        .put(name);
+                count++;
+            }
+            drain(channel, buffer, crc);
+
+            header = new Header(window, slot, System.currentTimeMillis(), count);
+            buffer.putInt(MAGIC)
+                    .putShort(FORMAT_VERSION)
+                    .put((byte) window.ordinal())
+                    .put((byte) 0)
+                    .putLong(header.takenAtMillis())
+                    .putLong(slot)
+                    .putLong(count)
+                    .putLong(crc.getValue())
+                    .flip();
+            var position = 0L;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        return header;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads the accounts of a snapshot one at a time. The checksum is verified when the file is opened, before any
+     * account is returned.
+     */
+    static final class Reader implements Closeable {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final long size;
+        private final Header header;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long remaining;
+
+        Reader(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, READ);
+            try {
+                size = channel.size();
+                if (size < HEADER_BYTES) {
+                    throw corrupt();
+                }
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                    throw corrupt();
+                }
+                var windowOrdinal = buffer.get();
+                buffer.get();
+                if (windowOrdinal < 0 || windowOrdinal >= LimitWindow.values().length) {
+                    throw corrupt();
+                }
+                var takenAtMillis = buffer.getLong();
+                var slot = buffer.getLong();
+                var count = buffer.getLong();
+                if (checksum() != buffer.getLong()) {
+                    throw corrupt();
+                }
+                header = new Header(LimitWindow.values()[windowOrdinal], slot, takenAtMillis, count);
+                remaining = count;
+                map(HEADER_BYTES);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        Header header() {
+            return header;
+        }
+
+        /**
+         * Returns the next account, or {@code null} once every account has been read.
+         */
+        AccountSnapshot next() throws IOException {
+            if (remaining == 0) {
+                return null;
+            }
+            if (window.remaining() < MAX_RECORD_BYTES && windowStart + window.limit() < size) {
+                map(windowStart + window.position());
+            }
+            if (window.remaining() < FIXED_RECORD_BYTES) {
+                throw corrupt();
+            }
+            var accountNumber = window.getLong();
+            var customerId = window.getLong();
+            var balance = window.getLong();
+            var version = window.getLong();
+            var tier = Account.Tier.values()[window.get()];
+            var credits = window.getInt();
+            var debits = window.getInt();
+            var name = new byte[Short.toUnsignedInt(window.getShort())];
+            window.get(name);
+            remaining--;
+            return new AccountSnapshot(accountNumber, customerId, new String(name, UTF_8), tier, balance, version,
+                    credits, debits);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_BYTES, size - position));
+        }
+
+        private long checksum() throws IOException {
+            var crc = new CRC32();
+            for (long position = HEADER_BYTES; position < size; position += MAP_WINDOW_BYTES) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_BYTES, size - position)));
+            }
+            return crc.getValue();
+        }
+
+        private IOException corrupt() {
+            return new IOException("Ledger snapshot " + path + " is corrupt");
+        }
+    }
+}
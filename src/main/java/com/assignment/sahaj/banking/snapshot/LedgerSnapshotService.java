@@ -0,0 +1,241 @@
+package com.assignment.sahaj.banking.snapshot;
+
+import com.assignment.sahaj.banking.dto.AccountSnapshot;
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.entity.Customer;
+import com.assignment.sahaj.banking.ledger.InMemoryLedger;
+import com.assignment.sahaj.banking.ledger.LedgerWriter;
+import com.assignment.sahaj.banking.limit.PostingLimitTracker;
+import com.assignment.sahaj.banking.replica.ReadSession;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.assignment.sahaj.banking.limit.PostingLimitTracker.Direction.CREDIT;
+import static com.assignment.sahaj.banking.limit.PostingLimitTracker.Direction.DEBIT;
+
+/**
+ * Writes the state of every account to the {@link LedgerSnapshotFile} at {@code banking.snapshot.path} every
+ * {@code banking.snapshot.interval-ms} and on shutdown, and restores it on startup when the database holds no accounts.
+ * A restore inserts the customers and accounts in JDBC batches, all in one transaction, and writes a balance snapshot
+ * for each account so balances can still be reconstructed from the journal. Once they are stored it puts back the
+ * postings counted against the daily limits and, in in-memory mode, fills the {@link InMemoryLedger} so no account has
+ * to be loaded on its first operation.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banking.snapshot.enabled", havingValue = "true")
+public class LedgerSnapshotService {
+
+    private static final String INSERT_CUSTOMER_SQL = "INSERT INTO customer (id, name, name_key) VALUES (?, ?, ?)";
+    private static final String INSERT_ACCOUNT_SQL =
+            "INSERT INTO account (account_number, customer_id, tier, balance, version) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_BALANCE_SNAPSHOT_SQL =
+            "INSERT INTO balance_snapshot (account_number, balance, last_entry_id, taken_at) VALUES (?, ?, 0, ?)";
+    private static final String RESTART_SEQUENCE_SQL = "ALTER SEQUENCE %s RESTART WITH %d";
+    // allocation size of the account number and customer id sequences, see Account and Customer
+    private static final int ID_ALLOCATION_SIZE = 1000;
+
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final PostingLimitTracker postingLimitTracker;
+    private final ObjectProvider<InMemoryLedger> inMemoryLedger;
+    private final ObjectProvider<LedgerWriter> ledgerWriter;
+    private final Path path;
+    private final boolean restoreOnStartup;
+    private final int restoreBatchSize;
+
+    @Autowired
+    public LedgerSnapshotService(AccountRepository accountRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 PostingLimitTracker postingLimitTracker,
+                                 ObjectProvider<InMemoryLedger> inMemoryLedger,
+                                 ObjectProvider<LedgerWriter> ledgerWriter,
+                                 @Value("${banking.snapshot.path}") Path path,
+                                 @Value("${banking.snapshot.restore-on-startup}") boolean restoreOnStartup,
+                                 @Value("${banking.snapshot.restore-batch-size}") int restoreBatchSize) {
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.postingLimitTracker = postingLimitTracker;
+        this.inMemoryLedger = inMemoryLedger;
+        this.ledgerWriter = ledgerWriter;
+        this.path = path;
+        this.restoreOnStartup = restoreOnStartup;
+        this.restoreBatchSize = restoreBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (restoreOnStartup) {
+            restore();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        write();
+    }
+
+    /**
+     * Writes every account to the snapshot file and returns the number written. In in-memory mode the pending ledger
+     * changes are flushed first, so the snapshot is never older than the ledger.
+     */
+    @Scheduled(fixedDelayString = "${banking.snapshot.interval-ms}",
+            initialDelayString = "${banking.snapshot.interval-ms}")
+    public synchronized long write() {
+        var start = System.nanoTime();
+        ledgerWriter.ifAvailable(LedgerWriter::flush);
+        var window = postingLimitTracker.getWindow();
+        var slot = postingLimitTracker.getSlot();
+        // the posting counters are those of this application, so the balances must not come from a lagging replica
+        var header = ReadSession.onPrimary(() -> readOnlyTransactionTemplate.execute(status -> {
+            try (var accounts = accountRepository.streamSnapshots()) {
+                return LedgerSnapshotFile.write(path, window, slot, accounts
+                        .map(account -> account
+                                .withCredits(postingLimitTracker.count(account.getAccountNumber(), CREDIT))
+                                .withDebits(postingLimitTracker.count(account.getAccountNumber(), DEBIT)))
+                        .iterator());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        log.info("Wrote {} accounts to the ledger snapshot {} in {} ms", header.count(), path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return header.count();
+    }
+
+    /**
+     * Restores the snapshot file and returns the number of accounts restored. Nothing is restored if there is no
+     * snapshot file or if the database already holds accounts.
+     */
+    public synchronized long restore() {
+        if (!Files.exists(path)) {
+            log.info("No ledger snapshot at {}, nothing to restore", path);
+            return 0;
+        }
+        if (accountRepository.count() > 0) {
+            log.info("Accounts are already stored, the ledger snapshot {} is not restored", path);
+            return 0;
+        }
+        var start = System.nanoTime();
+        // in one transaction: a restore that failed part way would leave accounts behind, and never be tried again
+        var restored = transactionTemplate.execute(status -> insertAll());
+        if (restored.count() > 0) {
+            restartSequence("account_number_seq", restored.maxAccountNumber());
+            restartSequence("customer_id_seq", restored.maxCustomerId());
+        }
+        // only once the accounts are stored, so a failed restore leaves nothing behind in memory either
+        restoreInMemory();
+        log.info("Restored {} accounts from the ledger snapshot {} in {} ms", restored.count(), path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return restored.count();
+    }
+
+    private record Restored(long count, long maxAccountNumber, long maxCustomerId) {
+    }
+
+    private Restored insertAll() {
+        try (var reader = new LedgerSnapshotFile.Reader(path)) {
+            var header = reader.header();
+            var takenAt = new Timestamp(header.takenAtMillis());
+            var batch = new ArrayList<AccountSnapshot>(restoreBatchSize);
+            var maxAccountNumber = 0L;
+            var maxCustomerId = 0L;
+            AccountSnapshot account;
+            while ((account = reader.next()) != null) {
+                batch.add(account);
+                if (batch.size() == restoreBatchSize) {
+                    insert(batch, takenAt);
+                    batch.clear();
+                }
+                maxAccountNumber = Math.max(maxAccountNumber, account.getAccountNumber());
+                maxCustomerId = Math.max(maxCustomerId, account.getCustomerId());
+            }
+            if (!batch.isEmpty()) {
+                insert(batch, takenAt);
+            }
+            return new Restored(header.count(), maxAccountNumber, maxCustomerId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // reads the snapshot a second time to put back the daily limit counts and fill the in-memory ledger
+    private void restoreInMemory() {
+        try (var reader = new LedgerSnapshotFile.Reader(path)) {
+            var header = reader.header();
+            // counts from another kind of window would be counted against the wrong limits
+            var restoreCounts = header.window() == postingLimitTracker.getWindow();
+            var ledger = inMemoryLedger.getIfAvailable();
+            if (!restoreCounts && ledger == null) {
+                return;
+            }
+            AccountSnapshot account;
+            while ((account = reader.next()) != null) {
+                if (restoreCounts) {
+                    postingLimitTracker.restore(account.getAccountNumber(), header.slot(), account.getCredits(),
+                            account.getDebits());
+                }
+                if (ledger != null) {
+                    ledger.preload(Account.builder()
+                            .accountNumber(account.getAccountNumber())
+                            .tier(account.getTier())
+                            .balance(account.getBalance())
+                            .version(account.getVersion())
+                            .build());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void insert(List<AccountSnapshot> accounts, Timestamp takenAt) {
+        jdbcTemplate.batchUpdate(INSERT_CUSTOMER_SQL, accounts, accounts.size(), (statement, account) -> {
+            statement.setLong(1, account.getCustomerId());
+            statement.setString(2, account.getCustomerName());
+            statement.setString(3, Customer.nameKeyOf(account.getCustomerName()));
+        });
+        jdbcTemplate.batchUpdate(INSERT_ACCOUNT_SQL, accounts, accounts.size(), (statement, account) -> {
+            statement.setLong(1, account.getAccountNumber());
+            statement.setLong(2, account.getCustomerId());
+            statement.setString(3, account.getTier().name());
+            statement.setLong(4, account.getBalance());
+            statement.setLong(5, account.getVersion());
+        });
+        jdbcTemplate.batchUpdate(INSERT_BALANCE_SNAPSHOT_SQL, accounts, accounts.size(), (statement, account) -> {
+            statement.setLong(1, account.getAccountNumber());
+            statement.setLong(2, account.getBalance());
+            statement.setTimestamp(3, takenAt);
+        });
+    }
+
+    // pooled sequences hand out the ids up to their value, so the next value must leave a whole block above the max
+    private void restartSequence(String sequence, long maxId) {
+        jdbcTemplate.execute(String.format(RESTART_SEQUENCE_SQL, sequence, maxId + ID_ALLOCATION_SIZE));
+    }
+}
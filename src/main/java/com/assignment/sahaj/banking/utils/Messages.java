@@ -2,14 +2,24 @@ package com.assignment.sahaj.banking.utils;
 
 public interface Messages {
 
-    public final String MAXIMUM_ACCOUNT_BALANCE_EXCEPTION_MESSAGE = "Account balance of %d cannot exceed $%.2f";
+    public final String SUCCESS_MESSAGE = "Success";
+    public final String MAXIMUM_ACCOUNT_BALANCE_EXCEPTION_MESSAGE = "Account balance of %d cannot exceed $%s";
     public final String MAXIMUM_DAILY_CREDIT_LIMIT_EXCEPTION_MESSAGE = "Only %d deposits are allowed in a day";
     public final String MAXIMUM_DAILY_DEBIT_LIMIT_EXCEPTION_MESSAGE = "Only %d withdrawals are allowed in a day";
     public final String TRANSFER_EXCEPTION_MESSAGE = " for account %d";
     public final String INVALID_NAME_EXCEPTION_MESSAGE = "Name is blank or null";
     public final String INVALID_ACCOUNT_EXCEPTION_MESSAGE = "Account does not exist";
-    public final String MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE = "Minimum withdrawal amount is $%.2f";
-    public final String MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE = "Maximum withdrawal amount is $%.2f";
-    public final String MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE = "Minimum deposit amount is $%.2f";
-    public final String MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE = "Maximum deposit amount is $%.2f";
+    public final String INSUFFICIENT_BALANCE_EXCEPTION_MESSAGE = "Insufficient Balance";
+    public final String MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE = "Minimum withdrawal amount is $%s";
+    public final String MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE = "Maximum withdrawal amount is $%s";
+    public final String MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE = "Minimum deposit amount is $%s";
+    public final String MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE = "Maximum deposit amount is $%s";
+    public final String AMOUNT_REQUIRED_EXCEPTION_MESSAGE = "Amount is required";
+    public final String INVALID_CURSOR_EXCEPTION_MESSAGE = "Search cursor is not valid";
+    public final String INVALID_DATE_RANGE_EXCEPTION_MESSAGE = "Statement start date must not be after its end date";
+    public final String INVALID_STATEMENT_FORMAT_EXCEPTION_MESSAGE = "Statement format must be csv or json";
+    public final String INVALID_IDEMPOTENCY_KEY_EXCEPTION_MESSAGE = "Idempotency key must be 1 to 128 characters";
+    public final String IDEMPOTENCY_KEY_REUSED_EXCEPTION_MESSAGE =
+            "Idempotency key was already used for a different request";
+    public final String LIMITS_RELOADED_MESSAGE = "Limits reloaded";
 }
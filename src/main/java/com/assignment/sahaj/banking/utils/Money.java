@@ -0,0 +1,40 @@
+package com.assignment.sahaj.banking.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts are carried as a primitive {@code long} number of minor units (cents) everywhere in the application.
+ * This class converts between that representation and decimal amounts at the edges.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public static long of(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("Amount %s is not a valid amount with %d decimal places",
+                    amount.toPlainString(), SCALE), e);
+        }
+    }
+
+    public static long ofMajorUnits(long amount) {
+        return Math.multiplyExact(amount, 100L);
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static String format(long minorUnits) {
+        return toDecimal(minorUnits).toPlainString();
+    }
+}
@@ -0,0 +1,7 @@
+-- Converts account.balance from a DOUBLE amount in dollars to a BIGINT amount in cents, see Money.
+-- Run once against databases created before balances were held in minor units.
+ALTER TABLE account ADD COLUMN balance_minor_units BIGINT;
+UPDATE account SET balance_minor_units = CAST(ROUND(balance * 100) AS BIGINT);
+ALTER TABLE account DROP COLUMN balance;
+ALTER TABLE account RENAME COLUMN balance_minor_units TO balance;
+ALTER TABLE account ALTER COLUMN balance SET NOT NULL;
@@ -0,0 +1,9 @@
+-- Creates the sequence customer ids are now taken from, in blocks of 1000 as set on Customer.
+-- Run once against databases created while customer.id was an identity column. The sequence starts 1000 above the
+-- highest id, since Hibernate hands out the block of 1000 ids that ends at the value it reads.
+-- The identity default can stay, ids are always given explicitly from now on.
+CREATE SEQUENCE customer_id_seq INCREMENT BY 1000;
+-- H2
+ALTER SEQUENCE customer_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1000 FROM customer);
+-- PostgreSQL, instead of the statement above
+-- SELECT setval('customer_id_seq', COALESCE(MAX(id), 0) + 1000, false) FROM customer;
@@ -0,0 +1,6 @@
+-- Adds the searchable name key and the name indexes declared on Customer.
+-- Run once against databases created before customers could be searched by name. The keys are filled in by
+-- NameKeyBackfill when the application starts, with the same normalisation the search uses.
+ALTER TABLE customer ADD COLUMN name_key VARCHAR(255);
+CREATE INDEX idx_customer_name ON customer (name);
+CREATE INDEX idx_customer_name_key ON customer (name_key, id);
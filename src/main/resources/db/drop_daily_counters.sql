@@ -0,0 +1,6 @@
+-- Drops the daily posting counters from account, they are now kept by PostingLimitTracker.
+-- Run once against databases created before the counters were moved off the account row.
+ALTER TABLE account DROP COLUMN daily_debit_count;
+ALTER TABLE account DROP COLUMN last_debit_date;
+ALTER TABLE account DROP COLUMN daily_credit_count;
+ALTER TABLE account DROP COLUMN last_credit_date;
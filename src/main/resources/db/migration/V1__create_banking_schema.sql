@@ -0,0 +1,52 @@
+-- Schema of the h2file and postgres profiles, matching the entities. Later changes go in new V<n>__ scripts.
+CREATE SEQUENCE account_number_seq START WITH 1001 INCREMENT BY 1000;
+CREATE SEQUENCE customer_id_seq START WITH 1 INCREMENT BY 1000;
+CREATE SEQUENCE journal_entry_seq START WITH 1 INCREMENT BY 100;
+
+CREATE TABLE customer (
+    id       BIGINT NOT NULL,
+    name     VARCHAR(255),
+    name_key VARCHAR(255),
+    CONSTRAINT pk_customer PRIMARY KEY (id)
+);
+CREATE INDEX idx_customer_name ON customer (name);
+CREATE INDEX idx_customer_name_key ON customer (name_key, id);
+
+CREATE TABLE account (
+    account_number BIGINT NOT NULL,
+    balance        BIGINT NOT NULL,
+    version        BIGINT,
+    customer_id    BIGINT,
+    CONSTRAINT pk_account PRIMARY KEY (account_number),
+    CONSTRAINT uk_account_customer UNIQUE (customer_id),
+    CONSTRAINT fk_account_customer FOREIGN KEY (customer_id) REFERENCES customer (id)
+);
+
+CREATE TABLE journal_entry (
+    id                          BIGINT      NOT NULL,
+    account_number              BIGINT      NOT NULL,
+    type                        VARCHAR(16) NOT NULL,
+    amount                      BIGINT      NOT NULL,
+    balance_after               BIGINT,
+    counterparty_account_number BIGINT,
+    posted_at                   TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_journal_entry PRIMARY KEY (id)
+);
+CREATE INDEX idx_journal_entry_account ON journal_entry (account_number, id);
+
+CREATE TABLE balance_snapshot (
+    account_number BIGINT    NOT NULL,
+    balance        BIGINT    NOT NULL,
+    last_entry_id  BIGINT,
+    taken_at       TIMESTAMP NOT NULL,
+    CONSTRAINT pk_balance_snapshot PRIMARY KEY (account_number)
+);
+
+CREATE TABLE idempotency_record (
+    idempotency_key VARCHAR(128) NOT NULL,
+    fingerprint     VARCHAR(255) NOT NULL,
+    result          BIGINT       NOT NULL,
+    created_at      TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_idempotency_record PRIMARY KEY (idempotency_key)
+);
+CREATE INDEX idx_idempotency_record_created_at ON idempotency_record (created_at);
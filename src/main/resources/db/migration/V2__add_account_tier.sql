@@ -0,0 +1,2 @@
+-- Accounts created before tiers existed are retail accounts.
+ALTER TABLE account ADD COLUMN tier VARCHAR(16) DEFAULT 'RETAIL' NOT NULL;
@@ -0,0 +1,6 @@
+-- Last journal entry of the in-memory ledger stored in the database, see LedgerWriter.
+CREATE TABLE ledger_checkpoint (
+    id            INTEGER NOT NULL,
+    last_sequence BIGINT  NOT NULL,
+    CONSTRAINT pk_ledger_checkpoint PRIMARY KEY (id)
+);
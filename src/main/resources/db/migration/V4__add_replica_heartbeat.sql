@@ -0,0 +1,7 @@
+-- Heartbeat written on the primary and read back from the read replicas, see ReplicaMonitor.
+CREATE TABLE replica_heartbeat (
+    id                INTEGER NOT NULL,
+    beat              BIGINT  NOT NULL,
+    written_at_millis BIGINT  NOT NULL,
+    CONSTRAINT pk_replica_heartbeat PRIMARY KEY (id)
+);
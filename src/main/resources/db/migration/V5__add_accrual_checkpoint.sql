@@ -0,0 +1,14 @@
+-- Runs of the accrual batch and the account ranges they have posted to, see AccrualBatchService.
+CREATE TABLE accrual_run (
+    business_date DATE      NOT NULL,
+    started_at    TIMESTAMP NOT NULL,
+    completed_at  TIMESTAMP,
+    CONSTRAINT pk_accrual_run PRIMARY KEY (business_date)
+);
+
+CREATE TABLE accrual_chunk (
+    business_date        DATE   NOT NULL,
+    first_account_number BIGINT NOT NULL,
+    last_account_number  BIGINT NOT NULL,
+    CONSTRAINT pk_accrual_chunk PRIMARY KEY (business_date, first_account_number)
+);
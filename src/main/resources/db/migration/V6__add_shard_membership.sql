@@ -0,0 +1,8 @@
+-- Ring a shard was first started in, see ShardMembershipStore.
+CREATE TABLE shard_membership (
+    id            INTEGER       NOT NULL,
+    shard_name    VARCHAR(255)  NOT NULL,
+    shards        VARCHAR(4000) NOT NULL,
+    virtual_nodes INTEGER       NOT NULL,
+    CONSTRAINT pk_shard_membership PRIMARY KEY (id)
+);
@@ -0,0 +1,20 @@
+-- Transfers between shards, kept by the shard of the source, and the outcome of their credit, kept by the shard of
+-- the destination, see TransferSagaStore.
+CREATE TABLE transfer_saga (
+    id                         VARCHAR(36) NOT NULL,
+    source_account_number      BIGINT      NOT NULL,
+    destination_account_number BIGINT      NOT NULL,
+    amount                     BIGINT      NOT NULL,
+    status                     VARCHAR(16) NOT NULL,
+    created_at                 TIMESTAMP   NOT NULL,
+    updated_at                 TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_transfer_saga PRIMARY KEY (id)
+);
+CREATE INDEX idx_transfer_saga_status ON transfer_saga (status, updated_at);
+
+CREATE TABLE transfer_saga_credit (
+    saga_id    VARCHAR(36) NOT NULL,
+    outcome    VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_transfer_saga_credit PRIMARY KEY (saga_id)
+);
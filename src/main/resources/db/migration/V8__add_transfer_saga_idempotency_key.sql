@@ -0,0 +1,2 @@
+-- Idempotency key a transfer between shards was submitted with, forgotten again when it is reversed.
+ALTER TABLE transfer_saga ADD COLUMN idempotency_key VARCHAR(128);
@@ -0,0 +1,44 @@
+package com.assignment.sahaj.banking;
+
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "banking.data-dir=./target/h2file-profile")
+@ActiveProfiles("h2file")
+public class H2FileProfileIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenH2FileProfile_whenStarted_thenSchemaIsMigratedAndMatchesTheEntities() {
+        var versions = jdbcTemplate.queryForList(
+                "select \"version\" from \"flyway_schema_history\" where \"success\" = true", String.class);
+
+        // the context only starts when Hibernate has validated the migrated schema against the entities
+        assertThat(versions).contains("1");
+    }
+
+    @Test
+    public void givenH2FileProfile_whenMoneyIsMoved_thenBalancesAreStored() {
+        var source = bankingService.createAccount("John Doe");
+        var destination = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(source, Money.of("5000.00"));
+
+        bankingService.transferFund(source, destination, Money.of("2000.00"));
+
+        assertThat(source).isGreaterThanOrEqualTo(1001L);
+        assertThat(bankingService.getBalance(source)).isEqualTo(Money.of("3000.00"));
+        assertThat(jdbcTemplate.queryForObject("select balance from account where account_number = ?",
+                Long.class, destination)).isEqualTo(Money.of("2000.00"));
+    }
+}
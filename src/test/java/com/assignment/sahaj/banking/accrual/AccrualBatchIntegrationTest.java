@@ -0,0 +1,117 @@
+package com.assignment.sahaj.banking.accrual;
+
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:accrualdb",
+        "banking.accrual.enabled=true",
+        "banking.accrual.cron=-",
+        "banking.accrual.resume-on-startup=false",
+        "banking.accrual.chunk-size=2",
+        "banking.accrual.parallelism=2",
+        "banking.accrual.max-accounts-per-second=0",
+        // one ten-thousandth of the balance a day
+        "banking.accrual.interest.annual-rate-bps=365",
+        "banking.accrual.fee.monthly=5.00",
+        "banking.accrual.fee.day-of-month=1"})
+public class AccrualBatchIntegrationTest {
+
+    @Autowired
+    private AccrualBatchService accrualBatchService;
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenAccounts_whenRunOnFeeDay_thenInterestAndFeeArePosted() {
+        var accountNumber = openAccount(Money.of("5000.00"));
+
+        var result = accrualBatchService.run(LocalDate.of(2026, 6, 1));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("4995.50"));
+        assertThat(countEntries(accountNumber, "INTEREST")).isEqualTo(1);
+        assertThat(countEntries(accountNumber, "FEE")).isEqualTo(1);
+        assertThat(result.getFeeAmount()).isEqualTo(result.getFeePostings() * Money.of("5.00"));
+    }
+
+    @Test
+    public void givenCompletedRun_whenRunAgain_thenNothingIsPosted() {
+        var accountNumber = openAccount(Money.of("5000.00"));
+        accrualBatchService.run(LocalDate.of(2026, 6, 2));
+
+        var result = accrualBatchService.run(LocalDate.of(2026, 6, 2));
+
+        assertThat(result.getAccounts()).isZero();
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("5000.50"));
+        assertThat(countEntries(accountNumber, "FEE")).isZero();
+    }
+
+    @Test
+    public void givenBalanceNearMaximum_whenRun_thenInterestStopsAtTheMaximumBalance() {
+        var accountNumber = openAccount(Money.of("50000.00"));
+        bankingService.deposit(accountNumber, Money.of("49999.90"));
+
+        accrualBatchService.run(LocalDate.of(2026, 6, 3));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("100000.00"));
+    }
+
+    @Test
+    public void givenEmptyAccount_whenRunOnFeeDay_thenNothingIsPosted() {
+        var accountNumber = openAccount(Money.of("1000.00"));
+        bankingService.withdraw(accountNumber, Money.of("1000.00"));
+
+        accrualBatchService.run(LocalDate.of(2026, 7, 1));
+
+        assertThat(bankingService.getBalance(accountNumber)).isZero();
+        assertThat(countEntries(accountNumber, "INTEREST")).isZero();
+        assertThat(countEntries(accountNumber, "FEE")).isZero();
+    }
+
+    @Test
+    public void givenInterruptedRun_whenRunAgain_thenThePostedChunksAreSkipped() {
+        var businessDate = LocalDate.of(2026, 6, 4);
+        var first = openAccount(Money.of("5000.00"));
+        var second = openAccount(Money.of("5000.00"));
+        var third = openAccount(Money.of("5000.00"));
+        // what a run stopped after its first chunk leaves behind
+        jdbcTemplate.update("INSERT INTO accrual_run (business_date, started_at) VALUES (?, ?)",
+                Date.valueOf(businessDate), Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update("INSERT INTO accrual_chunk (business_date, first_account_number, last_account_number) "
+                + "VALUES (?, ?, ?)", Date.valueOf(businessDate), first, second);
+
+        accrualBatchService.run(businessDate);
+
+        assertThat(bankingService.getBalance(first)).isEqualTo(Money.of("5000.00"));
+        assertThat(bankingService.getBalance(second)).isEqualTo(Money.of("5000.00"));
+        assertThat(bankingService.getBalance(third)).isEqualTo(Money.of("5000.50"));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM accrual_chunk WHERE business_date = ?",
+                Long.class, Date.valueOf(businessDate))).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT completed_at FROM accrual_run WHERE business_date = ?",
+                Timestamp.class, Date.valueOf(businessDate))).isNotNull();
+    }
+
+    private Long openAccount(long deposit) {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, deposit);
+        return accountNumber;
+    }
+
+    private long countEntries(Long accountNumber, String type) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM journal_entry WHERE account_number = ? AND type = ?",
+                Long.class, accountNumber, type);
+    }
+}
@@ -0,0 +1,60 @@
+package com.assignment.sahaj.banking.accrual;
+
+import com.assignment.sahaj.banking.ledger.LedgerWriter;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:accrualmemorydb",
+        "banking.engine.mode=in-memory",
+        "banking.accrual.enabled=true",
+        "banking.accrual.cron=-",
+        "banking.accrual.resume-on-startup=false",
+        "banking.accrual.interest.annual-rate-bps=365",
+        "banking.accrual.fee.monthly=5.00"})
+public class AccrualPosterInMemoryIntegrationTest {
+
+    @Autowired
+    private AccrualPoster accrualPoster;
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private LedgerWriter ledgerWriter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenChunkCheckpointFails_whenPosted_thenBalancesAndJournalAreUnchanged() {
+        var businessDate = LocalDate.of(2026, 6, 1);
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+        // the chunk is already recorded, so recording it again fails after the postings were made
+        jdbcTemplate.update("INSERT INTO accrual_chunk (business_date, first_account_number, last_account_number) "
+                + "VALUES (?, ?, ?)", Date.valueOf(businessDate), accountNumber, accountNumber);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> accrualPoster.post(businessDate, List.of(accountNumber), true));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("5000.00"));
+        ledgerWriter.flush();
+        assertThat(accountRepository.findById(accountNumber).orElseThrow().getBalance())
+                .isEqualTo(Money.of("5000.00"));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM journal_entry WHERE account_number = ? "
+                + "AND type IN ('INTEREST', 'FEE')", Long.class, accountNumber)).isZero();
+    }
+}
@@ -0,0 +1,56 @@
+package com.assignment.sahaj.banking.cache;
+
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_ACCOUNT_EXCEPTION_MESSAGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class AccountCacheIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private AccountCache accountCache;
+
+    @Test
+    public void givenCachedBalance_whenDeposited_thenCacheIsUpdatedOnCommit() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        assertThat(bankingService.getBalance(accountNumber)).isZero();
+        var hits = accountCache.balanceStats().hitCount();
+
+        bankingService.deposit(accountNumber, Money.of("1000.00"));
+
+        assertThat(accountCache.getBalance(accountNumber).getBalance()).isEqualTo(Money.of("1000.00"));
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("1000.00"));
+        assertThat(accountCache.balanceStats().hitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    public void givenRejectedWithdrawal_whenGetBalance_thenCacheKeepsCommittedBalance() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("1000.00"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bankingService.withdraw(accountNumber, Money.of("2000.00")));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenUnknownAccount_whenLookedUpTwice_thenSecondLookupIsServedFromMissingCache() {
+        var first = assertThrows(IllegalArgumentException.class, () -> bankingService.getBalance(7L));
+        var hits = accountCache.missingAccountStats().hitCount();
+        var second = assertThrows(IllegalArgumentException.class, () -> bankingService.deposit(7L,
+                Money.of("1000.00")));
+
+        assertThat(first.getMessage()).isEqualTo(INVALID_ACCOUNT_EXCEPTION_MESSAGE);
+        assertThat(second.getMessage()).isEqualTo(INVALID_ACCOUNT_EXCEPTION_MESSAGE);
+        assertThat(accountCache.missingAccountStats().hitCount()).isEqualTo(hits + 1);
+    }
+}
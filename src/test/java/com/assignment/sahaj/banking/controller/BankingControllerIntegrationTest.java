@@ -0,0 +1,163 @@
+package com.assignment.sahaj.banking.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:apidb")
+@AutoConfigureMockMvc
+public class BankingControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void givenNewAccount_whenDepositedAndWithdrawn_thenBalanceIsReturned() throws Exception {
+        var accountNumber = createAccount("John Doe");
+
+        perform(post("/accounts/{accountNumber}/deposits", accountNumber), "{\"amount\": 1500.50}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1500.50));
+        perform(post("/accounts/{accountNumber}/withdrawals", accountNumber), "{\"amount\": \"1000.00\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(500.50));
+        perform(get("/accounts/{accountNumber}/balance", accountNumber), null)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value(accountNumber))
+                .andExpect(jsonPath("$.balance").value(500.50));
+    }
+
+    @Test
+    public void givenTwoAccounts_whenTransferred_thenSuccess() throws Exception {
+        var source = createAccount("John Doe");
+        var destination = createAccount("Jane Doe");
+        perform(post("/accounts/{accountNumber}/deposits", source), "{\"amount\": 5000}");
+
+        perform(post("/transfers"), String.format(
+                "{\"sourceAccountNumber\": %d, \"destinationAccountNumber\": %d, \"amount\": 2000}",
+                source, destination))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Success"));
+        perform(get("/accounts/{accountNumber}/balance", destination), null)
+                .andExpect(jsonPath("$.balance").value(2000.00));
+    }
+
+    @Test
+    public void givenRejectedOperation_whenCalled_thenBadRequestWithReason() throws Exception {
+        var accountNumber = createAccount("John Doe");
+
+        perform(post("/accounts/{accountNumber}/withdrawals", accountNumber), "{\"amount\": 1000}")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.reason").value("INSUFFICIENT_BALANCE"))
+                .andExpect(jsonPath("$.message").value("Insufficient Balance"));
+        perform(get("/accounts/{accountNumber}/balance", 99999), null)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.reason").value("INVALID_ACCOUNT"));
+        mockMvc.perform(post("/accounts/{accountNumber}/deposits", accountNumber)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\": 10.005}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void givenPostings_whenStatementRequested_thenStreamedAsCsv() throws Exception {
+        var accountNumber = createAccount("John Doe");
+        perform(post("/accounts/{accountNumber}/deposits", accountNumber), "{\"amount\": 1500.50}");
+        perform(post("/accounts/{accountNumber}/withdrawals", accountNumber), "{\"amount\": 1000}");
+
+        var started = mockMvc.perform(get("/accounts/{accountNumber}/statement", accountNumber)
+                        .param("from", LocalDate.now().toString()))
+                .andExpect(request().asyncStarted()).andReturn();
+        var streaming = mockMvc.perform(asyncDispatch(started)).andReturn();
+        streaming.getAsyncResult(5000);
+
+        assertThat(streaming.getResponse().getContentType()).startsWith("text/csv");
+        assertThat(streaming.getResponse().getContentAsString().lines()).hasSize(3)
+                .last().asString().contains(",WITHDRAWAL,-1000.00,500.50,");
+        perform(get("/accounts/{accountNumber}/statement", 99999).param("from", LocalDate.now().toString()), null)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.reason").value("INVALID_ACCOUNT"));
+    }
+
+    @Test
+    public void givenUnknownFormat_whenStatementRequested_thenBadRequest() throws Exception {
+        var accountNumber = createAccount("John Doe");
+
+        perform(get("/accounts/{accountNumber}/statement", accountNumber)
+                .param("from", LocalDate.now().toString())
+                .param("format", "xml"), null)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Statement format must be csv or json"));
+    }
+
+    @Test
+    public void givenBlankOrOverlongIdempotencyKey_whenDeposited_thenBadRequest() throws Exception {
+        var accountNumber = createAccount("John Doe");
+
+        for (var key : new String[]{" ", "k".repeat(129)}) {
+            perform(post("/accounts/{accountNumber}/deposits", accountNumber).header("Idempotency-Key", key),
+                    "{\"amount\": 1000}")
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Idempotency key must be 1 to 128 characters"));
+        }
+    }
+
+    @Test
+    public void givenMaximumRequestsInFlight_whenSubmitted_thenRefused() throws Exception {
+        var requestExecutor = new RequestExecutor(1, 1, false);
+        var release = new CountDownLatch(1);
+        var running = requestExecutor.submit(() -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        CompletableFuture<Boolean> refused = requestExecutor.submit(() -> true);
+
+        assertThat(requestExecutor.getInFlight()).isEqualTo(1);
+        var exception = assertThrows(Exception.class, refused::join);
+        assertThat(exception).hasCauseInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        requestExecutor.shutdown();
+    }
+
+    private long createAccount(String name) throws Exception {
+        var response = perform(post("/accounts"), String.format("{\"name\": \"%s\"}", name))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("accountNumber").asLong();
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder builder, String body) throws Exception {
+        if (body != null) {
+            builder.contentType(MediaType.APPLICATION_JSON).content(body);
+        }
+        var result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
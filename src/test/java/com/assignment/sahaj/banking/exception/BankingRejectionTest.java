@@ -0,0 +1,67 @@
+package com.assignment.sahaj.banking.exception;
+
+import com.assignment.sahaj.banking.limit.Limits;
+import com.assignment.sahaj.banking.service.ValidationService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BankingRejectionTest {
+
+    private final Limits limits = Limits.builder()
+            .minimumBalanceLimit(Money.of("0.00"))
+            .maximumBalanceLimit(Money.of("100000.00"))
+            .dailyCreditLimit(3)
+            .dailyDebitLimit(2)
+            .minimumWithdrawalLimit(Money.of("1000.00"))
+            .maximumWithdrawalLimit(Money.of("25000.00"))
+            .minimumDepositLimit(Money.of("500.00"))
+            .maximumDepositLimit(Money.of("50000.00"))
+            .build();
+    private final ValidationService validationService = new ValidationService(null, null);
+
+    @Test
+    public void givenRejections_whenMessageRendered_thenSameAsFormattedMessages() {
+        assertThat(BankingRejection.of(BankingRejection.Reason.MINIMUM_WITHDRAWAL, Money.of("1000.00"), false, 1001L)
+                .getMessage()).isEqualTo("Minimum withdrawal amount is $1000.00");
+        assertThat(BankingRejection.of(BankingRejection.Reason.MAXIMUM_BALANCE, Money.of("100000.00"), true, 1001L)
+                .getMessage()).isEqualTo("Account balance of 1001 cannot exceed $100000.00 for account 1001");
+        assertThat(BankingRejection.of(BankingRejection.Reason.DAILY_DEBIT_LIMIT, 2, true, 1002L)
+                .getMessage()).isEqualTo("Only 2 withdrawals are allowed in a day for account 1002");
+        assertThat(BankingRejection.of(BankingRejection.Reason.INSUFFICIENT_BALANCE, 0L, false, 1001L)
+                .getMessage()).isEqualTo("Insufficient Balance");
+    }
+
+    @Test
+    public void givenRejection_whenThrown_thenNoStackTraceIsCaptured() {
+        var rejection = assertThrows(BankingRejection.class,
+                () -> validationService.validateDepositAmount(limits, Money.of("100.00"), true, 1001L));
+
+        assertThat(rejection.getStackTrace()).isEmpty();
+        assertThat(rejection.getReason()).isEqualTo(BankingRejection.Reason.MINIMUM_DEPOSIT);
+    }
+
+    @Test
+    public void givenRejectionWithoutAccount_whenThrownTwice_thenSuppressedExceptionsAreNotShared() {
+        var first = assertThrows(BankingRejection.class,
+                () -> validationService.validateWithdrawAmount(limits, Money.of("30000.00"), false, 1001L));
+        first.addSuppressed(new IllegalStateException("Reversal failed"));
+        var second = assertThrows(BankingRejection.class,
+                () -> validationService.validateWithdrawAmount(limits, Money.of("40000.00"), false, 1002L));
+        var transfer = assertThrows(BankingRejection.class,
+                () -> validationService.validateWithdrawAmount(limits, Money.of("40000.00"), true, 1002L));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getSuppressed()).isEmpty();
+        assertThat(second.getMessage()).isEqualTo("Maximum withdrawal amount is $25000.00");
+        assertThat(transfer.getMessage()).isEqualTo("Maximum withdrawal amount is $25000.00 for account 1002");
+    }
+
+    @Test
+    public void givenDailyDebitLimit_whenRejected_thenMessageUsesDebitLimit() {
+        assertThat(limits.rejection(BankingRejection.Reason.DAILY_DEBIT_LIMIT, false, 1001L).getMessage())
+                .isEqualTo("Only 2 withdrawals are allowed in a day");
+    }
+}
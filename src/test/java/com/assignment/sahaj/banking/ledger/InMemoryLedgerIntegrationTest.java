@@ -0,0 +1,121 @@
+package com.assignment.sahaj.banking.ledger;
+
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.limit.Limits;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.service.JournalService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_ACCOUNT_EXCEPTION_MESSAGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledgerdb",
+        "banking.engine.mode=in-memory",
+        "banking.daily.limit.credit=1000",
+        "banking.daily.limit.debit=1000"})
+public class InMemoryLedgerIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private LedgerWriter ledgerWriter;
+    @Autowired
+    private JournalService journalService;
+    @Autowired
+    private LimitPolicyProvider limitPolicyProvider;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void givenInMemoryMode_whenDepositedAndWithdrawn_thenBalanceAndJournalArePersistedOnFlush() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+        bankingService.withdraw(accountNumber, Money.of("2000.00"));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("3000.00"));
+
+        ledgerWriter.flush();
+        assertThat(accountRepository.findById(accountNumber).orElseThrow().getBalance())
+                .isEqualTo(Money.of("3000.00"));
+        assertThat(journalService.reconstructBalance(accountNumber)).isEqualTo(Money.of("3000.00"));
+    }
+
+    @Test
+    public void givenInMemoryMode_whenTransferredValidAmount_thenBothBalancesChange() {
+        var sourceAccountNumber = bankingService.createAccount("John Doe");
+        var destinationAccountNumber = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(sourceAccountNumber, Money.of("5000.00"));
+
+        bankingService.transferFund(sourceAccountNumber, destinationAccountNumber, Money.of("1000.00"));
+
+        assertThat(bankingService.getBalance(sourceAccountNumber)).isEqualTo(Money.of("4000.00"));
+        assertThat(bankingService.getBalance(destinationAccountNumber)).isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenInMemoryMode_whenWithdrawnBeyondMinimumBalance_thenBalanceIsUnchanged() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("1000.00"));
+
+        var exception = assertThrows(IllegalArgumentException.class,
+                () -> bankingService.withdraw(accountNumber, Money.of("2000.00")));
+
+        assertThat(exception.getMessage()).isEqualTo("Insufficient Balance");
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenInMemoryMode_whenDepositedToInvalidAccount_thenThrowException() {
+        var exception = assertThrows(IllegalArgumentException.class,
+                () -> bankingService.deposit(100L, Money.of("1000.00")));
+        assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_EXCEPTION_MESSAGE);
+    }
+
+    @Test
+    public void givenInMemoryMode_whenDepositedConcurrently_thenNoDepositIsLost() throws InterruptedException {
+        var accountNumber = bankingService.createAccount("John Doe");
+        var deposits = 100;
+        var executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < deposits; i++) {
+            executor.submit(() -> bankingService.deposit(accountNumber, limits().getMinimumDepositLimit()));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(bankingService.getBalance(accountNumber))
+                .isEqualTo(deposits * limits().getMinimumDepositLimit());
+    }
+
+    @Test
+    public void givenInMemoryMode_whenTransactionRollsBackAfterDeposit_thenBalanceAndJournalAreUnchanged() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            bankingService.deposit(accountNumber, Money.of("1000.00"));
+            throw new IllegalStateException("Failed after the deposit");
+        }));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("5000.00"));
+        ledgerWriter.flush();
+        assertThat(accountRepository.findById(accountNumber).orElseThrow().getBalance())
+                .isEqualTo(Money.of("5000.00"));
+        assertThat(journalService.reconstructBalance(accountNumber)).isEqualTo(Money.of("5000.00"));
+    }
+
+    private Limits limits() {
+        return limitPolicyProvider.current().getDefaults();
+    }
+}
@@ -0,0 +1,118 @@
+package com.assignment.sahaj.banking.ledger;
+
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.service.JournalService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledgerwaldb",
+        "banking.engine.mode=in-memory",
+        "banking.daily.limit.credit=1000",
+        "banking.daily.limit.debit=1000",
+        "banking.ledger.flush-interval-ms=3600000",
+        "banking.ledger.flush-threshold=1000000",
+        "banking.ledger.wal.enabled=true",
+        "banking.ledger.wal.directory=target/wal/context"})
+public class LedgerWriterIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private LedgerWriter ledgerWriter;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private JournalService journalService;
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void givenAccountsUpdatedRepeatedly_whenFlushed_thenEachAccountIsUpdatedOnce() {
+        var first = bankingService.createAccount("John Doe");
+        var second = bankingService.createAccount("Jane Doe");
+        ledgerWriter.flush();
+        var writtenEntries = ledgerWriter.getWrittenEntries();
+        var accountUpdates = ledgerWriter.getAccountUpdates();
+
+        for (int i = 0; i < 10; i++) {
+            bankingService.deposit(first, Money.of("1000.00"));
+            bankingService.deposit(second, Money.of("500.00"));
+        }
+
+        assertThat(ledgerWriter.pendingCount()).isEqualTo(20);
+        assertThat(ledgerWriter.flushLagNanos()).isPositive();
+        ledgerWriter.flush();
+        assertThat(ledgerWriter.pendingCount()).isZero();
+        assertThat(ledgerWriter.getWrittenEntries() - writtenEntries).isEqualTo(20);
+        assertThat(ledgerWriter.getAccountUpdates() - accountUpdates).isEqualTo(2);
+        assertThat(accountRepository.findById(first).orElseThrow().getBalance()).isEqualTo(Money.of("10000.00"));
+        assertThat(accountRepository.findById(second).orElseThrow().getBalance()).isEqualTo(Money.of("5000.00"));
+        assertThat(journalService.reconstructBalance(first)).isEqualTo(Money.of("10000.00"));
+    }
+
+    @Test
+    public void givenWriteAheadLog_whenOperationReturns_thenItHasBeenSynced() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        var syncs = ledgerWriter.getWalSyncs();
+
+        bankingService.deposit(accountNumber, Money.of("1000.00"));
+
+        assertThat(ledgerWriter.getWalSyncs()).isGreaterThan(syncs);
+    }
+
+    @Test
+    public void givenWriterStoppedWithoutFlushing_whenRestarted_thenLoggedEntriesAreWritten() throws IOException {
+        var accountNumber = bankingService.createAccount("John Doe");
+        var directory = Path.of("target/wal/crash-" + System.nanoTime());
+        var crashed = newWriter(directory);
+        crashed.start();
+        crashed.append(List.of(
+                entry(accountNumber, JournalEntry.Type.DEPOSIT, Money.of("5000.00"), Money.of("5000.00")),
+                entry(accountNumber, JournalEntry.Type.WITHDRAWAL, -Money.of("2000.00"), Money.of("3000.00"))));
+        crashed.awaitDurable();
+        // the writer is abandoned without stop(), as in a crash, so nothing reached the database
+        assertThat(accountRepository.findById(accountNumber).orElseThrow().getBalance()).isZero();
+
+        var restarted = newWriter(directory);
+        restarted.start();
+
+        assertThat(restarted.pendingCount()).isZero();
+        assertThat(accountRepository.findById(accountNumber).orElseThrow().getBalance())
+                .isEqualTo(Money.of("3000.00"));
+        assertThat(journalService.reconstructBalance(accountNumber)).isEqualTo(Money.of("3000.00"));
+    }
+
+    private LedgerWriter newWriter(Path directory) {
+        return new LedgerWriter(jdbcTemplate, journalEntryRepository, transactionTemplate, 3600000, 500, 1000000,
+                true, directory, 1 << 20);
+    }
+
+    private static JournalEntry entry(Long accountNumber, JournalEntry.Type type, long amount, long balanceAfter) {
+        return JournalEntry.builder()
+                .accountNumber(accountNumber)
+                .type(type)
+                .amount(amount)
+                .balanceAfter(balanceAfter)
+                .postedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.assignment.sahaj.banking.ledger;
+
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteAheadLogTest {
+
+    @Test
+    public void givenLoggedEntries_whenReopened_thenEntriesAfterTheCheckpointAreReplayedUnchanged() throws IOException {
+        var directory = Files.createTempDirectory("wal");
+        var entries = List.of(
+                entry(1001L, JournalEntry.Type.DEPOSIT, 500000, 500000, null),
+                entry(1001L, JournalEntry.Type.TRANSFER_OUT, -100000, 400000, 2001L),
+                entry(2001L, JournalEntry.Type.TRANSFER_IN, 100000, 100000, 1001L));
+        try (var log = WriteAheadLog.open(directory, 1 << 20, 0, (entry, sequence) -> {
+        })) {
+            log.append(1, entries);
+            log.sync(3);
+        }
+
+        var replayed = new ArrayList<JournalEntry>();
+        var sequences = new ArrayList<Long>();
+        replay(directory, 1, (entry, sequence) -> {
+            replayed.add(entry);
+            sequences.add(sequence);
+        });
+
+        assertThat(sequences).containsExactly(2L, 3L);
+        assertThat(replayed).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(entries.subList(1, 3));
+    }
+
+    @Test
+    public void givenTornLastRecord_whenReopened_thenItIsCutOffAndLoggingContinuesAfterIt() throws IOException {
+        var directory = Files.createTempDirectory("wal");
+        try (var log = WriteAheadLog.open(directory, 1 << 20, 0, (entry, sequence) -> {
+        })) {
+            log.append(1, List.of(entry(1001L, JournalEntry.Type.DEPOSIT, 500000, 500000, null),
+                    entry(1001L, JournalEntry.Type.WITHDRAWAL, -100000, 400000, null)));
+            log.sync(2);
+        }
+        // a crash in the middle of the next append leaves part of a record behind
+        var segment = segments(directory).get(0);
+        Files.write(segment, new byte[WriteAheadLog.RECORD_BYTES / 2], StandardOpenOption.APPEND);
+
+        var sequences = new ArrayList<Long>();
+        try (var log = WriteAheadLog.open(directory, 1 << 20, 0, (entry, sequence) -> sequences.add(sequence))) {
+            assertThat(sequences).containsExactly(1L, 2L);
+            assertThat(Files.size(segment)).isEqualTo(WriteAheadLog.HEADER_BYTES + 2L * WriteAheadLog.RECORD_BYTES);
+            log.append(3, List.of(entry(1001L, JournalEntry.Type.DEPOSIT, 100000, 500000, null)));
+            log.sync(3);
+        }
+
+        sequences.clear();
+        replay(directory, 0, (entry, sequence) -> sequences.add(sequence));
+        assertThat(sequences).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void givenFullSegments_whenTruncatedAtCheckpoint_thenOnlySegmentsAfterItAreKept() throws IOException {
+        var directory = Files.createTempDirectory("wal");
+        try (var log = WriteAheadLog.open(directory, WriteAheadLog.HEADER_BYTES + WriteAheadLog.RECORD_BYTES, 0,
+                (entry, sequence) -> {
+                })) {
+            for (long sequence = 1; sequence <= 3; sequence++) {
+                log.append(sequence, List.of(entry(1001L, JournalEntry.Type.DEPOSIT, 100000, sequence * 100000,
+                        null)));
+                log.rollOver();
+            }
+            assertThat(segments(directory)).hasSize(4);
+
+            log.truncate(2);
+
+            assertThat(segments(directory)).hasSize(2);
+        }
+        var sequences = new ArrayList<Long>();
+        replay(directory, 0, (entry, sequence) -> sequences.add(sequence));
+        assertThat(sequences).containsExactly(3L);
+    }
+
+    private static JournalEntry entry(Long accountNumber, JournalEntry.Type type, long amount, long balanceAfter,
+                                      Long counterpartyAccountNumber) {
+        return JournalEntry.builder()
+                .accountNumber(accountNumber)
+                .type(type)
+                .amount(amount)
+                .balanceAfter(balanceAfter)
+                .counterpartyAccountNumber(counterpartyAccountNumber)
+                .postedAt(LocalDateTime.now())
+                .build();
+    }
+
+    // opens the log, which replays the entries after the sequence, and closes it again
+    private static void replay(Path directory, long afterSequence, ObjLongConsumer<JournalEntry> replay)
+            throws IOException {
+        WriteAheadLog.open(directory, 1 << 20, afterSequence, replay).close();
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
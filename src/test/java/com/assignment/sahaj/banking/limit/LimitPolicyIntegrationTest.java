@@ -0,0 +1,104 @@
+package com.assignment.sahaj.banking.limit;
+
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:limitpolicydb",
+        "banking.limit.policy-file=./target/limit-policy/limits.properties",
+        "banking.limit.reload-interval-ms=3600000"})
+public class LimitPolicyIntegrationTest {
+
+    private static final Path POLICY_FILE = Path.of("./target/limit-policy/limits.properties");
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private LimitPolicyProvider limitPolicyProvider;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(POLICY_FILE);
+        limitPolicyProvider.reload();
+    }
+
+    @Test
+    public void givenBusinessAccount_whenAboveRetailLimits_thenBusinessLimitsApply() {
+        var retail = bankingService.createAccount("John Doe");
+        var business = bankingService.createAccount("Doe Holdings", Account.Tier.BUSINESS);
+
+        var rejection = assertThrows(BankingRejection.class,
+                () -> bankingService.deposit(retail, Money.of("100000.00")));
+        assertThat(rejection.getReason()).isEqualTo(BankingRejection.Reason.MAXIMUM_DEPOSIT);
+        for (int i = 0; i < 4; i++) {
+            bankingService.deposit(business, Money.of("100000.00"));
+        }
+        assertThat(bankingService.getBalance(business)).isEqualTo(Money.of("400000.00"));
+
+        var transfer = assertThrows(BankingRejection.class,
+                () -> bankingService.transferFund(business, retail, Money.of("60000.00")));
+        assertThat(transfer.getReason()).isEqualTo(BankingRejection.Reason.MAXIMUM_DEPOSIT);
+        assertThat(transfer.getMessage()).isEqualTo("Maximum deposit amount is $50000.00 for account " + retail);
+    }
+
+    @Test
+    public void givenPolicyFile_whenReloaded_thenNewLimitsApplyWithoutRestart() throws IOException {
+        var accountNumber = bankingService.createAccount("John Doe");
+        assertThrows(BankingRejection.class, () -> bankingService.deposit(accountNumber, Money.of("200.00")));
+
+        write("banking.deposit.limit.minimum=100.00\nbanking.tier.business.daily.limit.credit=50\n");
+        limitPolicyProvider.reload();
+
+        assertThat(bankingService.deposit(accountNumber, Money.of("200.00"))).isEqualTo(Money.of("200.00"));
+        var policy = limitPolicyProvider.current();
+        assertThat(policy.getDefaults().getDailyCreditLimit()).isEqualTo(3);
+        assertThat(policy.of(Account.Tier.BUSINESS).getDailyCreditLimit()).isEqualTo(50);
+        assertThat(policy.of(Account.Tier.BUSINESS).getMinimumDepositLimit()).isEqualTo(Money.of("100.00"));
+    }
+
+    @Test
+    public void givenTurkishDefaultLocale_whenReloaded_thenTierOverridesApply() throws IOException {
+        var defaultLocale = Locale.getDefault();
+        write("banking.tier.retail.daily.limit.credit=7\n");
+        try {
+            // "RETAIL" lower-cases to "retaıl" in Turkish
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            limitPolicyProvider.reload();
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+
+        assertThat(limitPolicyProvider.current().of(Account.Tier.RETAIL).getDailyCreditLimit()).isEqualTo(7);
+    }
+
+    @Test
+    public void givenInvalidPolicyFile_whenChangeDetected_thenCurrentLimitsAreKept() throws IOException {
+        var current = limitPolicyProvider.current();
+
+        write("banking.withdrawal.limit.minimum=30000.00\n");
+        limitPolicyProvider.reloadIfChanged();
+
+        assertThat(limitPolicyProvider.current()).isSameAs(current);
+        assertThrows(IllegalArgumentException.class, () -> limitPolicyProvider.reload());
+        assertThat(limitPolicyProvider.current()).isSameAs(current);
+    }
+
+    private static void write(String properties) throws IOException {
+        Files.createDirectories(POLICY_FILE.getParent());
+        Files.writeString(POLICY_FILE, properties);
+    }
+}
@@ -0,0 +1,143 @@
+package com.assignment.sahaj.banking.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static com.assignment.sahaj.banking.limit.PostingLimitTracker.Direction.CREDIT;
+import static com.assignment.sahaj.banking.limit.PostingLimitTracker.Direction.DEBIT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostingLimitTrackerTest {
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(LocalDateTime start) {
+            this.instant = start.toInstant(ZoneOffset.UTC);
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock(LocalDateTime.of(2022, 6, 1, 23, 0));
+
+    @Test
+    public void givenDailyWindow_whenLimitReached_thenRefusedUntilMidnight() {
+        var tracker = new PostingLimitTracker(LimitWindow.DAILY, clock, PostingLimitTracker.Seed.NONE);
+
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 2)).isTrue();
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 2)).isTrue();
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 2)).isFalse();
+        assertThat(tracker.tryAcquire(1001L, CREDIT, 2)).isTrue();
+
+        clock.advance(Duration.ofMinutes(59));
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 2)).isFalse();
+
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(tracker.count(1001L, DEBIT)).isZero();
+        assertThat(tracker.count(1001L, CREDIT)).isZero();
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 2)).isTrue();
+    }
+
+    @Test
+    public void givenRolling24HourWindow_whenHoursPass_thenOldPostingsExpireOneHourAtATime() {
+        var tracker = new PostingLimitTracker(LimitWindow.ROLLING_24H, clock, PostingLimitTracker.Seed.NONE);
+
+        assertThat(tracker.tryAcquire(1001L, CREDIT, 2)).isTrue();
+        clock.advance(Duration.ofHours(3));
+        assertThat(tracker.tryAcquire(1001L, CREDIT, 2)).isTrue();
+
+        // midnight has passed, but both credits are within the last 24 hours
+        clock.advance(Duration.ofHours(20));
+        assertThat(tracker.tryAcquire(1001L, CREDIT, 2)).isFalse();
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(tracker.count(1001L, CREDIT)).isEqualTo(1);
+        assertThat(tracker.tryAcquire(1001L, CREDIT, 2)).isTrue();
+
+        clock.advance(Duration.ofDays(2));
+        assertThat(tracker.count(1001L, CREDIT)).isZero();
+    }
+
+    @Test
+    public void givenHourlyWindow_whenHourRollsOver_thenCountsReset() {
+        var tracker = new PostingLimitTracker(LimitWindow.HOURLY, clock, PostingLimitTracker.Seed.NONE);
+
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 1)).isTrue();
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 1)).isFalse();
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 1)).isTrue();
+    }
+
+    @Test
+    public void givenReleasedPosting_whenAcquiredAgain_thenAllowed() {
+        var tracker = new PostingLimitTracker(LimitWindow.DAILY, clock, PostingLimitTracker.Seed.NONE);
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 1)).isTrue();
+
+        tracker.release(1001L, DEBIT);
+        tracker.release(1001L, DEBIT);
+
+        assertThat(tracker.count(1001L, DEBIT)).isZero();
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 1)).isTrue();
+    }
+
+    @Test
+    public void givenJournalSeed_whenAccountFirstSeen_thenPostingsInWindowAreCounted() {
+        var seededSince = new LocalDateTime[1];
+        var tracker = new PostingLimitTracker(LimitWindow.DAILY, clock, (accountNumber, direction, since) -> {
+            seededSince[0] = since;
+            return direction == DEBIT ? 2 : 0;
+        });
+
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 3)).isTrue();
+        assertThat(tracker.tryAcquire(1001L, DEBIT, 3)).isFalse();
+        assertThat(tracker.tryAcquire(1001L, CREDIT, 3)).isTrue();
+        assertThat(seededSince[0]).isEqualTo(LocalDateTime.of(2022, 6, 1, 0, 0));
+    }
+
+    @Test
+    public void givenManyAccounts_whenWindowHasPassed_thenIdleAccountsAreDropped() {
+        var tracker = new PostingLimitTracker(LimitWindow.DAILY, clock, PostingLimitTracker.Seed.NONE);
+        for (long accountNumber = 1001; accountNumber < 21001; accountNumber++) {
+            assertThat(tracker.tryAcquire(accountNumber, CREDIT, 3)).isTrue();
+        }
+        assertThat(tracker.trackedAccounts()).isEqualTo(20000);
+        for (long accountNumber = 1001; accountNumber < 21001; accountNumber++) {
+            assertThat(tracker.count(accountNumber, CREDIT)).isEqualTo(1);
+        }
+
+        clock.advance(Duration.ofDays(1));
+        for (long accountNumber = 21001; accountNumber < 41001; accountNumber++) {
+            tracker.tryAcquire(accountNumber, CREDIT, 3);
+        }
+
+        assertThat(tracker.trackedAccounts()).isLessThan(40000);
+        assertThat(tracker.count(1001L, CREDIT)).isZero();
+        assertThat(tracker.count(41000L, CREDIT)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.assignment.sahaj.banking.metrics;
+
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricsdb")
+@AutoConfigureMetrics
+public class BankingMetricsIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @Test
+    public void givenOperations_whenCompletedOrRejected_thenTimedByOutcome() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        var deposits = timerCount("deposit", "success");
+        var rejectedWithdrawals = timerCount("withdraw", "rejected");
+
+        bankingService.deposit(accountNumber, Money.of("1000.00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> bankingService.withdraw(accountNumber, Money.of("2000.00")));
+
+        assertThat(timerCount("deposit", "success")).isEqualTo(deposits + 1);
+        assertThat(timerCount("withdraw", "rejected")).isEqualTo(rejectedWithdrawals + 1);
+    }
+
+    @Test
+    public void givenRejections_whenCounted_thenTaggedByReason() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        var insufficientBalance = rejectionCount("insufficient_balance");
+        var minimumDeposit = rejectionCount("minimum_deposit");
+        var invalidAccount = rejectionCount("invalid_account");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bankingService.withdraw(accountNumber, Money.of("1000.00")));
+        assertThrows(IllegalArgumentException.class,
+                () -> bankingService.deposit(accountNumber, Money.of("100.00")));
+        assertThrows(IllegalArgumentException.class, () -> bankingService.getBalance(99999L));
+
+        assertThat(rejectionCount("insufficient_balance")).isEqualTo(insufficientBalance + 1);
+        assertThat(rejectionCount("minimum_deposit")).isEqualTo(minimumDeposit + 1);
+        assertThat(rejectionCount("invalid_account")).isEqualTo(invalidAccount + 1);
+    }
+
+    @Test
+    public void givenPrometheusScrape_whenRendered_thenContainsHistogramsAndPoolGauges() {
+        bankingService.getBalance(bankingService.createAccount("John Doe"));
+
+        var scrape = prometheusMeterRegistry.scrape();
+
+        assertThat(scrape).contains(
+                "banking_operation_seconds_bucket{application=\"banking\",operation=\"getBalance\"");
+        assertThat(scrape).contains("banking_rejections_total");
+        assertThat(scrape).contains("hikaricp_connections_active");
+        assertThat(scrape).contains("cache_gets_total{application=\"banking\",cache=\"account.balances\"");
+        assertThat(scrape).contains("banking_lock_wait_seconds_count");
+    }
+
+    private long timerCount(String operation, String outcome) {
+        return meterRegistry.get("banking.operation").tag("operation", operation).tag("outcome", outcome).timer()
+                .count();
+    }
+
+    private double rejectionCount(String reason) {
+        return meterRegistry.get("banking.rejections").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,139 @@
+package com.assignment.sahaj.banking.pipeline;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.limit.PostingLimitTracker;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.service.JournalService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pipelinedb",
+        "banking.pipeline.enabled=true",
+        "banking.pipeline.partitions=2",
+        "banking.pipeline.group-wait-us=2000"})
+public class CommandPipelineIntegrationTest {
+
+    @Autowired
+    private CommandPipeline commandPipeline;
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private JournalService journalService;
+    @Autowired
+    private PostingLimitTracker postingLimitTracker;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenCommandsForOneAccount_whenSubmittedTogether_thenAppliedInSubmissionOrder() throws Exception {
+        var accountNumber = bankingService.createAccount("John Doe");
+
+        var deposit = commandPipeline.deposit(accountNumber, Money.of("2000.00"));
+        var firstWithdrawal = commandPipeline.withdraw(accountNumber, Money.of("1000.00"));
+        var secondWithdrawal = commandPipeline.withdraw(accountNumber, Money.of("1000.00"));
+
+        assertThat(deposit.get(5, TimeUnit.SECONDS)).isEqualTo(Money.of("2000.00"));
+        assertThat(firstWithdrawal.get(5, TimeUnit.SECONDS)).isEqualTo(Money.of("1000.00"));
+        assertThat(secondWithdrawal.get(5, TimeUnit.SECONDS)).isZero();
+        assertThat(journalService.reconstructBalance(accountNumber)).isZero();
+    }
+
+    @Test
+    public void givenRejectedCommand_whenGroupedWithOthers_thenOnlyThatCommandFails() throws Exception {
+        var payer = bankingService.createAccount("John Doe");
+        var payee = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(payer, Money.of("5000.00"));
+
+        var transfer = commandPipeline.transferFund(payer, payee, Money.of("2000.00"));
+        var invalid = commandPipeline.deposit(100L, Money.of("1000.00"));
+        var overdraft = commandPipeline.withdraw(payer, Money.of("4000.00"));
+        var deposit = commandPipeline.deposit(payer, Money.of("1000.00"));
+
+        assertThat(transfer.get(5, TimeUnit.SECONDS)).isNotBlank();
+        assertThat(reasonOf(invalid)).isEqualTo(BankingRejection.Reason.INVALID_ACCOUNT);
+        assertThat(reasonOf(overdraft)).isEqualTo(BankingRejection.Reason.INSUFFICIENT_BALANCE);
+        assertThat(deposit.get(5, TimeUnit.SECONDS)).isEqualTo(Money.of("4000.00"));
+        assertThat(bankingService.getBalance(payee)).isEqualTo(Money.of("2000.00"));
+    }
+
+    @Test
+    public void givenCommandFailingItsGroup_whenGroupedWithOthers_thenOnlyThatCommandFailsAndOthersCountOnce()
+            throws Exception {
+        var accountNumber = bankingService.createAccount("John Doe");
+        // the database refuses this one amount, which fails the commit of the whole group
+        jdbcTemplate.execute("ALTER TABLE journal_entry ADD CONSTRAINT ck_test_amount CHECK (amount <> 77777)");
+        try {
+            var first = commandPipeline.deposit(accountNumber, Money.of("1000.00"));
+            var refused = commandPipeline.deposit(accountNumber, Money.of("777.77"));
+            var second = commandPipeline.deposit(accountNumber, Money.of("1000.00"));
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(Money.of("1000.00"));
+            var exception = assertThrows(ExecutionException.class, () -> refused.get(5, TimeUnit.SECONDS));
+            assertThat(exception.getCause()).isNotInstanceOf(BankingRejection.class);
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(Money.of("2000.00"));
+            assertThat(postingLimitTracker.count(accountNumber, PostingLimitTracker.Direction.CREDIT)).isEqualTo(2);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE journal_entry DROP CONSTRAINT ck_test_amount");
+        }
+    }
+
+    @Test
+    public void givenDailyCreditLimit_whenDepositsSubmittedTogether_thenLimitStillApplies() throws Exception {
+        var accountNumber = bankingService.createAccount("John Doe");
+
+        var deposits = new ArrayList<CompletableFuture<Long>>();
+        for (int i = 0; i < 4; i++) {
+            deposits.add(commandPipeline.deposit(accountNumber, Money.of("1000.00")));
+        }
+
+        assertThat(deposits.get(2).get(5, TimeUnit.SECONDS)).isEqualTo(Money.of("3000.00"));
+        assertThat(reasonOf(deposits.get(3))).isEqualTo(BankingRejection.Reason.DAILY_CREDIT_LIMIT);
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("3000.00"));
+    }
+
+    @Test
+    public void givenTransfersAcrossPartitions_whenSubmittedConcurrently_thenAllAreApplied() throws Exception {
+        var accountNumbers = new ArrayList<Long>();
+        for (int i = 0; i < 8; i++) {
+            var accountNumber = bankingService.createAccount("Customer " + i);
+            bankingService.deposit(accountNumber, Money.of("10000.00"));
+            accountNumbers.add(accountNumber);
+        }
+
+        // every account pays the next one, so each group holds accounts of the other partition as well
+        var transfers = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < accountNumbers.size(); i++) {
+            transfers.add(commandPipeline.transferFund(accountNumbers.get(i),
+                    accountNumbers.get((i + 1) % accountNumbers.size()), Money.of("1000.00")));
+            transfers.add(commandPipeline.transferFund(accountNumbers.get((i + 1) % accountNumbers.size()),
+                    accountNumbers.get(i), Money.of("2000.00")));
+        }
+        CompletableFuture.allOf(transfers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        var total = 0L;
+        for (var accountNumber : accountNumbers) {
+            assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("10000.00"));
+            total += journalService.reconstructBalance(accountNumber);
+        }
+        assertThat(total).isEqualTo(Money.of("80000.00"));
+        assertThat(commandPipeline.getQueued()).isZero();
+    }
+
+    private static BankingRejection.Reason reasonOf(CompletableFuture<?> future) {
+        var exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(BankingRejection.class);
+        return ((BankingRejection) exception.getCause()).getReason();
+    }
+}
@@ -0,0 +1,127 @@
+package com.assignment.sahaj.banking.replica;
+
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicaprimarydb",
+        "banking.cache.enabled=false",
+        "banking.replica.enabled=true",
+        "banking.replica.urls=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "banking.replica.max-lag-ms=500",
+        "banking.replica.heartbeat-interval-ms=3600000"})
+public class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1";
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private ReplicaMonitor replicaMonitor;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenReplicaCaughtUp_whenBalanceRead_thenItIsReadFromTheReplica() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+        catchUp();
+        setReplicaBalance(accountNumber, Money.of("1234.00"));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("1234.00"));
+    }
+
+    @Test
+    public void givenReplicaBehindMaximumLag_whenBalanceRead_thenItIsReadFromThePrimary() throws InterruptedException {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+        catchUp();
+        setReplicaBalance(accountNumber, Money.of("1234.00"));
+
+        Thread.sleep(600);
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("5000.00"));
+    }
+
+    @Test
+    public void givenSessionWrote_whenBalanceReadInSession_thenItReadsItsWriteUntilTheReplicaHasCaughtUp() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+        catchUp();
+        var session = new ReadSession();
+
+        ReadSession.callWith(session, () -> bankingService.deposit(accountNumber, Money.of("1000.00")));
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("5000.00"));
+        assertThat(ReadSession.callWith(session, () -> bankingService.getBalance(accountNumber)))
+                .isEqualTo(Money.of("6000.00"));
+
+        catchUp();
+        setReplicaBalance(accountNumber, Money.of("1234.00"));
+        assertThat(ReadSession.callWith(session, () -> bankingService.getBalance(accountNumber)))
+                .isEqualTo(Money.of("1234.00"));
+    }
+
+    @Test
+    public void givenAnotherNodeBeatAhead_whenBalanceReadInSession_thenItStillReadsItsWrite() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+        catchUp();
+        // a second application node sharing the primary
+        var otherNode = new ReplicaMonitor(replicaMonitor.getPrimary(), List.of(), 500);
+        for (int i = 0; i < 3; i++) {
+            otherNode.beat();
+        }
+        copyToReplica();
+        var session = new ReadSession();
+
+        ReadSession.callWith(session, () -> bankingService.deposit(accountNumber, Money.of("1000.00")));
+
+        assertThat(ReadSession.callWith(session, () -> bankingService.getBalance(accountNumber)))
+                .isEqualTo(Money.of("6000.00"));
+    }
+
+    @Test
+    public void givenReplicaFailingItsCheck_whenBalanceRead_thenItIsReadFromThePrimary() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+        catchUp();
+        var primaryReads = replicaMonitor.getPrimaryReads();
+
+        replica.execute("DROP ALL OBJECTS");
+        replicaMonitor.check();
+
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("5000.00"));
+        assertThat(replicaMonitor.getPrimaryReads()).isEqualTo(primaryReads + 1);
+        assertThat(replicaMonitor.getReplicas().get(0).isAvailable()).isFalse();
+    }
+
+    // replication is stubbed by copying the whole primary database to the replica
+    private void catchUp() {
+        replicaMonitor.beat();
+        copyToReplica();
+    }
+
+    private void copyToReplica() {
+        var script = jdbcTemplate.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+        replicaMonitor.check();
+    }
+
+    // a value only the replica holds tells which database answered
+    private void setReplicaBalance(Long accountNumber, long balance) {
+        replica.update("UPDATE account SET balance = ? WHERE account_number = ?", balance, accountNumber);
+    }
+}
@@ -0,0 +1,76 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.repository.CustomerRepository;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:onboardingdb",
+        "banking.onboarding.batch-size=100"})
+public class AccountOnboardingIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    public void givenStreamOfNames_whenCreateAccounts_thenEveryNameGetsAnAccount() {
+        var accountsBefore = accountRepository.count();
+        var names = new ArrayList<String>();
+        var accountNumbers = new HashSet<Long>();
+
+        var created = bankingService.createAccounts(IntStream.range(0, 2550).mapToObj(i -> "Customer " + i),
+                (name, accountNumber) -> {
+                    names.add(name);
+                    accountNumbers.add(accountNumber);
+                });
+
+        assertThat(created).isEqualTo(2550);
+        assertThat(names).first().isEqualTo("Customer 0");
+        assertThat(names).last().isEqualTo("Customer 2549");
+        assertThat(accountNumbers).hasSize(2550).allMatch(accountNumber -> accountNumber >= 1001);
+        assertThat(accountRepository.count()).isEqualTo(accountsBefore + 2550);
+        assertThat(customerRepository.findByName("Customer 1234")).hasSize(1);
+
+        var accountNumber = accountNumbers.iterator().next();
+        assertThat(bankingService.getBalance(accountNumber)).isZero();
+        assertThat(bankingService.deposit(accountNumber, Money.of("1000.00"))).isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenBlankNameInStream_whenCreateAccounts_thenEarlierBatchesAreKept() {
+        var accountsBefore = accountRepository.count();
+        var names = Stream.concat(IntStream.range(0, 150).mapToObj(i -> "Onboarded " + i), Stream.of(" "));
+
+        var rejection = assertThrows(BankingRejection.class, () -> bankingService.createAccounts(names));
+
+        assertThat(rejection.getReason()).isEqualTo(BankingRejection.Reason.INVALID_NAME);
+        assertThat(accountRepository.count()).isEqualTo(accountsBefore + 100);
+    }
+
+    @Test
+    public void givenAccountsCreatedInBulk_whenCreatedOneByOne_thenNumbersDoNotCollide() {
+        var bulk = new HashSet<Long>();
+        bankingService.createAccounts(Stream.of("Jane Doe", "John Doe"),
+                (name, accountNumber) -> bulk.add(accountNumber));
+
+        var single = bankingService.createAccount("Jim Doe");
+
+        assertThat(bulk).hasSize(2).doesNotContain(single);
+    }
+}
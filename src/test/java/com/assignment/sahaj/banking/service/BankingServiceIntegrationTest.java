@@ -1,7 +1,9 @@
 package com.assignment.sahaj.banking.service;
 
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.limit.Limits;
 import com.assignment.sahaj.banking.repository.AccountRepository;
-import com.assignment.sahaj.banking.utils.PropertyUtil;
+import com.assignment.sahaj.banking.utils.Money;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -25,7 +27,7 @@ public class BankingServiceIntegrationTest {
     @Autowired
     private BankingService bankingService;
     @Autowired
-    private PropertyUtil propertyUtil;
+    private LimitPolicyProvider limitPolicyProvider;
 
     @Test
     public void givenValidName_whenCreateAccount_thenSuccessful() {
@@ -50,8 +52,8 @@ public class BankingServiceIntegrationTest {
 
     @Test
     public void givenValidBankAccount_whenDepositedValidAmount_thenSuccessful() {
-        var amount = (propertyUtil.getMinimumDepositLimit()
-                + propertyUtil.getMaximumDepositLimit()) / 2; // Minimum Deposit Limit < amount < Maximum Deposit Limit
+        var amount = (limits().getMinimumDepositLimit()
+                + limits().getMaximumDepositLimit()) / 2; // Minimum Deposit Limit < amount < Maximum Deposit Limit
         var accountNumber = bankingService.createAccount("John Doe");
         var balance = bankingService.deposit(accountNumber, amount);
         assertThat(balance).isEqualTo(amount);
@@ -59,28 +61,30 @@ public class BankingServiceIntegrationTest {
 
     @Test
     public void givenValidBankAccount_whenDepositedAmountLessThanMinimumDepositLimit_thenThrowException() {
-        var amount = propertyUtil.getMinimumDepositLimit() - 1; // amount < Minimum Deposit Limit
+        var amount = limits().getMinimumDepositLimit() - 1; // amount < Minimum Deposit Limit by one cent
         var accountNumber = bankingService.createAccount("John Doe");
         var exception = assertThrows(IllegalArgumentException.class,
                 () -> bankingService.deposit(accountNumber, amount));
         assertThat(exception.getMessage()).isEqualTo(
-                String.format(MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMinimumDepositLimit()));
+                String.format(MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE,
+                        Money.format(limits().getMinimumDepositLimit())));
     }
 
     @Test
     public void givenValidBankAccount_whenDepositedAmountGreaterThanMaximumDepositLimit_thenThrowException() {
-        var amount = propertyUtil.getMaximumDepositLimit() + 1; // amount > Maximum Deposit Limit
+        var amount = limits().getMaximumDepositLimit() + 1; // amount > Maximum Deposit Limit by one cent
         var accountNumber = bankingService.createAccount("John Doe");
         var exception = assertThrows(IllegalArgumentException.class,
                 () -> bankingService.deposit(accountNumber, amount));
         assertThat(exception.getMessage()).isEqualTo(
-                String.format(MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMaximumDepositLimit()));
+                String.format(MAXIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE,
+                        Money.format(limits().getMaximumDepositLimit())));
     }
 
     @Test
     public void givenInvalidBankAccount_whenDepositedValidAmount_thenThrowException() {
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.deposit(100L, 1000.00));
+                () -> bankingService.deposit(100L, Money.of("1000.00")));
         assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_EXCEPTION_MESSAGE);
     }
 
@@ -89,29 +93,30 @@ public class BankingServiceIntegrationTest {
         var accountNumber = bankingService.createAccount("John Doe");
         accountRepository.findById(accountNumber)
                 .ifPresent(account -> {
-                    account.credit(propertyUtil.getMaximumBalanceLimit()); // deposit maximum balance limit
+                    account.credit(limits().getMaximumBalanceLimit()); // deposit maximum balance limit
                     accountRepository.saveAndFlush(account);
                 });
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.deposit(accountNumber, 1000.00));
-        assertThat(exception.getMessage()).contains(String.format("cannot exceed $%.2f", propertyUtil.getMaximumBalanceLimit()));
+                () -> bankingService.deposit(accountNumber, Money.of("1000.00")));
+        assertThat(exception.getMessage()).contains(String.format("cannot exceed $%s",
+                Money.format(limits().getMaximumBalanceLimit())));
     }
 
     @Test
     public void givenValidBankAccount_whenDepositedValidAmountBeyondDailyDepositLimit_thenThrowException() {
         var accountNumber = bankingService.createAccount("John Doe");
-        for (int i = 0; i < propertyUtil.getDailyCreditLimit(); i++) {
-            bankingService.deposit(accountNumber, propertyUtil.getMinimumDepositLimit());
+        for (int i = 0; i < limits().getDailyCreditLimit(); i++) {
+            bankingService.deposit(accountNumber, limits().getMinimumDepositLimit());
         }
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.deposit(accountNumber, 1000.00));
+                () -> bankingService.deposit(accountNumber, Money.of("1000.00")));
         assertThat(exception.getMessage()).isEqualTo(String.format(
-                MAXIMUM_DAILY_CREDIT_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getDailyCreditLimit()));
+                MAXIMUM_DAILY_CREDIT_LIMIT_EXCEPTION_MESSAGE, limits().getDailyCreditLimit()));
     }
 
     @Test
     public void givenValidAccount_whenGetBalance_thenSuccessful() {
-        var deposit = (propertyUtil.getMinimumDepositLimit() + propertyUtil.getMaximumDepositLimit()) / 2;
+        var deposit = (limits().getMinimumDepositLimit() + limits().getMaximumDepositLimit()) / 2;
         var accountNumber = bankingService.createAccount("John Doe");
         bankingService.deposit(accountNumber, deposit);
         var balance = bankingService.getBalance(accountNumber);
@@ -127,8 +132,8 @@ public class BankingServiceIntegrationTest {
 
     @Test
     public void givenValidBankAccount_whenWithdrawnValidAmount_thenSuccessful() {
-        var amount = (propertyUtil.getMinimumDepositLimit()
-                + propertyUtil.getMaximumDepositLimit()) / 2; // Minimum Withdrawal Limit < amount < Maximum Withdrawal Limit
+        // Minimum Withdrawal Limit < amount < Maximum Withdrawal Limit
+        var amount = (limits().getMinimumDepositLimit() + limits().getMaximumDepositLimit()) / 2;
         var accountNumber = bankingService.createAccount("John Doe");
         bankingService.deposit(accountNumber, amount); // deposit amount
         var balance = bankingService.withdraw(accountNumber, amount / 2); // withdraw half of amount
@@ -138,27 +143,29 @@ public class BankingServiceIntegrationTest {
     @Test
     public void givenValidBankAccount_whenWithdrawnAmountLessThanMinimumWithdrawalLimit_thenThrowException() {
         var accountNumber = bankingService.createAccount("John Doe");
-        bankingService.deposit(accountNumber, propertyUtil.getMaximumDepositLimit());
+        bankingService.deposit(accountNumber, limits().getMaximumDepositLimit());
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.withdraw(accountNumber, propertyUtil.getMinimumWithdrawalLimit() - 1));
+                () -> bankingService.withdraw(accountNumber, limits().getMinimumWithdrawalLimit() - 1));
         assertThat(exception.getMessage()).isEqualTo(
-                String.format(MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMinimumWithdrawalLimit()));
+                String.format(MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE,
+                        Money.format(limits().getMinimumWithdrawalLimit())));
     }
 
     @Test
     public void givenValidBankAccount_whenWithdrawnAmountGreaterThanMaximumWithdrawalLimit_thenThrowException() {
         var accountNumber = bankingService.createAccount("John Doe");
-        bankingService.deposit(accountNumber, propertyUtil.getMaximumDepositLimit());
+        bankingService.deposit(accountNumber, limits().getMaximumDepositLimit());
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.withdraw(accountNumber, 26000.00));
+                () -> bankingService.withdraw(accountNumber, Money.of("26000.00")));
         assertThat(exception.getMessage()).isEqualTo(
-                String.format(MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMaximumWithdrawalLimit()));
+                String.format(MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE,
+                        Money.format(limits().getMaximumWithdrawalLimit())));
     }
 
     @Test
     public void givenInvalidBankAccount_whenWithdrawnValidAmount_thenThrowException() {
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.withdraw(100L, 1000.00));
+                () -> bankingService.withdraw(100L, Money.of("1000.00")));
         assertThat(exception.getMessage()).isEqualTo(INVALID_ACCOUNT_EXCEPTION_MESSAGE);
     }
 
@@ -167,11 +174,11 @@ public class BankingServiceIntegrationTest {
         var accountNumber = bankingService.createAccount("John Doe");
         accountRepository.findById(accountNumber)
                 .ifPresent(account -> {
-                    account.credit(propertyUtil.getMinimumBalanceLimit()); // account balance == minimum balance limit
+                    account.credit(limits().getMinimumBalanceLimit()); // account balance == minimum balance limit
                     accountRepository.saveAndFlush(account);
                 });
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.withdraw(accountNumber, propertyUtil.getMinimumWithdrawalLimit()));
+                () -> bankingService.withdraw(accountNumber, limits().getMinimumWithdrawalLimit()));
         assertThat(exception.getMessage()).isEqualTo("Insufficient Balance");
     }
 
@@ -180,22 +187,22 @@ public class BankingServiceIntegrationTest {
         var accountNumber = bankingService.createAccount("John Doe");
         accountRepository.findById(accountNumber)
                 .ifPresent(account -> {
-                    account.credit(propertyUtil.getMaximumBalanceLimit()); // account balance == maximum balance limit
+                    account.credit(limits().getMaximumBalanceLimit()); // account balance == maximum balance limit
                     accountRepository.saveAndFlush(account);
                 });
-        for (int i = 0; i < propertyUtil.getDailyDebitLimit(); i++) {
-            bankingService.withdraw(accountNumber, propertyUtil.getMinimumWithdrawalLimit());
+        for (int i = 0; i < limits().getDailyDebitLimit(); i++) {
+            bankingService.withdraw(accountNumber, limits().getMinimumWithdrawalLimit());
         }
         var exception = assertThrows(IllegalArgumentException.class,
-                () -> bankingService.withdraw(accountNumber, propertyUtil.getMinimumWithdrawalLimit()));
+                () -> bankingService.withdraw(accountNumber, limits().getMinimumWithdrawalLimit()));
         assertThat(exception.getMessage()).isEqualTo(
-                String.format(MAXIMUM_DAILY_DEBIT_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getDailyDebitLimit()));
+                String.format(MAXIMUM_DAILY_DEBIT_LIMIT_EXCEPTION_MESSAGE, limits().getDailyDebitLimit()));
     }
 
     @Test
     public void givenValidAccounts_whenTransferredValidAmount_thenSuccessful() {
-        var deposit = propertyUtil.getMaximumDepositLimit();
-        var transfer = propertyUtil.getMinimumWithdrawalLimit();
+        var deposit = limits().getMaximumDepositLimit();
+        var transfer = limits().getMinimumWithdrawalLimit();
         var sourceAccountNumber = bankingService.createAccount("John Doe");
         var destinationAccountNumber = bankingService.createAccount("Jane Doe");
         bankingService.deposit(sourceAccountNumber, deposit);
@@ -205,28 +212,33 @@ public class BankingServiceIntegrationTest {
 
     @Test
     public void givenValidAccounts_whenTransferredAmountLesserThanMinimumWithdrawalLimit_thenException() {
-        var deposit = propertyUtil.getMaximumDepositLimit();
-        var transfer = propertyUtil.getMinimumWithdrawalLimit() - 1;
+        var deposit = limits().getMaximumDepositLimit();
+        var transfer = limits().getMinimumWithdrawalLimit() - 1;
         var sourceAccountNumber = bankingService.createAccount("John Doe");
         var destinationAccountNumber = bankingService.createAccount("Jane Doe");
         bankingService.deposit(sourceAccountNumber, deposit);
         var exception = assertThrows(IllegalArgumentException.class,
                 () -> bankingService.transferFund(sourceAccountNumber, destinationAccountNumber, transfer));
         assertThat(exception.getMessage()).startsWith(
-                String.format(MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMinimumWithdrawalLimit()));
+                String.format(MINIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE,
+                        Money.format(limits().getMinimumWithdrawalLimit())));
     }
 
     @Test
     public void givenValidAccounts_whenTransferredAmountGreaterThanMaximumWithdrawalLimit_thenException() {
-        var deposit = propertyUtil.getMaximumDepositLimit();
-        var transfer = propertyUtil.getMaximumWithdrawalLimit() + 1;
+        var deposit = limits().getMaximumDepositLimit();
+        var transfer = limits().getMaximumWithdrawalLimit() + 1;
         var sourceAccountNumber = bankingService.createAccount("John Doe");
         var destinationAccountNumber = bankingService.createAccount("Jane Doe");
         bankingService.deposit(sourceAccountNumber, deposit);
         var exception = assertThrows(IllegalArgumentException.class,
                 () -> bankingService.transferFund(sourceAccountNumber, destinationAccountNumber, transfer));
         assertThat(exception.getMessage()).startsWith(
-                String.format(MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE, propertyUtil.getMaximumWithdrawalLimit()));
+                String.format(MAXIMUM_WITHDRAWAL_LIMIT_EXCEPTION_MESSAGE,
+                        Money.format(limits().getMaximumWithdrawalLimit())));
     }
 
+    private Limits limits() {
+        return limitPolicyProvider.current().getDefaults();
+    }
 }
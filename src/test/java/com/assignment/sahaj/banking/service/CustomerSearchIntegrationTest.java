@@ -0,0 +1,105 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.dto.CustomerMatch;
+import com.assignment.sahaj.banking.search.NameKeyBackfill;
+import com.assignment.sahaj.banking.search.TypeaheadIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_CURSOR_EXCEPTION_MESSAGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchdb",
+        "banking.search.typeahead.enabled=true",
+        "banking.search.typeahead.rebuild-interval-ms=3600000"})
+public class CustomerSearchIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private CustomerSearchService customerSearchService;
+    @Autowired
+    private TypeaheadIndex typeaheadIndex;
+    @Autowired
+    private NameKeyBackfill nameKeyBackfill;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenMatchingCustomers_whenSearchedByPrefix_thenPagesFollowNameOrderIgnoringCase() {
+        bankingService.createAccounts(Stream.of("Zelda Brown", "zelda adams", "ZELDA CLARK", "Zelda Adams",
+                "Zeke Adams", "Zelma Doe"));
+
+        var names = new ArrayList<String>();
+        var page = customerSearchService.search("zeld", null, 2);
+        assertThat(page.getMatches()).hasSize(2);
+        while (true) {
+            page.getMatches().forEach(match -> names.add(match.getName()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = customerSearchService.search("zeld", page.getNextCursor(), 2);
+        }
+
+        assertThat(names).hasSize(4);
+        assertThat(names.subList(0, 2)).containsExactlyInAnyOrder("zelda adams", "Zelda Adams");
+        assertThat(names.subList(2, 4)).containsExactly("Zelda Brown", "ZELDA CLARK");
+    }
+
+    @Test
+    public void givenCustomerStoredWithoutNameKey_whenBackfilled_thenFoundBySearch() {
+        // an em space, which Java strips but SQL's TRIM keeps
+        var name = "\u2003Winifred Backfill";
+        var accountNumber = bankingService.createAccount(name);
+        jdbcTemplate.update("UPDATE customer SET name_key = NULL WHERE name = ?", name);
+        assertThat(customerSearchService.search("winifred", null, null).getMatches()).isEmpty();
+
+        nameKeyBackfill.backfill();
+
+        assertThat(customerSearchService.search("winifred", null, null).getMatches())
+                .extracting(CustomerMatch::getAccountNumber).containsExactly(accountNumber);
+    }
+
+    @Test
+    public void givenWildcardInPrefix_whenSearched_thenMatchedLiterally() {
+        bankingService.createAccounts(Stream.of("Percy 100% Sure", "Percy 1000"));
+
+        var matches = customerSearchService.search("percy 100%", null, null).getMatches();
+
+        assertThat(matches).extracting(CustomerMatch::getName).containsExactly("Percy 100% Sure");
+        assertThat(matches.get(0).getAccountNumber()).isNotNull();
+    }
+
+    @Test
+    public void givenInvalidCursor_whenSearched_thenThrowIllegalArgumentException() {
+        var exception = assertThrows(IllegalArgumentException.class,
+                () -> customerSearchService.search("john", "not-a-cursor", null));
+
+        assertThat(exception.getMessage()).isEqualTo(INVALID_CURSOR_EXCEPTION_MESSAGE);
+    }
+
+    @Test
+    public void givenTypeaheadIndex_whenSuggested_thenMatchesComeFromIndexInNameOrder() {
+        var first = bankingService.createAccount("Quentin Blake");
+        var second = bankingService.createAccount("quincy adams");
+        bankingService.createAccount("Rupert Quist");
+        typeaheadIndex.rebuild();
+
+        var suggestions = customerSearchService.suggest("QU", 10);
+        var late = bankingService.createAccount("Quade Early");
+
+        assertThat(suggestions).extracting(CustomerMatch::getAccountNumber).containsExactly(first, second);
+        assertThat(customerSearchService.suggest("qu", 10)).extracting(CustomerMatch::getAccountNumber)
+                .doesNotContain(late);
+        typeaheadIndex.rebuild();
+        assertThat(customerSearchService.suggest("qu", 1)).extracting(CustomerMatch::getAccountNumber)
+                .containsExactly(late);
+    }
+}
@@ -0,0 +1,112 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.idempotency.IdempotencyKey;
+import com.assignment.sahaj.banking.idempotency.IdempotencyStore;
+import com.assignment.sahaj.banking.repository.IdempotencyRecordRepository;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotencydb",
+        "banking.idempotency.persistent=true"
+})
+public class IdempotentBankingServiceIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private IdempotentBankingService idempotentBankingService;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    private ValidationService validationService;
+
+    @Test
+    public void givenRepeatedKey_whenDeposited_thenAppliedOnceAndOriginalBalanceReturned() {
+        var accountNumber = bankingService.createAccount("John Doe");
+
+        var first = idempotentBankingService.deposit("deposit-1", accountNumber, Money.of("1000.00"));
+        bankingService.deposit(accountNumber, Money.of("500.00"));
+        var replayed = idempotentBankingService.deposit("deposit-1", accountNumber, Money.of("1000.00"));
+
+        assertThat(replayed).isEqualTo(first).isEqualTo(Money.of("1000.00"));
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("1500.00"));
+    }
+
+    @Test
+    public void givenRejectedRequest_whenReplayed_thenOriginalRejectionIsReturned() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        var rejection = assertThrows(BankingRejection.class,
+                () -> idempotentBankingService.withdraw("withdraw-1", accountNumber, Money.of("1000.00")));
+        bankingService.deposit(accountNumber, Money.of("5000.00"));
+
+        var replayed = assertThrows(BankingRejection.class,
+                () -> idempotentBankingService.withdraw("withdraw-1", accountNumber, Money.of("1000.00")));
+
+        assertThat(replayed).isSameAs(rejection);
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("5000.00"));
+    }
+
+    @Test
+    public void givenKeyReusedForDifferentRequest_whenSubmitted_thenRejected() {
+        var source = bankingService.createAccount("John Doe");
+        var destination = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(source, Money.of("5000.00"));
+        idempotentBankingService.transferFund("transfer-1", source, destination, Money.of("1000.00"));
+
+        var rejection = assertThrows(BankingRejection.class,
+                () -> idempotentBankingService.transferFund("transfer-1", source, destination, Money.of("2000.00")));
+
+        assertThat(rejection.getReason()).isEqualTo(BankingRejection.Reason.IDEMPOTENCY_KEY_REUSED);
+        assertThat(bankingService.getBalance(destination)).isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenConcurrentRequestsWithSameKey_whenDeposited_thenAppliedOnce() throws Exception {
+        var accountNumber = bankingService.createAccount("John Doe");
+        var executor = Executors.newFixedThreadPool(8);
+        var tasks = new ArrayList<Callable<Long>>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> idempotentBankingService.deposit("deposit-concurrent", accountNumber,
+                    Money.of("1000.00")));
+        }
+
+        var results = executor.invokeAll(tasks);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        for (var result : results) {
+            assertThat(result.get()).isEqualTo(Money.of("1000.00"));
+        }
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenPersistedOutcome_whenKeyIsNoLongerInMemory_thenReplayedFromTable() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        idempotentBankingService.deposit("deposit-persisted", accountNumber, Money.of("1000.00"));
+        var record = idempotencyRecordRepository.findById("deposit-persisted");
+        assertThat(record).isPresent();
+
+        // a fresh store has nothing in memory, as after a restart
+        var restarted = new IdempotencyStore(100, 60000, true, idempotencyRecordRepository, validationService);
+        var replayed = restarted.execute(
+                IdempotencyKey.of("deposit-persisted", "deposit", accountNumber, null, Money.of("1000.00")),
+                () -> {
+                    throw new AssertionError("the operation must not run again");
+                });
+
+        assertThat(replayed).isEqualTo(Money.of("1000.00"));
+    }
+}
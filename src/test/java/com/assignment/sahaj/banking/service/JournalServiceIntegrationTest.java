@@ -0,0 +1,67 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class JournalServiceIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private JournalService journalService;
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Test
+    public void givenPostings_whenReconstructBalance_thenMatchesAccountBalance() {
+        var source = bankingService.createAccount("John Doe");
+        var destination = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(source, Money.of("10000.00"));
+        bankingService.withdraw(source, Money.of("2000.00"));
+        bankingService.transferFund(source, destination, Money.of("3000.00"));
+
+        assertThat(journalService.reconstructBalance(source)).isEqualTo(bankingService.getBalance(source));
+        assertThat(journalService.reconstructBalance(destination)).isEqualTo(bankingService.getBalance(destination));
+
+        var entries = journalEntryRepository.findAll().stream()
+                .filter(entry -> entry.getAccountNumber().equals(source))
+                .toList();
+        assertThat(entries).extracting(JournalEntry::getType).containsExactly(
+                JournalEntry.Type.DEPOSIT, JournalEntry.Type.WITHDRAWAL, JournalEntry.Type.TRANSFER_OUT);
+        assertThat(entries.get(2).getCounterpartyAccountNumber()).isEqualTo(destination);
+        assertThat(entries.get(2).getBalanceAfter()).isEqualTo(Money.of("5000.00"));
+    }
+
+    @Test
+    public void givenSnapshot_whenMorePostings_thenBalanceIsSnapshotPlusLaterEntries() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("10000.00"));
+
+        var snapshot = journalService.snapshot(accountNumber);
+        assertThat(snapshot.getBalance()).isEqualTo(Money.of("10000.00"));
+
+        bankingService.withdraw(accountNumber, Money.of("4000.00"));
+
+        assertThat(journalService.reconstructBalance(accountNumber)).isEqualTo(Money.of("6000.00"));
+        assertThat(journalService.snapshot(accountNumber).getLastEntryId()).isGreaterThan(snapshot.getLastEntryId());
+    }
+
+    @Test
+    public void givenRejectedOperation_whenReconstructBalance_thenNothingWasJournaled() {
+        var accountNumber = bankingService.createAccount("John Doe");
+        bankingService.deposit(accountNumber, Money.of("1000.00"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bankingService.withdraw(accountNumber, Money.of("2000.00")));
+
+        assertThat(journalService.reconstructBalance(accountNumber)).isEqualTo(Money.of("1000.00"));
+    }
+}
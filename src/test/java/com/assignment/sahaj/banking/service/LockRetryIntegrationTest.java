@@ -0,0 +1,86 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.metrics.LockContentionMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:lockretrydb")
+public class LockRetryIntegrationTest {
+
+    @Autowired
+    private ContendedOperation contendedOperation;
+    @Autowired
+    private LockContentionMetrics lockContentionMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        contendedOperation.getEvents().clear();
+    }
+
+    @Test
+    public void givenLockContention_whenRetried_thenEveryAttemptRunsInANewTransaction() {
+        contendedOperation.run(1);
+
+        assertThat(contendedOperation.getEvents()).containsExactly(
+                "attempt 1", "rolled back", "attempt 2", "committed");
+    }
+
+    @Test
+    public void givenLockContentionOnEveryAttempt_whenRetriesRunOut_thenOnlyTheAttemptsThatWereRetriedAreCounted() {
+        var retries = lockContentionMetrics.getRetries();
+        var exhaustedRetries = lockContentionMetrics.getExhaustedRetries();
+
+        assertThrows(ConcurrencyFailureException.class, () -> contendedOperation.run(5));
+
+        assertThat(contendedOperation.getEvents()).filteredOn(event -> event.startsWith("attempt")).hasSize(5);
+        assertThat(lockContentionMetrics.getRetries() - retries).isEqualTo(4);
+        assertThat(lockContentionMetrics.getExhaustedRetries() - exhaustedRetries).isEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        public ContendedOperation contendedOperation() {
+            return new ContendedOperation();
+        }
+    }
+
+    static class ContendedOperation {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        public List<String> getEvents() {
+            return events;
+        }
+
+        @RetryOnLockContention
+        @Transactional
+        public void run(int failures) {
+            events.add("attempt " + (events.size() / 2 + 1));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    events.add(status == STATUS_COMMITTED ? "committed" : "rolled back");
+                }
+            });
+            if (events.size() <= failures * 2) {
+                throw new ConcurrencyFailureException("Lock timeout");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.entity.Customer;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.utils.Money;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statementsdb",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "banking.cache.enabled=false"})
+public class StatementCountIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        first = bankingService.createAccount("John Doe");
+        second = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(first, Money.of("5000.00"));
+        bankingService.deposit(second, Money.of("5000.00"));
+        statistics.clear();
+    }
+
+    @Test
+    public void givenAccount_whenDeposited_thenOnlyTheAccountIsLockedAndWritten() {
+        bankingService.deposit(first, Money.of("1000.00"));
+
+        // lock, update and journal insert, plus a journal sequence call once every 100 entries
+        assertThat(statistics.getPrepareStatementCount()).isBetween(3L, 4L);
+        assertThat(statistics.getEntityStatistics(Customer.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    public void givenTwoAccounts_whenTransferred_thenNoCustomerIsLoaded() {
+        bankingService.transferFund(first, second, Money.of("1000.00"));
+
+        // two locks, then the two journal inserts and the two updates are each sent as one JDBC batch
+        assertThat(statistics.getPrepareStatementCount()).isBetween(4L, 5L);
+        assertThat(statistics.getEntityStatistics(Customer.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    public void givenAccount_whenBalanceRead_thenOneStatementAndNoEntityIsLoaded() {
+        assertThat(bankingService.getBalance(first)).isEqualTo(Money.of("5000.00"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    public void givenAccount_whenLoadedWithCustomer_thenBothComeFromOneStatement() {
+        var account = accountRepository.findWithCustomerById(first).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(account.getCustomer())).isTrue();
+        assertThat(account.getCustomer().getName()).isEqualTo("John Doe");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+    }
+}
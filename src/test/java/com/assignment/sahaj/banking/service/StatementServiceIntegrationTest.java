@@ -0,0 +1,112 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import com.assignment.sahaj.banking.utils.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_DATE_RANGE_EXCEPTION_MESSAGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statementdb")
+public class StatementServiceIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2022, 6, 1);
+
+    @Autowired
+    private StatementService statementService;
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void givenEntriesOnSeveralDays_whenExported_thenOnlyTheRangeIsWrittenInPostingOrder() throws Exception {
+        var accountNumber = bankingService.createAccount("John Doe");
+        post(accountNumber, DAY.minusDays(1), 1);
+        post(accountNumber, DAY, 3);
+        post(accountNumber, DAY.plusDays(1), 2);
+        post(accountNumber, DAY.plusDays(2), 1);
+
+        var output = new ByteArrayOutputStream();
+        var count = statementService.export(accountNumber, DAY, DAY.plusDays(1), StatementService.Format.CSV, output);
+
+        var lines = output.toString().lines().toList();
+        assertThat(count).isEqualTo(5);
+        assertThat(lines).hasSize(6);
+        assertThat(lines.get(0)).isEqualTo("id,posted_at,type,amount,balance_after,counterparty_account_number");
+        assertThat(lines.get(1)).endsWith(",2022-06-01T12:00,DEPOSIT,1000.00,2000.00,");
+        assertThat(lines.get(5)).contains(",2022-06-02T12:01,DEPOSIT,1000.00,6000.00,");
+    }
+
+    @Test
+    public void givenManyEntries_whenExportedAsJson_thenEveryEntryIsStreamedToTheOutput() throws Exception {
+        var accountNumber = bankingService.createAccount("John Doe");
+        post(accountNumber, DAY, 5000);
+        var written = new long[1];
+        var output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written[0] += len;
+            }
+        };
+
+        var count = statementService.export(accountNumber, DAY, DAY, StatementService.Format.JSON, output);
+
+        assertThat(count).isEqualTo(5000);
+        assertThat(written[0]).isGreaterThan(5000L * 80);
+
+        var sample = new ByteArrayOutputStream();
+        statementService.export(accountNumber, DAY.minusDays(1), DAY.minusDays(1), StatementService.Format.JSON,
+                sample);
+        assertThat(objectMapper.readTree(sample.toByteArray()).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void givenInvalidRequest_whenValidated_thenRejectedBeforeExport() {
+        var accountNumber = bankingService.createAccount("John Doe");
+
+        var range = assertThrows(IllegalArgumentException.class,
+                () -> statementService.validate(accountNumber, DAY.plusDays(1), DAY));
+        var account = assertThrows(BankingRejection.class, () -> statementService.validate(100L, DAY, DAY));
+
+        assertThat(range.getMessage()).isEqualTo(INVALID_DATE_RANGE_EXCEPTION_MESSAGE);
+        assertThat(account.getReason()).isEqualTo(BankingRejection.Reason.INVALID_ACCOUNT);
+    }
+
+    // journal entries are written directly, so they can be dated without waiting for the clock
+    private void post(Long accountNumber, LocalDate day, int count) {
+        var entries = new ArrayList<JournalEntry>(count);
+        var balance = journalEntryRepository.findAll().stream()
+                .filter(entry -> entry.getAccountNumber().equals(accountNumber))
+                .mapToLong(JournalEntry::getAmount).sum();
+        for (int i = 0; i < count; i++) {
+            balance += Money.of("1000.00");
+            entries.add(JournalEntry.builder()
+                    .accountNumber(accountNumber)
+                    .type(JournalEntry.Type.DEPOSIT)
+                    .amount(Money.of("1000.00"))
+                    .balanceAfter(balance)
+                    .postedAt(day.atTime(12, 0).plusMinutes(i % 60))
+                    .build());
+        }
+        journalEntryRepository.saveAll(entries);
+    }
+}
@@ -0,0 +1,73 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.dto.TransferInstruction;
+import com.assignment.sahaj.banking.dto.TransferResult;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static com.assignment.sahaj.banking.utils.Messages.INVALID_ACCOUNT_EXCEPTION_MESSAGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class TransferBatchIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+
+    @Test
+    public void givenValidInstructions_whenTransferBatch_thenAllTransfersAreApplied() {
+        var payer = bankingService.createAccount("John Doe");
+        var firstPayee = bankingService.createAccount("Jane Doe");
+        var secondPayee = bankingService.createAccount("Jim Doe");
+        bankingService.deposit(payer, Money.of("50000.00"));
+
+        var results = bankingService.transferBatch(List.of(
+                new TransferInstruction(payer, firstPayee, Money.of("10000.00")),
+                new TransferInstruction(payer, secondPayee, Money.of("15000.00")),
+                new TransferInstruction(firstPayee, secondPayee, Money.of("5000.00"))), false);
+
+        assertThat(results).allMatch(TransferResult::isSuccess);
+        assertThat(bankingService.getBalance(payer)).isEqualTo(Money.of("25000.00"));
+        assertThat(bankingService.getBalance(firstPayee)).isEqualTo(Money.of("5000.00"));
+        assertThat(bankingService.getBalance(secondPayee)).isEqualTo(Money.of("20000.00"));
+    }
+
+    @Test
+    public void givenInvalidInstruction_whenTransferBatch_thenOnlyThatInstructionIsRejected() {
+        var payer = bankingService.createAccount("John Doe");
+        var payee = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(payer, Money.of("50000.00"));
+
+        var results = bankingService.transferBatch(List.of(
+                new TransferInstruction(payer, payee, Money.of("10000.00")),
+                new TransferInstruction(payer, 100L, Money.of("10000.00")),
+                new TransferInstruction(payee, payer, Money.of("60000.00"))), false);
+
+        assertThat(results).extracting(TransferResult::getStatus).containsExactly(
+                TransferResult.Status.SUCCESS, TransferResult.Status.REJECTED, TransferResult.Status.REJECTED);
+        assertThat(results.get(1).getMessage()).startsWith(INVALID_ACCOUNT_EXCEPTION_MESSAGE);
+        assertThat(bankingService.getBalance(payer)).isEqualTo(Money.of("40000.00"));
+        assertThat(bankingService.getBalance(payee)).isEqualTo(Money.of("10000.00"));
+    }
+
+    @Test
+    public void givenInvalidInstruction_whenAtomicTransferBatch_thenNoTransferIsApplied() {
+        var payer = bankingService.createAccount("John Doe");
+        var payee = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(payer, Money.of("50000.00"));
+
+        var exception = assertThrows(IllegalArgumentException.class,
+                () -> bankingService.transferBatch(List.of(
+                        new TransferInstruction(payer, payee, Money.of("10000.00")),
+                        new TransferInstruction(payer, 100L, Money.of("10000.00"))), true));
+
+        assertThat(exception.getMessage()).startsWith(INVALID_ACCOUNT_EXCEPTION_MESSAGE);
+        assertThat(bankingService.getBalance(payer)).isEqualTo(Money.of("50000.00"));
+        assertThat(bankingService.getBalance(payee)).isZero();
+    }
+}
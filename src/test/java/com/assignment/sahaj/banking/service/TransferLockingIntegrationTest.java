@@ -0,0 +1,59 @@
+package com.assignment.sahaj.banking.service;
+
+import com.assignment.sahaj.banking.limit.PostingLimitTracker;
+import com.assignment.sahaj.banking.metrics.LockContentionMetrics;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lockingdb",
+        "banking.daily.limit.credit=1000",
+        "banking.daily.limit.debit=1000"})
+public class TransferLockingIntegrationTest {
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private PostingLimitTracker postingLimitTracker;
+    @Autowired
+    private LockContentionMetrics lockContentionMetrics;
+
+    @Test
+    public void givenOppositeConcurrentTransfers_whenTransferred_thenNoUpdateIsLostAndNoDeadlockOccurs()
+            throws Exception {
+        var first = bankingService.createAccount("John Doe");
+        var second = bankingService.createAccount("Jane Doe");
+        bankingService.deposit(first, Money.of("50000.00"));
+        bankingService.deposit(second, Money.of("50000.00"));
+
+        var transfersPerDirection = 20;
+        var tasks = new ArrayList<Callable<String>>();
+        for (int i = 0; i < transfersPerDirection; i++) {
+            tasks.add(() -> bankingService.transferFund(first, second, Money.of("1000.00")));
+            tasks.add(() -> bankingService.transferFund(second, first, Money.of("1000.00")));
+        }
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            for (var future : executor.invokeAll(tasks)) {
+                assertThat(future.get()).isEqualTo("Success");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(bankingService.getBalance(first)).isEqualTo(Money.of("50000.00"));
+        assertThat(bankingService.getBalance(second)).isEqualTo(Money.of("50000.00"));
+        assertThat(postingLimitTracker.count(first, PostingLimitTracker.Direction.DEBIT))
+                .isEqualTo(transfersPerDirection);
+        assertThat(lockContentionMetrics.getLockAcquisitions()).isGreaterThanOrEqualTo(4L * transfersPerDirection);
+        assertThat(lockContentionMetrics.getExhaustedRetries()).isZero();
+    }
+}
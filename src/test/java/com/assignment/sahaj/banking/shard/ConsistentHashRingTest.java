@@ -0,0 +1,43 @@
+package com.assignment.sahaj.banking.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConsistentHashRingTest {
+
+    private static final int ACCOUNTS = 100_000;
+
+    @Test
+    public void givenThreeShards_whenAccountsMapped_thenEachShardGetsAboutAThird() {
+        var ring = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 256);
+
+        var counts = new int[3];
+        for (long accountNumber = 1001; accountNumber < 1001 + ACCOUNTS; accountNumber++) {
+            counts[ring.shardOf(accountNumber)]++;
+        }
+
+        for (var count : counts) {
+            assertThat(count).isBetween(ACCOUNTS / 3 * 85 / 100, ACCOUNTS / 3 * 115 / 100);
+        }
+    }
+
+    @Test
+    public void givenShardAdded_whenAccountsMapped_thenOnlyAccountsOfTheNewShardMove() {
+        var before = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2"), 256);
+        var after = new ConsistentHashRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 256);
+
+        var moved = 0;
+        for (long accountNumber = 1001; accountNumber < 1001 + ACCOUNTS; accountNumber++) {
+            var shard = after.shardOf(accountNumber);
+            if (shard != before.shardOf(accountNumber)) {
+                assertThat(shard).isEqualTo(3);
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(ACCOUNTS / 4 * 85 / 100, ACCOUNTS / 4 * 115 / 100);
+    }
+}
@@ -0,0 +1,281 @@
+package com.assignment.sahaj.banking.shard;
+
+import com.assignment.sahaj.banking.controller.LimitPolicyController;
+import com.assignment.sahaj.banking.dto.CustomerMatch;
+import com.assignment.sahaj.banking.entity.JournalEntry;
+import com.assignment.sahaj.banking.entity.TransferSaga;
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.idempotency.IdempotencyKey;
+import com.assignment.sahaj.banking.repository.IdempotencyRecordRepository;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardrouterdb",
+        "banking.sharding.enabled=true",
+        "banking.sharding.shards=alpha,beta",
+        "banking.sharding.url-pattern=jdbc:h2:mem:sharddb-%s;DB_CLOSE_ON_EXIT=FALSE",
+        "banking.idempotency.persistent=true",
+        "banking.limit.policy-file=./target/shard-limit-policy/limits.properties",
+        "banking.limit.reload-interval-ms=3600000"})
+public class ShardedBankingServiceIntegrationTest {
+
+    private static final Path POLICY_FILE = Path.of("./target/shard-limit-policy/limits.properties");
+
+    @Autowired
+    private ShardedBankingService shardedBankingService;
+    @Autowired
+    private LimitPolicyController limitPolicyController;
+    @Autowired
+    private ShardedCustomerSearch shardedCustomerSearch;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (Files.deleteIfExists(POLICY_FILE)) {
+            limitPolicyController.reload();
+        }
+    }
+
+    @Test
+    public void givenAccountsCreated_whenRouted_thenEachIsStoredOnlyOnItsOwnShard() {
+        var accountNumbers = new ArrayList<Long>();
+        for (int i = 0; i < 20; i++) {
+            accountNumbers.add(shardedBankingService.createAccount("Sharded " + i));
+        }
+
+        assertThat(accountNumbers).doesNotHaveDuplicates();
+        var shards = shardedBankingService.getShards();
+        for (var accountNumber : accountNumbers) {
+            var shard = shardedBankingService.shardOf(accountNumber);
+            assertThat(shard.getAccountRepository().existsById(accountNumber)).isTrue();
+            shards.stream().filter(other -> other != shard).forEach(other ->
+                    assertThat(other.getAccountRepository().existsById(accountNumber)).isFalse());
+        }
+        assertThat(shards).allMatch(shard -> shard.getAccountRepository().count() >= 10);
+        assertThat(shardedBankingService.deposit(accountNumbers.get(0), Money.of("1000.00")))
+                .isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenAccountsOnDifferentShards_whenTransferred_thenBothLegsAreApplied() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        var destination = shardedBankingService.createAccount("Saga Payee");
+        assertThat(shardedBankingService.shardOf(source)).isNotSameAs(shardedBankingService.shardOf(destination));
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+
+        shardedBankingService.transferFund(source, destination, Money.of("2000.00"));
+
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("3000.00"));
+        assertThat(shardedBankingService.getBalance(destination)).isEqualTo(Money.of("2000.00"));
+        assertThat(typesOf(source)).containsExactly(JournalEntry.Type.DEPOSIT, JournalEntry.Type.TRANSFER_OUT);
+        assertThat(typesOf(destination)).containsExactly(JournalEntry.Type.TRANSFER_IN);
+    }
+
+    @Test
+    public void givenCreditRejected_whenTransferredAcrossShards_thenDebitIsReversed() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        var destination = shardedBankingService.createAccount("Saga Payee");
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+        shardedBankingService.deposit(destination, Money.of("50000.00"));
+        shardedBankingService.deposit(destination, Money.of("49000.00"));
+
+        var rejection = assertThrows(BankingRejection.class,
+                () -> shardedBankingService.transferFund(source, destination, Money.of("2000.00")));
+
+        assertThat(rejection.getReason()).isEqualTo(BankingRejection.Reason.MAXIMUM_BALANCE);
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("5000.00"));
+        assertThat(shardedBankingService.getBalance(destination)).isEqualTo(Money.of("99000.00"));
+        assertThat(typesOf(source)).containsExactly(JournalEntry.Type.DEPOSIT, JournalEntry.Type.TRANSFER_OUT,
+                JournalEntry.Type.REVERSAL);
+    }
+
+    @Test
+    public void givenUnknownDestination_whenTransferredAcrossShards_thenSourceIsUnchanged() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+        var unknown = 2L;
+        while (shardedBankingService.shardOf(unknown) == shardedBankingService.shardOf(source)) {
+            unknown++;
+        }
+        var destination = unknown;
+
+        var rejection = assertThrows(BankingRejection.class,
+                () -> shardedBankingService.transferFund(source, destination, Money.of("2000.00")));
+
+        assertThat(rejection.getReason()).isEqualTo(BankingRejection.Reason.INVALID_ACCOUNT);
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("5000.00"));
+    }
+
+    @Test
+    public void givenSagaCreditedButNotCompleted_whenRecovered_thenItIsCompletedWithoutCreditingTwice() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        var destination = shardedBankingService.createAccount("Saga Payee");
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+        var sourceShard = shardedBankingService.shardOf(source);
+        var destinationShard = shardedBankingService.shardOf(destination);
+        var sagaId = sourceShard.getTransferSagaStore().begin(source, destination, Money.of("2000.00"));
+        sourceShard.getBankingService().debitTransfer(sagaId);
+        destinationShard.getBankingService().creditTransfer(sagaId, destination, source, Money.of("2000.00"));
+        // the credit is sent again, as after a reply that was lost
+        destinationShard.getBankingService().creditTransfer(sagaId, destination, source, Money.of("2000.00"));
+
+        shardedBankingService.recoverSagas(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(sourceShard.getTransferSagaStore().find(sagaId).getStatus())
+                .isEqualTo(TransferSaga.Status.CREDITED);
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("3000.00"));
+        assertThat(shardedBankingService.getBalance(destination)).isEqualTo(Money.of("2000.00"));
+        assertThat(typesOf(source)).containsExactly(JournalEntry.Type.DEPOSIT, JournalEntry.Type.TRANSFER_OUT);
+        assertThat(typesOf(destination)).containsExactly(JournalEntry.Type.TRANSFER_IN);
+    }
+
+    @Test
+    public void givenSagaDebitedButNotCredited_whenRecovered_thenDebitIsReversedAndNeverCredited() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        var destination = shardedBankingService.createAccount("Saga Payee");
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+        var sourceShard = shardedBankingService.shardOf(source);
+        var destinationShard = shardedBankingService.shardOf(destination);
+        var sagaId = sourceShard.getTransferSagaStore().begin(source, destination, Money.of("2000.00"));
+        sourceShard.getBankingService().debitTransfer(sagaId);
+
+        shardedBankingService.recoverSagas(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(sourceShard.getTransferSagaStore().find(sagaId).getStatus())
+                .isEqualTo(TransferSaga.Status.REVERSED);
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("5000.00"));
+        assertThat(typesOf(source)).containsExactly(JournalEntry.Type.DEPOSIT, JournalEntry.Type.TRANSFER_OUT,
+                JournalEntry.Type.REVERSAL);
+        assertThrows(IllegalStateException.class, () -> destinationShard.getBankingService()
+                .creditTransfer(sagaId, destination, source, Money.of("2000.00")));
+        assertThat(shardedBankingService.getBalance(destination)).isZero();
+    }
+
+    @Test
+    public void givenSagaNeverDebited_whenRecovered_thenItFailsAndIsNeverDebited() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        var destination = shardedBankingService.createAccount("Saga Payee");
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+        var sourceShard = shardedBankingService.shardOf(source);
+        var sagaId = sourceShard.getTransferSagaStore().begin(source, destination, Money.of("2000.00"));
+
+        shardedBankingService.recoverSagas(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(sourceShard.getTransferSagaStore().find(sagaId).getStatus())
+                .isEqualTo(TransferSaga.Status.FAILED);
+        assertThrows(IllegalStateException.class, () -> sourceShard.getBankingService().debitTransfer(sagaId));
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("5000.00"));
+    }
+
+    @Test
+    public void givenIdempotentTransferAcrossShards_whenRetried_thenItIsAppliedOnceAndItsKeyIsKeptByTheSource() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        var destination = shardedBankingService.createAccount("Saga Payee");
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+
+        shardedBankingService.transferFund("saga-transfer-1", source, destination, Money.of("2000.00"));
+        shardedBankingService.transferFund("saga-transfer-1", source, destination, Money.of("2000.00"));
+
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("3000.00"));
+        assertThat(shardedBankingService.getBalance(destination)).isEqualTo(Money.of("2000.00"));
+        assertThat(recordsOf(source).existsById("saga-transfer-1")).isTrue();
+        assertThat(recordsOf(destination).existsById("saga-transfer-1")).isFalse();
+    }
+
+    @Test
+    public void givenIdempotentSagaDebited_whenReversedByRecovery_thenItsKeyIsForgotten() {
+        var source = shardedBankingService.createAccount("Saga Payer");
+        var destination = shardedBankingService.createAccount("Saga Payee");
+        shardedBankingService.deposit(source, Money.of("5000.00"));
+        var sourceShard = shardedBankingService.shardOf(source);
+        var key = IdempotencyKey.of("saga-transfer-2", "transferFund", source, destination, Money.of("2000.00"));
+        var sagaId = sourceShard.getTransferSagaStore().begin(source, destination, Money.of("2000.00"), key);
+        sourceShard.getBankingService().debitTransfer(sagaId, key);
+        assertThat(recordsOf(source).existsById("saga-transfer-2")).isTrue();
+
+        shardedBankingService.recoverSagas(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(recordsOf(source).existsById("saga-transfer-2")).isFalse();
+        assertThat(shardedBankingService.getBalance(source)).isEqualTo(Money.of("5000.00"));
+    }
+
+    @Test
+    public void givenPolicyFileChanged_whenLimitsReloaded_thenEveryShardAppliesTheNewLimits() throws IOException {
+        var first = shardedBankingService.createAccount("Sharded Limits");
+        var second = shardedBankingService.createAccount("Sharded Limits");
+        assertThat(shardedBankingService.shardOf(first)).isNotSameAs(shardedBankingService.shardOf(second));
+        var rejection = assertThrows(BankingRejection.class,
+                () -> shardedBankingService.deposit(first, Money.of("200.00")));
+        assertThat(rejection.getReason()).isEqualTo(BankingRejection.Reason.MINIMUM_DEPOSIT);
+
+        Files.createDirectories(POLICY_FILE.getParent());
+        Files.writeString(POLICY_FILE, "banking.deposit.limit.minimum=100.00\n");
+        limitPolicyController.reload();
+
+        assertThat(shardedBankingService.deposit(first, Money.of("200.00"))).isEqualTo(Money.of("200.00"));
+        assertThat(shardedBankingService.deposit(second, Money.of("200.00"))).isEqualTo(Money.of("200.00"));
+    }
+
+    @Test
+    public void givenCustomersOnEveryShard_whenSearchedPageByPage_thenMatchesOfAllShardsAreMergedInNameOrder() {
+        var names = List.of("Zebulon Shard A", "Zebulon Shard B", "Zebulon Shard C", "Zebulon Shard D",
+                "Zebulon Shard E");
+        for (var name : List.of(names.get(3), names.get(0), names.get(4), names.get(2), names.get(1))) {
+            shardedBankingService.createAccount(name);
+        }
+
+        var found = new ArrayList<String>();
+        String cursor = null;
+        do {
+            var page = shardedCustomerSearch.search("zebulon", cursor, 2);
+            assertThat(page.getMatches()).hasSizeLessThanOrEqualTo(2);
+            page.getMatches().forEach(match -> found.add(match.getName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(found).containsExactlyElementsOf(names);
+        assertThat(shardedCustomerSearch.suggest("zebulon shard", 3)).extracting(CustomerMatch::getName)
+                .containsExactlyElementsOf(names.subList(0, 3));
+    }
+
+    @Test
+    public void givenShardStartedInRing_whenClaimedByAnotherRing_thenItIsRefused() {
+        var shard = shardedBankingService.getShards().get(0);
+        var membershipStore = shard.getContext().getBean(ShardMembershipStore.class);
+
+        membershipStore.claim("alpha", List.of("alpha", "beta"), 256);
+
+        assertThrows(IllegalStateException.class,
+                () -> membershipStore.claim("alpha", List.of("alpha", "beta", "gamma"), 256));
+        assertThrows(IllegalStateException.class,
+                () -> membershipStore.claim("alpha", List.of("alpha", "beta"), 128));
+        assertThrows(IllegalStateException.class,
+                () -> membershipStore.claim("beta", List.of("alpha", "beta"), 256));
+    }
+
+    private IdempotencyRecordRepository recordsOf(Long accountNumber) {
+        return shardedBankingService.shardOf(accountNumber).getContext().getBean(IdempotencyRecordRepository.class);
+    }
+
+    private List<JournalEntry.Type> typesOf(Long accountNumber) {
+        var journal = shardedBankingService.shardOf(accountNumber).getContext().getBean(JournalEntryRepository.class);
+        return journal.findAll().stream()
+                .filter(entry -> entry.getAccountNumber().equals(accountNumber))
+                .map(JournalEntry::getType)
+                .toList();
+    }
+}
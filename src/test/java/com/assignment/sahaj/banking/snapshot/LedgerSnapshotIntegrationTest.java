@@ -0,0 +1,116 @@
+package com.assignment.sahaj.banking.snapshot;
+
+import com.assignment.sahaj.banking.entity.Account;
+import com.assignment.sahaj.banking.repository.AccountRepository;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.service.JournalService;
+import com.assignment.sahaj.banking.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshotdb;DB_CLOSE_ON_EXIT=FALSE",
+        "banking.cache.enabled=false",
+        "banking.snapshot.enabled=true",
+        "banking.snapshot.path=target/snapshots/ledger.snapshot",
+        "banking.snapshot.restore-on-startup=false",
+        "banking.snapshot.restore-batch-size=2",
+        "banking.snapshot.interval-ms=3600000"})
+public class LedgerSnapshotIntegrationTest {
+
+    @Autowired
+    private LedgerSnapshotService ledgerSnapshotService;
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private JournalService journalService;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${banking.snapshot.path}")
+    private Path path;
+
+    @Test
+    public void givenSnapshot_whenRestoredIntoEmptyDatabase_thenAccountsCustomersAndBalancesAreBack() {
+        var payer = bankingService.createAccount("Snapshot Payer");
+        var payee = bankingService.createAccount("Snapshot Payee", Account.Tier.BUSINESS);
+        bankingService.deposit(payer, Money.of("5000.00"));
+        bankingService.transferFund(payer, payee, Money.of("1000.00"));
+
+        var written = ledgerSnapshotService.write();
+        deleteAll();
+
+        assertThat(ledgerSnapshotService.restore()).isEqualTo(written);
+        assertThat(bankingService.getBalance(payer)).isEqualTo(Money.of("4000.00"));
+        assertThat(bankingService.getBalance(payee)).isEqualTo(Money.of("1000.00"));
+        assertThat(journalService.reconstructBalance(payer)).isEqualTo(Money.of("4000.00"));
+        var restored = accountRepository.findWithCustomerById(payee).orElseThrow();
+        assertThat(restored.getCustomer().getName()).isEqualTo("Snapshot Payee");
+        assertThat(restored.getTier()).isEqualTo(Account.Tier.BUSINESS);
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR account_number_seq", Long.class))
+                .isGreaterThanOrEqualTo(payee + 1000);
+        assertThat(bankingService.deposit(payee, Money.of("1000.00"))).isEqualTo(Money.of("2000.00"));
+    }
+
+    @Test
+    public void givenStoredAccounts_whenRestored_thenSnapshotIsNotApplied() {
+        var accountNumber = bankingService.createAccount("Snapshot Kept");
+        ledgerSnapshotService.write();
+        bankingService.deposit(accountNumber, Money.of("1000.00"));
+
+        assertThat(ledgerSnapshotService.restore()).isZero();
+        assertThat(bankingService.getBalance(accountNumber)).isEqualTo(Money.of("1000.00"));
+    }
+
+    @Test
+    public void givenCorruptSnapshot_whenRestored_thenRefused() throws Exception {
+        bankingService.createAccount("Snapshot Corrupt");
+        ledgerSnapshotService.write();
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), LedgerSnapshotFile.HEADER_BYTES + 20);
+        }
+        deleteAll();
+
+        assertThrows(UncheckedIOException.class, () -> ledgerSnapshotService.restore());
+        assertThat(accountRepository.count()).isZero();
+    }
+
+    @Test
+    public void givenRestoreFailingAfterFirstBatch_whenRestored_thenNothingIsRestored() {
+        for (int i = 0; i < 3; i++) {
+            bankingService.createAccount("Snapshot Partial " + i);
+        }
+        ledgerSnapshotService.write();
+        var lastCustomerId = jdbcTemplate.queryForObject(
+                "SELECT customer_id FROM account ORDER BY account_number DESC LIMIT 1", Long.class);
+        deleteAll();
+        // a customer left behind clashes with the last batch of the restore
+        jdbcTemplate.update("INSERT INTO customer (id, name) VALUES (?, 'Leftover')", lastCustomerId);
+
+        assertThrows(DataAccessException.class, () -> ledgerSnapshotService.restore());
+        assertThat(accountRepository.count()).isZero();
+        jdbcTemplate.update("DELETE FROM customer");
+        assertThat(ledgerSnapshotService.restore()).isGreaterThanOrEqualTo(3);
+    }
+
+    private void deleteAll() {
+        jdbcTemplate.execute("DELETE FROM journal_entry");
+        jdbcTemplate.execute("DELETE FROM balance_snapshot");
+        jdbcTemplate.execute("DELETE FROM account");
+        jdbcTemplate.execute("DELETE FROM customer");
+    }
+}
@@ -0,0 +1,159 @@
+package com.assignment.sahaj.banking.stress;
+
+import com.assignment.sahaj.banking.exception.BankingRejection;
+import com.assignment.sahaj.banking.limit.LimitPolicyProvider;
+import com.assignment.sahaj.banking.limit.PostingLimitTracker;
+import com.assignment.sahaj.banking.repository.JournalEntryRepository;
+import com.assignment.sahaj.banking.service.BankingService;
+import com.assignment.sahaj.banking.service.JournalService;
+import com.assignment.sahaj.banking.utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs deposits, withdrawals and transfers from many threads over a small set of accounts, then checks that no money
+ * was created or lost, that no balance left its limits and that no account went over its daily limits. The size of
+ * the run is set with the {@code stress.*} system properties, see the {@code stress} Maven profile, and the achieved
+ * throughput is logged. With {@code stress.min-throughput} set, a slower run fails.
+ */
+@Slf4j
+abstract class BankingStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 8);
+    private static final int ACCOUNTS = Integer.getInteger("stress.accounts", 16);
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 4000);
+    private static final long SEED = Long.getLong("stress.seed", 42L);
+    private static final long MIN_THROUGHPUT = Long.getLong("stress.min-throughput", 0L);
+
+    private static final long OPENING_BALANCE = Money.of("50000.00");
+
+    @Autowired
+    private BankingService bankingService;
+    @Autowired
+    private JournalService journalService;
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    @Autowired
+    private PostingLimitTracker postingLimitTracker;
+    @Autowired
+    private LimitPolicyProvider limitPolicyProvider;
+
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    // money that came in through deposits minus money that left through withdrawals
+    private final AtomicLong externalFlow = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+    protected abstract String engine();
+
+    // makes every change visible to the database before the invariants are checked
+    protected void flush() {
+    }
+
+    @Test
+    public void givenParallelOperations_whenRun_thenMoneyIsConservedAndLimitsHold() throws Exception {
+        var limits = limitPolicyProvider.current().getDefaults();
+        var accountNumbers = new ArrayList<Long>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var accountNumber = bankingService.createAccount("Stress " + i);
+            bankingService.deposit(accountNumber, OPENING_BALANCE);
+            accountNumbers.add(accountNumber);
+        }
+
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var workers = new ArrayList<Future<?>>(THREADS);
+        for (int thread = 0; thread < THREADS; thread++) {
+            var random = new SplittableRandom(SEED + thread);
+            var operations = OPERATIONS / THREADS + (thread < OPERATIONS % THREADS ? 1 : 0);
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < operations; i++) {
+                    run(random, accountNumbers, limits.getMinimumBalanceLimit(), limits.getMaximumBalanceLimit());
+                }
+                return null;
+            }));
+        }
+        var startNanos = System.nanoTime();
+        start.countDown();
+        try {
+            for (var worker : workers) {
+                worker.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        var elapsedNanos = System.nanoTime() - startNanos;
+        var throughput = OPERATIONS * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+        log.info("{} engine: {} operations on {} threads over {} accounts in {} ms, {} ops/s, {} applied, {} rejected",
+                engine(), OPERATIONS, THREADS, ACCOUNTS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), throughput,
+                applied.sum(), rejected.sum());
+
+        flush();
+        var since = LocalDate.now().atStartOfDay();
+        var total = 0L;
+        for (var accountNumber : accountNumbers) {
+            var balance = bankingService.getBalance(accountNumber);
+            total += balance;
+            assertThat(balance).isBetween(limits.getMinimumBalanceLimit(), limits.getMaximumBalanceLimit());
+            assertThat(journalService.reconstructBalance(accountNumber)).isEqualTo(balance);
+
+            var credits = journalEntryRepository.countCreditsSince(accountNumber, since);
+            var debits = journalEntryRepository.countDebitsSince(accountNumber, since);
+            assertThat(credits).isLessThanOrEqualTo(limits.getDailyCreditLimit());
+            assertThat(debits).isLessThanOrEqualTo(limits.getDailyDebitLimit());
+            assertThat(postingLimitTracker.count(accountNumber, PostingLimitTracker.Direction.CREDIT))
+                    .isEqualTo(credits);
+            assertThat(postingLimitTracker.count(accountNumber, PostingLimitTracker.Direction.DEBIT))
+                    .isEqualTo(debits);
+        }
+        assertThat(violations).isEmpty();
+        assertThat(applied.sum() + rejected.sum()).isEqualTo(OPERATIONS);
+        assertThat(applied.sum()).isPositive();
+        assertThat(total).isEqualTo(ACCOUNTS * OPENING_BALANCE + externalFlow.get());
+        assertThat(throughput).isGreaterThanOrEqualTo(MIN_THROUGHPUT);
+    }
+
+    private void run(SplittableRandom random, List<Long> accountNumbers, long minimumBalance, long maximumBalance) {
+        var accountNumber = accountNumbers.get(random.nextInt(accountNumbers.size()));
+        // whole amounts between the minimum withdrawal and half the maximum, so every kind of rejection can happen
+        var amount = Money.ofMajorUnits(random.nextLong(1000, 25001));
+        try {
+            var choice = random.nextInt(4);
+            if (choice < 2) {
+                var destination = accountNumbers.get(random.nextInt(accountNumbers.size()));
+                bankingService.transferFund(accountNumber, destination, amount);
+            } else {
+                long balance;
+                if (choice == 2) {
+                    balance = bankingService.deposit(accountNumber, amount);
+                    externalFlow.addAndGet(amount);
+                } else {
+                    balance = bankingService.withdraw(accountNumber, amount);
+                    externalFlow.addAndGet(-amount);
+                }
+                if (balance < minimumBalance || balance > maximumBalance) {
+                    violations.add("Balance of " + accountNumber + " reached " + Money.format(balance));
+                }
+            }
+            applied.increment();
+        } catch (BankingRejection e) {
+            rejected.increment();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.assignment.sahaj.banking.stress;
+
+import com.assignment.sahaj.banking.ledger.LedgerWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stressmemorydb",
+        "banking.engine.mode=in-memory",
+        "banking.daily.limit.credit=200",
+        "banking.daily.limit.debit=200"})
+public class InMemoryEngineStressTest extends BankingStressTest {
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Override
+    protected String engine() {
+        return "in-memory";
+    }
+
+    @Override
+    protected void flush() {
+        ledgerWriter.flush();
+    }
+}
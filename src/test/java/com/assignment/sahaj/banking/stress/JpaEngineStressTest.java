@@ -0,0 +1,15 @@
+package com.assignment.sahaj.banking.stress;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stressjpadb",
+        "banking.daily.limit.credit=200",
+        "banking.daily.limit.debit=200"})
+public class JpaEngineStressTest extends BankingStressTest {
+
+    @Override
+    protected String engine() {
+        return "jpa";
+    }
+}
@@ -0,0 +1,72 @@
+package com.assignment.sahaj.banking.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.math.BigDecimal;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+
+    @Test
+    public void givenDecimalAmount_whenConvertedToMinorUnits_thenFormattedBackUnchanged() {
+        assertThat(Money.of("1000.00")).isEqualTo(100000L);
+        assertThat(Money.of("0.1")).isEqualTo(10L);
+        assertThat(Money.of(new BigDecimal("25000"))).isEqualTo(2500000L);
+        assertThat(Money.format(Money.of("1234.5"))).isEqualTo("1234.50");
+        assertThat(Money.format(-1L)).isEqualTo("-0.01");
+    }
+
+    @Test
+    public void givenAmountWithMoreThanTwoDecimals_whenConvertedToMinorUnits_thenThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of("10.005"));
+    }
+
+    @Test
+    public void givenLimitMessages_whenFormattedWithMinorUnits_thenSameAsPreviousDecimalFormatting() {
+        for (var amount : new double[]{0.00, 500.00, 1000.00, 25000.00, 50000.00, 100000.00, 1234.56}) {
+            assertThat(String.format(Messages.MINIMUM_DEPOSIT_LIMIT_EXCEPTION_MESSAGE,
+                    Money.format(Money.of(BigDecimal.valueOf(amount).setScale(2)))))
+                    .isEqualTo(String.format("Minimum deposit amount is $%.2f", amount));
+        }
+    }
+
+    @Test
+    public void givenManySmallPostings_whenSummedInMinorUnits_thenNoDriftAccumulates() {
+        var tenCents = Money.of("0.10");
+        var minorUnits = 0L;
+        var doubles = 0.0;
+        for (int i = 0; i < 1_000_000; i++) {
+            minorUnits += tenCents;
+            doubles += 0.10;
+        }
+        assertThat(minorUnits).isEqualTo(Money.of("100000.00"));
+        assertThat(doubles).isNotEqualTo(100000.00);
+    }
+
+    @Test
+    public void givenLegacyDoubleBalances_whenMigrated_thenBalancesAreHeldInMinorUnits() throws SQLException {
+        try (var connection = DriverManager.getConnection("jdbc:h2:mem:moneymigration", "sa", "")) {
+            try (var statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE account (account_number BIGINT PRIMARY KEY, balance DOUBLE)");
+                statement.execute("INSERT INTO account VALUES (1001, 0.0), (1002, 1234.56), (1003, 0.1 + 0.2)");
+            }
+
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/balance_to_minor_units.sql"));
+
+            try (var statement = connection.createStatement();
+                 var resultSet = statement.executeQuery("SELECT balance FROM account ORDER BY account_number")) {
+                var balances = new long[3];
+                for (int i = 0; resultSet.next(); i++) {
+                    balances[i] = resultSet.getLong(1);
+                }
+                assertThat(balances).containsExactly(0L, 123456L, 30L);
+            }
+        }
+    }
+}